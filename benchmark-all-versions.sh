@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+
+# Runs HotPathBenchmark against each Clojure version and joins the results into
+# benchmarks/results/matrix.csv. Versions can be given as arguments; extra JMH
+# options can be passed through $JMH_ARGS.
+
+set -eux
+
+if [ $# -gt 0 ]; then
+    versions=("$@")
+else
+    versions=(1.5.0 1.5.1 1.6.0 1.7.0 1.8.0 1.9.0 1.10.3 1.11.4 1.12.3)
+fi
+
+jmh_args=${JMH_ARGS:-"-f 1 -wi 3 -i 5"}
+results=benchmarks/results
+
+mvn install -DskipTests=true -Dgpg.skip=true
+mkdir -p $results
+
+inputs=()
+for i in ${versions[@]}
+do
+    mvn clean package -f benchmarks/pom.xml -Dclojure.version=$i
+    java -jar benchmarks/target/benchmarks.jar HotPathBenchmark $jmh_args -rf csv -rff $results/hotpath-$i.csv
+    inputs+=("$i=$results/hotpath-$i.csv")
+done
+
+java -cp benchmarks/target/benchmarks.jar com.github.rschmitt.collider.benchmarks.VersionMatrix $results/matrix.csv "${inputs[@]}"
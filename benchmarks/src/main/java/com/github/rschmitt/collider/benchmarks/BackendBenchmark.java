@@ -0,0 +1,116 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.rschmitt.collider.Backend;
+import com.github.rschmitt.collider.ClojureMap;
+import com.github.rschmitt.collider.ClojureSet;
+import com.github.rschmitt.collider.TransientMap;
+import com.github.rschmitt.collider.TransientSet;
+
+import static com.github.rschmitt.collider.Collider.transientMap;
+import static com.github.rschmitt.collider.Collider.transientSet;
+
+/**
+ * Compares the built-in backends on the same maps and sets. The {@code gc.alloc.rate.norm} of the
+ * build benchmarks is a rough measure of the size of the resulting trie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BackendBenchmark {
+    @Param({"clojure", "champ"})
+    public String backend;
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private Backend impl;
+    private Integer[] keys;
+    private int next;
+
+    private ClojureMap<Integer, Integer> map;
+    private ClojureSet<Integer> set;
+
+    @Setup
+    public void setup() {
+        impl = backend.equals("champ") ? Backend.champ() : Backend.clojure();
+        keys = Fixtures.shuffledKeys(size);
+        map = buildMap();
+        set = buildSet();
+    }
+
+    private Integer nextKey() {
+        Integer key = keys[next];
+        if (++next == keys.length) next = 0;
+        return key;
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> buildMap() {
+        TransientMap<Integer, Integer> tr = transientMap(impl);
+        for (Integer key : keys) {
+            tr.put(key, key);
+        }
+        return tr.toPersistent();
+    }
+
+    @Benchmark
+    public ClojureSet<Integer> buildSet() {
+        TransientSet<Integer> tr = transientSet(impl);
+        for (Integer key : keys) {
+            tr.add(key);
+        }
+        return tr.toPersistent();
+    }
+
+    @Benchmark
+    public Integer mapGet() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    public boolean setContains() {
+        return set.contains(nextKey());
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> mapAssoc() {
+        return map.assoc(nextKey(), -1);
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> mapDissoc() {
+        return map.dissoc(nextKey());
+    }
+
+    @Benchmark
+    public void mapIterate(Blackhole bh) {
+        for (Entry<Integer, Integer> entry : map.entrySet()) {
+            bh.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void mapForEach(Blackhole bh) {
+        map.forEach((k, v) -> bh.consume(v));
+    }
+
+    @Benchmark
+    public void setIterate(Blackhole bh) {
+        for (Integer element : set) {
+            bh.consume(element);
+        }
+    }
+}
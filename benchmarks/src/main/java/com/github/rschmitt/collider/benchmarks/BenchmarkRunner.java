@@ -0,0 +1,26 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for {@code benchmarks.jar}. Accepts the usual JMH command line, but always attaches
+ * the GC profiler (so that every result includes {@code gc.alloc.rate.norm}, the number of bytes
+ * allocated per operation) and writes a JSON result file unless a format is given explicitly.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class);
+        if (!cli.getResultFormat().hasValue()) {
+            options = options.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
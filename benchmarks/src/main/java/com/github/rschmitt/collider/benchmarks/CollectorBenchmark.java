@@ -0,0 +1,105 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.rschmitt.collider.ClojureList;
+import com.github.rschmitt.collider.ClojureMap;
+import com.github.rschmitt.collider.ClojureSet;
+
+import static com.github.rschmitt.collider.Collider.toClojureList;
+import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
+
+/**
+ * Compares the Collider collectors against the JDK's {@link Collectors}, with and without an
+ * unmodifiable wrapper around the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CollectorBenchmark {
+    @Param({"1", "10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Integer[] elements;
+
+    @Setup
+    public void setup() {
+        elements = Fixtures.shuffledKeys(size);
+    }
+
+    private Stream<Integer> stream() {
+        Stream<Integer> stream = Arrays.stream(elements);
+        return parallel ? stream.parallel() : stream;
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> toClojureMapCollector() {
+        return stream().collect(toClojureMap(Function.identity(), Function.identity()));
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> toSizedClojureMapCollector() {
+        return stream().collect(toClojureMap(Function.identity(), Function.identity(), size));
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> toHashMapCollector() {
+        return stream().collect(Collectors.toMap(Function.identity(), Function.identity()));
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> toUnmodifiableMapCollector() {
+        return Collections.unmodifiableMap(stream().collect(Collectors.toMap(Function.identity(), Function.identity())));
+    }
+
+    @Benchmark
+    public ClojureList<Integer> toClojureListCollector() {
+        return stream().collect(toClojureList());
+    }
+
+    @Benchmark
+    public List<Integer> toArrayListCollector() {
+        return stream().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> toUnmodifiableListCollector() {
+        return Collections.unmodifiableList(stream().collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public ClojureSet<Integer> toClojureSetCollector() {
+        return stream().collect(toClojureSet());
+    }
+
+    @Benchmark
+    public Set<Integer> toHashSetCollector() {
+        return stream().collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Set<Integer> toUnmodifiableSetCollector() {
+        return Collections.unmodifiableSet(stream().collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Shared setup helpers for the benchmarks. All inputs are generated from a fixed seed so that
+ * successive runs see identical data.
+ */
+final class Fixtures {
+    private static final long SEED = 0xC0111DE5L;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Returns the integers {@code [0, size)} as boxed keys, shuffled so that lookups do not walk
+     * the collection in insertion order.
+     */
+    static Integer[] shuffledKeys(int size) {
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++) keys[i] = i;
+        Random random = new Random(SEED);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.rschmitt.collider.ClojureList;
+import com.github.rschmitt.collider.ClojureMap;
+import com.github.rschmitt.collider.ClojureSet;
+import com.github.rschmitt.collider.TransientMap;
+
+import static com.github.rschmitt.collider.Collider.toClojureList;
+import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
+import static com.github.rschmitt.collider.Collider.transientMap;
+
+/**
+ * The operations that dominate Collider's cost in practice, kept small and stable so that results
+ * can be compared across Clojure versions. See {@code benchmark-all-versions.sh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HotPathBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private Integer[] elements;
+    private int next;
+
+    private ClojureMap<Integer, Integer> map;
+    private ClojureList<Integer> list;
+
+    @Setup
+    public void setup() {
+        elements = Fixtures.shuffledKeys(size);
+        map = Arrays.stream(elements).collect(toClojureMap(Function.identity(), Function.identity()));
+        list = Arrays.stream(elements).collect(toClojureList());
+    }
+
+    private Integer nextElement() {
+        Integer element = elements[next];
+        if (++next == elements.length) next = 0;
+        return element;
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> clojureMapAssoc() {
+        return map.assoc(nextElement(), size);
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> transientMapPut() {
+        TransientMap<Integer, Integer> tr = transientMap();
+        for (Integer element : elements) {
+            tr.put(element, element);
+        }
+        return tr.toPersistent();
+    }
+
+    @Benchmark
+    public ClojureList<Integer> clojureListAppend() {
+        return list.append(size);
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> toClojureMapCollector() {
+        return Arrays.stream(elements).collect(toClojureMap(Function.identity(), Function.identity()));
+    }
+
+    @Benchmark
+    public ClojureList<Integer> toClojureListCollector() {
+        return Arrays.stream(elements).collect(toClojureList());
+    }
+
+    @Benchmark
+    public ClojureSet<Integer> toClojureSetCollector() {
+        return Arrays.stream(elements).collect(toClojureSet());
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.rschmitt.collider.ClojureList;
+import com.github.rschmitt.collider.TransientList;
+
+import static com.github.rschmitt.collider.Collider.transientList;
+
+/**
+ * Compares ClojureList against an ArrayList that is copied on every write and against a read-only
+ * {@link Collections#unmodifiableList} view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ListBenchmark {
+    @Param({"1", "10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Integer[] indices;
+    private int next;
+
+    private ClojureList<Integer> clojureList;
+    private ArrayList<Integer> arrayList;
+    private List<Integer> unmodifiableList;
+
+    @Setup
+    public void setup() {
+        indices = Fixtures.shuffledKeys(size);
+
+        TransientList<Integer> tr = transientList();
+        arrayList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tr.append(i);
+            arrayList.add(i);
+        }
+        clojureList = tr.toPersistent();
+        unmodifiableList = Collections.unmodifiableList(arrayList);
+    }
+
+    private int nextIndex() {
+        int index = indices[next];
+        if (++next == indices.length) next = 0;
+        return index;
+    }
+
+    @Benchmark
+    public Integer clojureListGet() {
+        return clojureList.get(nextIndex());
+    }
+
+    @Benchmark
+    public Integer arrayListGet() {
+        return arrayList.get(nextIndex());
+    }
+
+    @Benchmark
+    public Integer unmodifiableListGet() {
+        return unmodifiableList.get(nextIndex());
+    }
+
+    @Benchmark
+    public ClojureList<Integer> clojureListAppend() {
+        return clojureList.append(size);
+    }
+
+    @Benchmark
+    public List<Integer> arrayListCopyAndAdd() {
+        ArrayList<Integer> copy = new ArrayList<>(size + 1);
+        copy.addAll(arrayList);
+        copy.add(size);
+        return copy;
+    }
+
+    @Benchmark
+    public List<Integer> unmodifiableListCopyAndAdd() {
+        ArrayList<Integer> copy = new ArrayList<>(size + 1);
+        copy.addAll(unmodifiableList);
+        copy.add(size);
+        return Collections.unmodifiableList(copy);
+    }
+
+    @Benchmark
+    public void clojureListIterate(Blackhole bh) {
+        for (Integer i : clojureList) bh.consume(i);
+    }
+
+    @Benchmark
+    public void arrayListIterate(Blackhole bh) {
+        for (Integer i : arrayList) bh.consume(i);
+    }
+
+    @Benchmark
+    public void unmodifiableListIterate(Blackhole bh) {
+        for (Integer i : unmodifiableList) bh.consume(i);
+    }
+
+    @Benchmark
+    public long clojureListParallelSum() {
+        return clojureList.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long arrayListParallelSum() {
+        return arrayList.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public ClojureList<Integer> clojureListChainedMapFilterMap() {
+        return clojureList.map(x -> x * 3).filter(x -> (x & 1) == 0).map(x -> x + 1);
+    }
+
+    @Benchmark
+    public ClojureList<Integer> clojureListPipelineMapFilterMap() {
+        return clojureList.pipeline().map(x -> x * 3).filter(x -> (x & 1) == 0).map(x -> x + 1).toList();
+    }
+}
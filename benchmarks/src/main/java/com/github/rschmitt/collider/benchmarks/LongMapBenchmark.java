@@ -0,0 +1,96 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.rschmitt.collider.ClojureLongMap;
+import com.github.rschmitt.collider.ClojureMap;
+import com.github.rschmitt.collider.TransientLongMap;
+import com.github.rschmitt.collider.TransientMap;
+
+import static com.github.rschmitt.collider.Collider.transientLongMap;
+import static com.github.rschmitt.collider.Collider.transientMap;
+
+/**
+ * Compares ClojureLongMap against a ClojureMap with boxed Long keys. Keys are spread across the
+ * whole long range, as database IDs and hashes typically are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LongMapBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private long[] keys;
+    private int next;
+    private long absentKey;
+
+    private ClojureLongMap<Long> longMap;
+    private ClojureMap<Long, Long> boxedMap;
+
+    @Setup
+    public void setup() {
+        Integer[] order = Fixtures.shuffledKeys(size);
+        keys = new long[size];
+        for (int i = 0; i < size; i++) keys[i] = order[i] * 0x9E3779B97F4A7C15L;
+        absentKey = size * 0x9E3779B97F4A7C15L;
+
+        TransientLongMap<Long> longTr = transientLongMap();
+        TransientMap<Long, Long> boxedTr = transientMap(size);
+        for (long key : keys) {
+            longTr.put(key, key);
+            boxedTr.put(key, key);
+        }
+        longMap = longTr.toPersistent();
+        boxedMap = boxedTr.toPersistent();
+    }
+
+    private long nextKey() {
+        long key = keys[next];
+        if (++next == keys.length) next = 0;
+        return key;
+    }
+
+    @Benchmark
+    public Long longMapGet() {
+        return longMap.get(nextKey());
+    }
+
+    @Benchmark
+    public Long boxedMapGet() {
+        return boxedMap.get(nextKey());
+    }
+
+    @Benchmark
+    public ClojureLongMap<Long> longMapAssoc() {
+        return longMap.assoc(absentKey, absentKey);
+    }
+
+    @Benchmark
+    public ClojureMap<Long, Long> boxedMapAssoc() {
+        return boxedMap.assoc(absentKey, absentKey);
+    }
+
+    @Benchmark
+    public ClojureLongMap<Long> longMapBuild() {
+        TransientLongMap<Long> tr = transientLongMap();
+        for (long key : keys) tr.put(key, key);
+        return tr.toPersistent();
+    }
+
+    @Benchmark
+    public ClojureMap<Long, Long> boxedMapBuild() {
+        TransientMap<Long, Long> tr = transientMap();
+        for (long key : keys) tr.put(key, key);
+        return tr.toPersistent();
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.rschmitt.collider.ClojureMap;
+import com.github.rschmitt.collider.TransientMap;
+
+import static com.github.rschmitt.collider.Collider.transientMap;
+
+/**
+ * Compares ClojureMap against a HashMap that is copied on every write and against a read-only
+ * {@link Collections#unmodifiableMap} view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapBenchmark {
+    @Param({"1", "10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Integer[] keys;
+    private int next;
+    private Integer absentKey;
+
+    private ClojureMap<Integer, Integer> clojureMap;
+    private HashMap<Integer, Integer> hashMap;
+    private Map<Integer, Integer> unmodifiableMap;
+
+    @Setup
+    public void setup() {
+        keys = Fixtures.shuffledKeys(size);
+        absentKey = size;
+
+        TransientMap<Integer, Integer> tr = transientMap();
+        hashMap = new HashMap<>();
+        for (Integer key : keys) {
+            tr.put(key, key);
+            hashMap.put(key, key);
+        }
+        clojureMap = tr.toPersistent();
+        unmodifiableMap = Collections.unmodifiableMap(hashMap);
+    }
+
+    private Integer nextKey() {
+        Integer key = keys[next];
+        if (++next == keys.length) next = 0;
+        return key;
+    }
+
+    @Benchmark
+    public Integer clojureMapGet() {
+        return clojureMap.get(nextKey());
+    }
+
+    @Benchmark
+    public Integer hashMapGet() {
+        return hashMap.get(nextKey());
+    }
+
+    @Benchmark
+    public Integer unmodifiableMapGet() {
+        return unmodifiableMap.get(nextKey());
+    }
+
+    @Benchmark
+    public boolean clojureMapContainsKey() {
+        return clojureMap.containsKey(nextKey());
+    }
+
+    @Benchmark
+    public boolean hashMapContainsKey() {
+        return hashMap.containsKey(nextKey());
+    }
+
+    @Benchmark
+    public boolean unmodifiableMapContainsKey() {
+        return unmodifiableMap.containsKey(nextKey());
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> clojureMapAssoc() {
+        return clojureMap.assoc(absentKey, absentKey);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> hashMapCopyAndPut() {
+        HashMap<Integer, Integer> copy = new HashMap<>(hashMap);
+        copy.put(absentKey, absentKey);
+        return copy;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> unmodifiableMapCopyAndPut() {
+        HashMap<Integer, Integer> copy = new HashMap<>(unmodifiableMap);
+        copy.put(absentKey, absentKey);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @Benchmark
+    public ClojureMap<Integer, Integer> clojureMapDissoc() {
+        return clojureMap.dissoc(nextKey());
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> hashMapCopyAndRemove() {
+        HashMap<Integer, Integer> copy = new HashMap<>(hashMap);
+        copy.remove(nextKey());
+        return copy;
+    }
+
+    @Benchmark
+    public void clojureMapIterate(Blackhole bh) {
+        for (Entry<Integer, Integer> entry : clojureMap.entrySet()) {
+            bh.consume(entry.getKey());
+            bh.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void clojureMapForEach(Blackhole bh) {
+        clojureMap.forEach((k, v) -> {
+            bh.consume(k);
+            bh.consume(v);
+        });
+    }
+
+    @Benchmark
+    public long clojureMapReduce() {
+        return clojureMap.reduce(0L, (acc, k, v) -> acc + k + v);
+    }
+
+    @Benchmark
+    public void hashMapIterate(Blackhole bh) {
+        for (Entry<Integer, Integer> entry : hashMap.entrySet()) {
+            bh.consume(entry.getKey());
+            bh.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void unmodifiableMapIterate(Blackhole bh) {
+        for (Entry<Integer, Integer> entry : unmodifiableMap.entrySet()) {
+            bh.consume(entry.getKey());
+            bh.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public long clojureMapParallelValueSum() {
+        return clojureMap.values().parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long clojureMapFoldSum() {
+        return clojureMap.fold(0L, Long::sum, (acc, k, v) -> acc + v, 512);
+    }
+
+    @Benchmark
+    public long hashMapParallelValueSum() {
+        return hashMap.values().parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long clojureMapParallelEntrySum() {
+        return clojureMap.entrySet().parallelStream().mapToLong(e -> e.getKey() + e.getValue()).sum();
+    }
+
+    @Benchmark
+    public long hashMapParallelEntrySum() {
+        return hashMap.entrySet().parallelStream().mapToLong(e -> e.getKey() + e.getValue()).sum();
+    }
+}
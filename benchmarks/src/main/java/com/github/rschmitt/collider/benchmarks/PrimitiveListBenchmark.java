@@ -0,0 +1,83 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.rschmitt.collider.ClojureDoubleList;
+import com.github.rschmitt.collider.ClojureList;
+import com.github.rschmitt.collider.TransientDoubleList;
+import com.github.rschmitt.collider.TransientList;
+
+import static com.github.rschmitt.collider.Collider.transientDoubleList;
+import static com.github.rschmitt.collider.Collider.transientList;
+
+/**
+ * Compares ClojureDoubleList against a ClojureList of boxed Doubles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PrimitiveListBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private ClojureDoubleList doubleList;
+    private ClojureList<Double> boxedList;
+    private int next;
+
+    @Setup
+    public void setup() {
+        TransientDoubleList doubles = transientDoubleList();
+        TransientList<Double> boxed = transientList();
+        for (int i = 0; i < size; i++) {
+            doubles.append(i * 0.5);
+            boxed.append(i * 0.5);
+        }
+        doubleList = doubles.toPersistent();
+        boxedList = boxed.toPersistent();
+    }
+
+    private int nextIndex() {
+        int index = next;
+        if (++next == size) next = 0;
+        return index;
+    }
+
+    @Benchmark
+    public double doubleListGet() {
+        return doubleList.getDouble(nextIndex());
+    }
+
+    @Benchmark
+    public double boxedListGet() {
+        return boxedList.get(nextIndex());
+    }
+
+    @Benchmark
+    public double doubleListSum() {
+        return doubleList.sum();
+    }
+
+    @Benchmark
+    public double boxedListSum() {
+        return boxedList.stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    @Benchmark
+    public ClojureDoubleList doubleListAppend() {
+        return doubleList.append(1.0);
+    }
+
+    @Benchmark
+    public ClojureList<Double> boxedListAppend() {
+        return boxedList.append(1.0);
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.rschmitt.collider.ClojureSet;
+import com.github.rschmitt.collider.TransientSet;
+
+import static com.github.rschmitt.collider.Collider.transientSet;
+
+/**
+ * Compares ClojureSet against a HashSet that is copied on every write and against a read-only
+ * {@link Collections#unmodifiableSet} view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SetBenchmark {
+    @Param({"1", "10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Integer[] elements;
+    private int next;
+    private Integer absentElement;
+
+    private ClojureSet<Integer> clojureSet;
+    private HashSet<Integer> hashSet;
+    private Set<Integer> unmodifiableSet;
+
+    @Setup
+    public void setup() {
+        elements = Fixtures.shuffledKeys(size);
+        absentElement = size;
+
+        TransientSet<Integer> tr = transientSet();
+        hashSet = new HashSet<>();
+        for (Integer element : elements) {
+            tr.add(element);
+            hashSet.add(element);
+        }
+        clojureSet = tr.toPersistent();
+        unmodifiableSet = Collections.unmodifiableSet(hashSet);
+    }
+
+    private Integer nextElement() {
+        Integer element = elements[next];
+        if (++next == elements.length) next = 0;
+        return element;
+    }
+
+    @Benchmark
+    public boolean clojureSetContains() {
+        return clojureSet.contains(nextElement());
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        return hashSet.contains(nextElement());
+    }
+
+    @Benchmark
+    public boolean unmodifiableSetContains() {
+        return unmodifiableSet.contains(nextElement());
+    }
+
+    @Benchmark
+    public ClojureSet<Integer> clojureSetWith() {
+        return clojureSet.with(absentElement);
+    }
+
+    @Benchmark
+    public Set<Integer> hashSetCopyAndAdd() {
+        HashSet<Integer> copy = new HashSet<>(hashSet);
+        copy.add(absentElement);
+        return copy;
+    }
+
+    @Benchmark
+    public Set<Integer> unmodifiableSetCopyAndAdd() {
+        HashSet<Integer> copy = new HashSet<>(unmodifiableSet);
+        copy.add(absentElement);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    @Benchmark
+    public ClojureSet<Integer> clojureSetWithout() {
+        return clojureSet.without(nextElement());
+    }
+
+    @Benchmark
+    public Set<Integer> hashSetCopyAndRemove() {
+        HashSet<Integer> copy = new HashSet<>(hashSet);
+        copy.remove(nextElement());
+        return copy;
+    }
+
+    @Benchmark
+    public void clojureSetIterate(Blackhole bh) {
+        for (Integer i : clojureSet) bh.consume(i);
+    }
+
+    @Benchmark
+    public void hashSetIterate(Blackhole bh) {
+        for (Integer i : hashSet) bh.consume(i);
+    }
+
+    @Benchmark
+    public void unmodifiableSetIterate(Blackhole bh) {
+        for (Integer i : unmodifiableSet) bh.consume(i);
+    }
+
+    @Benchmark
+    public long clojureSetParallelSum() {
+        return clojureSet.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long hashSetParallelSum() {
+        return hashSet.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+}
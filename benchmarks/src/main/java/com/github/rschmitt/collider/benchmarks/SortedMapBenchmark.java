@@ -0,0 +1,79 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.rschmitt.collider.ClojureSortedMap;
+import com.github.rschmitt.collider.TransientSortedMap;
+
+import static com.github.rschmitt.collider.Collider.clojureSortedMap;
+import static com.github.rschmitt.collider.Collider.transientSortedMap;
+
+/**
+ * Measures building a ClojureSortedMap from sorted input, and range queries against it, compared
+ * to copying a TreeMap for every query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SortedMapBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private ClojureSortedMap<Integer, Integer> sortedMap;
+    private TreeMap<Integer, Integer> treeMap;
+    private int next;
+
+    @Setup
+    public void setup() {
+        sortedMap = sortedBulkLoad();
+        treeMap = new TreeMap<>(sortedMap);
+    }
+
+    private int nextKey() {
+        int key = next;
+        if (++next == size) next = 0;
+        return key;
+    }
+
+    @Benchmark
+    public ClojureSortedMap<Integer, Integer> sortedBulkLoad() {
+        TransientSortedMap<Integer, Integer> tr = transientSortedMap();
+        for (int i = 0; i < size; i++) tr.put(i, i);
+        return tr.toPersistent();
+    }
+
+    @Benchmark
+    public ClojureSortedMap<Integer, Integer> sortedAssoc() {
+        ClojureSortedMap<Integer, Integer> ret = clojureSortedMap();
+        for (int i = 0; i < size; i++) ret = ret.assoc(i, i);
+        return ret;
+    }
+
+    @Benchmark
+    public Map.Entry<Integer, Integer> sortedMapRangeFirst() {
+        int from = nextKey();
+        return sortedMap.tailMap(from, true).firstEntry();
+    }
+
+    @Benchmark
+    public Map.Entry<Integer, Integer> treeMapCopyRangeFirst() {
+        int from = nextKey();
+        return new TreeMap<>(treeMap.tailMap(from, true)).firstEntry();
+    }
+
+    @Benchmark
+    public Integer sortedMapFloorKey() {
+        return sortedMap.floorKey(nextKey());
+    }
+}
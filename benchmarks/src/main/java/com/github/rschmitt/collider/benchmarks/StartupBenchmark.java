@@ -0,0 +1,62 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rschmitt.collider.ClojureList;
+import com.github.rschmitt.collider.ClojureMap;
+import com.github.rschmitt.collider.TransientMap;
+
+import clojure.lang.RT;
+
+import static com.github.rschmitt.collider.Collider.clojureList;
+import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.transientMap;
+
+/**
+ * Measures the cost of the first use of Collider in a fresh JVM, as seen by a short-lived process.
+ * Every measurement runs exactly once in its own fork, with no warmup, so it includes class
+ * loading and static initialization.
+ * <p/>
+ * {@link #clojureRuntime} initializes {@code clojure.lang.RT}, which loads {@code clojure.core},
+ * as a point of comparison. The other benchmarks only use string keys, and should not initialize
+ * RT at all; hashing a {@link Number} goes through {@code clojure.lang.Numbers}, which does.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+    @Benchmark
+    public Object clojureRuntime() {
+        return RT.count(null);
+    }
+
+    @Benchmark
+    public ClojureMap<String, String> clojureMapAssoc() {
+        ClojureMap<String, String> map = clojureMap("a", "1");
+        return map.assoc("b", "2").dissoc("a");
+    }
+
+    @Benchmark
+    public ClojureMap<String, String> transientMapBuild() {
+        TransientMap<String, String> map = transientMap();
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, "value" + i);
+        }
+        return map.toPersistent();
+    }
+
+    @Benchmark
+    public ClojureList<String> clojureListAppend() {
+        return clojureList("a", "b").append("c").subList(1, 3);
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.rschmitt.collider.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joins the CSV results of several JMH runs, one per Clojure version, into a single comparison
+ * table. Each row of the output is one benchmark/parameter/metric combination, with one score
+ * column per version followed by the version that performed best on that row.
+ * <p/>
+ * Usage: {@code VersionMatrix <output.csv> <version>=<results.csv>...}
+ */
+public class VersionMatrix {
+    private static final int BENCHMARK = 0;
+    private static final int MODE = 1;
+    private static final int SCORE = 4;
+    private static final int UNIT = 6;
+    private static final int FIRST_PARAM = 7;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: VersionMatrix <output.csv> <version>=<results.csv>...");
+            System.exit(1);
+        }
+
+        List<String> versions = new ArrayList<>();
+        List<String> paramNames = null;
+        Map<List<String>, Map<String, String>> rows = new LinkedHashMap<>();
+
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            String version = args[i].substring(0, eq);
+            List<String> lines = Files.readAllLines(Paths.get(args[i].substring(eq + 1)), StandardCharsets.UTF_8);
+            versions.add(version);
+
+            List<String> header = parseLine(lines.get(0));
+            if (paramNames == null) paramNames = header.subList(FIRST_PARAM, header.size());
+
+            for (String line : lines.subList(1, lines.size())) {
+                if (line.isEmpty()) continue;
+                List<String> fields = parseLine(line);
+                List<String> key = new ArrayList<>();
+                key.add(fields.get(BENCHMARK));
+                key.add(fields.get(MODE));
+                key.add(fields.get(UNIT));
+                key.addAll(fields.subList(FIRST_PARAM, fields.size()));
+                rows.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(version, fields.get(SCORE));
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8))) {
+            List<String> header = new ArrayList<>();
+            header.add("Benchmark");
+            header.add("Mode");
+            header.add("Unit");
+            header.addAll(paramNames);
+            header.addAll(versions);
+            header.add("Best");
+            out.println(toLine(header));
+
+            for (Map.Entry<List<String>, Map<String, String>> row : rows.entrySet()) {
+                List<String> fields = new ArrayList<>(row.getKey());
+                for (String version : versions) {
+                    fields.add(row.getValue().getOrDefault(version, ""));
+                }
+                fields.add(best(row.getKey().get(2), row.getValue()));
+                out.println(toLine(fields));
+            }
+        }
+    }
+
+    /**
+     * Returns the version with the best score, or an empty string if the unit does not say whether
+     * higher or lower is better. Throughput ({@code ops/time}) is better when higher; time per
+     * operation and bytes per operation are better when lower.
+     */
+    private static String best(String unit, Map<String, String> scores) {
+        boolean higherIsBetter;
+        if (unit.startsWith("ops/")) higherIsBetter = true;
+        else if (unit.endsWith("/op")) higherIsBetter = false;
+        else return "";
+
+        String best = "";
+        double bestScore = higherIsBetter ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, String> entry : scores.entrySet()) {
+            double score;
+            try {
+                score = Double.parseDouble(entry.getValue());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (higherIsBetter ? score > bestScore : score < bestScore) {
+                bestScore = score;
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String toLine(List<String> fields) {
+        StringBuilder line = new StringBuilder();
+        for (String field : fields) {
+            if (line.length() > 0) line.append(',');
+            line.append('"').append(field.replace("\"", "\"\"")).append('"');
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,810 @@
+package clojure.lang;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * A persistent hash map stored as a Compressed Hash-Array Mapped Prefix-tree (CHAMP), as
+ * described by Steindorfer and Vinju. It is a drop-in alternative to {@link PersistentHashMap},
+ * with the same hashing and equality semantics, and it supports transients in the same way.
+ * <p/>
+ * The differences are in the layout of the trie. Each node keeps two bitmaps, one for inline
+ * entries and one for child nodes, and a single array with the entries packed at the front and the
+ * children packed at the back. There are no placeholder slots for children and no separate array
+ * node for dense levels, so the trie takes less memory, and iteration reads the entries of a node
+ * in one contiguous run before descending. Removal keeps the trie in a canonical form, in which no
+ * child node holds a single entry, so a map's layout depends only on its contents.
+ * <p/>
+ * This class lives in {@code clojure.lang} because the transient base classes that it extends are
+ * package-private in older versions of Clojure; it is an implementation detail of Collider and not
+ * part of its public API.
+ */
+public final class ChampMap extends APersistentMap implements IEditableCollection, IObj {
+    private static final long serialVersionUID = 1L;
+
+    public static final ChampMap EMPTY = new ChampMap(null, 0, BitmapNode.EMPTY);
+
+    private static final Object NOT_FOUND = new Object();
+
+    private final IPersistentMap meta;
+    final int count;
+    final Node root;
+
+    private ChampMap(IPersistentMap meta, int count, Node root) {
+        this.meta = meta;
+        this.count = count;
+        this.root = root;
+    }
+
+    @Override
+    public IPersistentMap assoc(Object key, Object val) {
+        Box addedLeaf = new Box(null);
+        Node newRoot = root.assoc(null, key, PersistentHashMap.hash(key), val, 0, addedLeaf);
+        if (newRoot == root) return this;
+        return new ChampMap(meta, addedLeaf.val == null ? count : count + 1, newRoot);
+    }
+
+    @Override
+    public IPersistentMap assocEx(Object key, Object val) {
+        if (containsKey(key)) throw new RuntimeException("Key already present");
+        return assoc(key, val);
+    }
+
+    @Override
+    public IPersistentMap without(Object key) {
+        Box removedLeaf = new Box(null);
+        Node newRoot = root.without(null, key, PersistentHashMap.hash(key), 0, removedLeaf);
+        if (newRoot == root) return this;
+        return new ChampMap(meta, count - 1, newRoot);
+    }
+
+    @Override
+    public Object valAt(Object key) {
+        return valAt(key, null);
+    }
+
+    @Override
+    public Object valAt(Object key, Object notFound) {
+        return root.find(key, PersistentHashMap.hash(key), 0, notFound);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return valAt(key, NOT_FOUND) != NOT_FOUND;
+    }
+
+    @Override
+    public IMapEntry entryAt(Object key) {
+        Object val = valAt(key, NOT_FOUND);
+        return val == NOT_FOUND ? null : new MapEntry(key, val);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public IPersistentCollection empty() {
+        return EMPTY.withMeta(meta);
+    }
+
+    @Override
+    public ISeq seq() {
+        return NodeSeq.create(root, 0, null, false);
+    }
+
+    /**
+     * Returns a seq of the keys of this map, or null if it is empty.
+     */
+    ISeq keySeq() {
+        return NodeSeq.create(root, 0, null, true);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new NodeIterator(root, NodeIterator.ENTRIES);
+    }
+
+    Iterator<Object> keyIterator() {
+        return new NodeIterator(root, NodeIterator.KEYS);
+    }
+
+    /**
+     * Returns a view of the keys of this map that reads them straight out of the trie, without
+     * allocating an entry for each one.
+     */
+    @Override
+    public Set<Object> keySet() {
+        return new AbstractSet<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return keyIterator();
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    /**
+     * Returns a view of the values of this map that, like {@link #keySet}, does not allocate an
+     * entry for each one.
+     */
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new NodeIterator(root, NodeIterator.VALUES);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public IPersistentMap meta() {
+        return meta;
+    }
+
+    @Override
+    public ChampMap withMeta(IPersistentMap meta) {
+        if (meta == this.meta) return this;
+        return new ChampMap(meta, count, root);
+    }
+
+    @Override
+    public ITransientMap asTransient() {
+        return new TransientChampMap(this);
+    }
+
+    /**
+     * Returns a map containing every entry of {@code left} and {@code right}, with the metadata
+     * of {@code left}. If a key is present in both maps, it is bound to the result of applying
+     * {@code resolver} to its value in {@code left} and its value in {@code right}, or to its
+     * value in {@code right} if {@code resolver} is null.
+     * <p/>
+     * The tries are merged node by node, in the same way as {@link
+     * HashTries#merge(IPersistentMap, IPersistentMap)} merges {@link PersistentHashMap}s.
+     */
+    static ChampMap merge(ChampMap left, ChampMap right, BiFunction<Object, Object, Object> resolver) {
+        // As in HashTries, only the entries unique to the smaller side are counted.
+        Merge merge = new Merge(right.count <= left.count, resolver);
+        Node root = merge.nodes(left.root, right.root, 0);
+        if (root == left.root) return left;
+        if (root == right.root && left.meta == right.meta) return right;
+        int count = merge.countRight ? left.count + merge.unique : right.count + merge.unique;
+        return new ChampMap(left.meta, count, root);
+    }
+
+    private static int mask(int hash, int shift) {
+        return (hash >>> shift) & 0x1f;
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << mask(hash, shift);
+    }
+
+    /**
+     * A node of the trie. Nodes are only ever modified in place by the transient that created
+     * them, identified by {@code edit}; every other change copies the node. The owner is not
+     * serialized, so a deserialized node can never be modified in place.
+     */
+    abstract static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final transient AtomicReference<Thread> edit;
+        Object[] array;
+
+        Node(AtomicReference<Thread> edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        abstract Object find(Object key, int hash, int shift, Object notFound);
+
+        abstract Node assoc(AtomicReference<Thread> edit, Object key, int hash, Object val, int shift, Box addedLeaf);
+
+        abstract Node without(AtomicReference<Thread> edit, Object key, int hash, int shift, Box removedLeaf);
+
+        /**
+         * Returns the number of entries stored inline in this node; they occupy the first {@code
+         * 2 * payloadArity()} slots of its array, as alternating keys and values.
+         */
+        abstract int payloadArity();
+
+        /**
+         * Returns the number of child nodes; they occupy the last {@code nodeArity()} slots of the
+         * array.
+         */
+        abstract int nodeArity();
+
+        Node child(int index) {
+            return (Node) array[array.length - 1 - index];
+        }
+
+        boolean isSingleEntry() {
+            return payloadArity() == 1 && nodeArity() == 0;
+        }
+
+        boolean isEditableBy(AtomicReference<Thread> edit) {
+            return edit != null && this.edit == edit;
+        }
+    }
+
+    static final class BitmapNode extends Node {
+        private static final long serialVersionUID = 1L;
+
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, 0, new Object[0]);
+
+        int dataMap;
+        int nodeMap;
+
+        BitmapNode(AtomicReference<Thread> edit, int dataMap, int nodeMap, Object[] array) {
+            super(edit, array);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        private int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+            return Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift, Object notFound) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * dataIndex(bit);
+                return Util.equiv(key, array[i]) ? array[i + 1] : notFound;
+            }
+            if ((nodeMap & bit) != 0) return child(nodeIndex(bit)).find(key, hash, shift + 5, notFound);
+            return notFound;
+        }
+
+        @Override
+        Node assoc(AtomicReference<Thread> edit, Object key, int hash, Object val, int shift, Box addedLeaf) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * dataIndex(bit);
+                Object k = array[i];
+                if (Util.equiv(key, k)) {
+                    if (array[i + 1] == val) return this;
+                    BitmapNode ret = editable(edit);
+                    ret.array[i + 1] = val;
+                    return ret;
+                }
+                addedLeaf.val = addedLeaf;
+                Node child = merge(edit, k, PersistentHashMap.hash(k), array[i + 1], key, hash, val, shift + 5);
+                return migrateToNode(edit, bit, child);
+            }
+            if ((nodeMap & bit) != 0) {
+                int i = array.length - 1 - nodeIndex(bit);
+                Node child = (Node) array[i];
+                Node newChild = child.assoc(edit, key, hash, val, shift + 5, addedLeaf);
+                if (newChild == child) return this;
+                BitmapNode ret = editable(edit);
+                ret.array[i] = newChild;
+                return ret;
+            }
+            addedLeaf.val = addedLeaf;
+            int i = 2 * dataIndex(bit);
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            newArray[i] = key;
+            newArray[i + 1] = val;
+            System.arraycopy(array, i, newArray, i + 2, array.length - i);
+            return update(edit, dataMap | bit, nodeMap, newArray);
+        }
+
+        @Override
+        Node without(AtomicReference<Thread> edit, Object key, int hash, int shift, Box removedLeaf) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * dataIndex(bit);
+                if (!Util.equiv(key, array[i])) return this;
+                removedLeaf.val = removedLeaf;
+                Object[] newArray = new Object[array.length - 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+                return update(edit, dataMap ^ bit, nodeMap, newArray);
+            }
+            if ((nodeMap & bit) != 0) {
+                int i = array.length - 1 - nodeIndex(bit);
+                Node child = (Node) array[i];
+                Node newChild = child.without(edit, key, hash, shift + 5, removedLeaf);
+                if (newChild == child) return this;
+                if (newChild.isSingleEntry()) {
+                    // A child with one entry is inlined into its parent. If this node would then
+                    // hold nothing else, it is itself replaced by the child, so that the entry
+                    // ends up inlined as close to the root as possible.
+                    if (shift > 0 && payloadArity() == 0 && nodeArity() == 1) return newChild;
+                    return migrateToInline(edit, bit, newChild);
+                }
+                BitmapNode ret = editable(edit);
+                ret.array[i] = newChild;
+                return ret;
+            }
+            return this;
+        }
+
+        /**
+         * Replaces the inline entry at {@code bit} with {@code child}, which holds that entry and
+         * the one being added.
+         */
+        private Node migrateToNode(AtomicReference<Thread> edit, int bit, Node child) {
+            int oldIndex = 2 * dataIndex(bit);
+            int newIndex = array.length - 2 - nodeIndex(bit);
+            Object[] newArray = new Object[array.length - 1];
+            System.arraycopy(array, 0, newArray, 0, oldIndex);
+            System.arraycopy(array, oldIndex + 2, newArray, oldIndex, newIndex - oldIndex);
+            newArray[newIndex] = child;
+            System.arraycopy(array, newIndex + 2, newArray, newIndex + 1, array.length - newIndex - 2);
+            return update(edit, dataMap ^ bit, nodeMap | bit, newArray);
+        }
+
+        /**
+         * Replaces the child at {@code bit} with its only entry, stored inline.
+         */
+        private Node migrateToInline(AtomicReference<Thread> edit, int bit, Node child) {
+            int oldIndex = array.length - 1 - nodeIndex(bit);
+            int newIndex = 2 * dataIndex(bit);
+            Object[] newArray = new Object[array.length + 1];
+            System.arraycopy(array, 0, newArray, 0, newIndex);
+            newArray[newIndex] = child.array[0];
+            newArray[newIndex + 1] = child.array[1];
+            System.arraycopy(array, newIndex, newArray, newIndex + 2, oldIndex - newIndex);
+            System.arraycopy(array, oldIndex + 1, newArray, oldIndex + 2, array.length - oldIndex - 1);
+            return update(edit, dataMap | bit, nodeMap ^ bit, newArray);
+        }
+
+        private BitmapNode editable(AtomicReference<Thread> edit) {
+            if (isEditableBy(edit)) return this;
+            return new BitmapNode(edit, dataMap, nodeMap, array.clone());
+        }
+
+        private BitmapNode update(AtomicReference<Thread> edit, int dataMap, int nodeMap, Object[] array) {
+            if (!isEditableBy(edit)) return new BitmapNode(edit, dataMap, nodeMap, array);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.array = array;
+            return this;
+        }
+
+        /**
+         * Returns a node holding two entries whose keys differ, starting at the level of {@code
+         * shift}. Once all 32 bits of the hashes have been used, the keys are known to collide.
+         */
+        private static Node merge(AtomicReference<Thread> edit, Object k1, int h1, Object v1, Object k2, int h2, Object v2, int shift) {
+            if (shift >= 32) return new CollisionNode(edit, h1, new Object[]{k1, v1, k2, v2});
+            int m1 = mask(h1, shift);
+            int m2 = mask(h2, shift);
+            if (m1 != m2) {
+                Object[] array = m1 < m2 ? new Object[]{k1, v1, k2, v2} : new Object[]{k2, v2, k1, v1};
+                return new BitmapNode(edit, (1 << m1) | (1 << m2), 0, array);
+            }
+            Node child = merge(edit, k1, h1, v1, k2, h2, v2, shift + 5);
+            return new BitmapNode(edit, 0, 1 << m1, new Object[]{child});
+        }
+    }
+
+    /**
+     * A node holding entries whose keys have the same hash. Its array holds nothing but entries.
+     */
+    static final class CollisionNode extends Node {
+        private static final long serialVersionUID = 1L;
+
+        final int hash;
+
+        CollisionNode(AtomicReference<Thread> edit, int hash, Object[] array) {
+            super(edit, array);
+            this.hash = hash;
+        }
+
+        @Override
+        int payloadArity() {
+            return array.length / 2;
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (Util.equiv(key, array[i])) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift, Object notFound) {
+            int i = indexOf(key);
+            return i < 0 ? notFound : array[i + 1];
+        }
+
+        @Override
+        Node assoc(AtomicReference<Thread> edit, Object key, int hash, Object val, int shift, Box addedLeaf) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == val) return this;
+                Object[] newArray = isEditableBy(edit) ? array : array.clone();
+                newArray[i + 1] = val;
+                return update(edit, newArray);
+            }
+            addedLeaf.val = addedLeaf;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = val;
+            return update(edit, newArray);
+        }
+
+        @Override
+        Node without(AtomicReference<Thread> edit, Object key, int hash, int shift, Box removedLeaf) {
+            int i = indexOf(key);
+            if (i < 0) return this;
+            removedLeaf.val = removedLeaf;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            // The parent inlines a single remaining entry straight away, so the bitmap of the
+            // node that carries it there does not matter.
+            if (newArray.length == 2) return new BitmapNode(edit, 1, 0, newArray);
+            return update(edit, newArray);
+        }
+
+        private Node update(AtomicReference<Thread> edit, Object[] array) {
+            if (!isEditableBy(edit)) return new CollisionNode(edit, hash, array);
+            this.array = array;
+            return this;
+        }
+    }
+
+    /**
+     * Returns the number of entries in the subtree rooted at {@code node}.
+     */
+    static int size(Node node) {
+        int size = node.payloadArity();
+        for (int i = 0; i < node.nodeArity(); i++) {
+            size += size(node.child(i));
+        }
+        return size;
+    }
+
+    private static final class Merge {
+        final boolean countRight;
+        final BiFunction<Object, Object, Object> resolver;
+        final Box addedLeaf = new Box(null);
+        int unique;
+
+        Merge(boolean countRight, BiFunction<Object, Object, Object> resolver) {
+            this.countRight = countRight;
+            this.resolver = resolver;
+        }
+
+        Object resolve(Object a, Object b) {
+            return resolver == null ? b : resolver.apply(a, b);
+        }
+
+        Node nodes(Node a, Node b, int shift) {
+            if (a == b && resolver == null) return a;
+            // Collision nodes only occur once the hash is used up, where both sides have one.
+            if (a instanceof CollisionNode) return collisions((CollisionNode) a, (CollisionNode) b, shift);
+
+            BitmapNode x = (BitmapNode) a;
+            BitmapNode y = (BitmapNode) b;
+            int union = x.dataMap | x.nodeMap | y.dataMap | y.nodeMap;
+            int dataMap = 0;
+            int nodeMap = 0;
+            Object[] data = new Object[2 * Integer.bitCount(union)];
+            Node[] children = new Node[Integer.bitCount(union)];
+            int d = 0;
+            int n = 0;
+
+            for (int bits = union; bits != 0; bits &= bits - 1) {
+                int bit = bits & -bits;
+                boolean dataA = (x.dataMap & bit) != 0;
+                boolean dataB = (y.dataMap & bit) != 0;
+                boolean inA = dataA || (x.nodeMap & bit) != 0;
+                boolean inB = dataB || (y.nodeMap & bit) != 0;
+                Object keyA = null, valA = null, keyB = null, valB = null;
+                Node childA = null, childB = null;
+                if (dataA) {
+                    int i = 2 * x.dataIndex(bit);
+                    keyA = x.array[i];
+                    valA = x.array[i + 1];
+                } else if (inA) {
+                    childA = x.child(x.nodeIndex(bit));
+                }
+                if (dataB) {
+                    int i = 2 * y.dataIndex(bit);
+                    keyB = y.array[i];
+                    valB = y.array[i + 1];
+                } else if (inB) {
+                    childB = y.child(y.nodeIndex(bit));
+                }
+
+                Node child;
+                if (!inA) {
+                    if (countRight) unique += dataB ? 1 : size(childB);
+                    if (dataB) {
+                        data[d++] = keyB;
+                        data[d++] = valB;
+                        dataMap |= bit;
+                        continue;
+                    }
+                    child = childB;
+                } else if (!inB) {
+                    if (!countRight) unique += dataA ? 1 : size(childA);
+                    if (dataA) {
+                        data[d++] = keyA;
+                        data[d++] = valA;
+                        dataMap |= bit;
+                        continue;
+                    }
+                    child = childA;
+                } else if (dataA && dataB) {
+                    if (Util.equiv(keyA, keyB)) {
+                        data[d++] = keyB;
+                        data[d++] = resolve(valA, valB);
+                        dataMap |= bit;
+                        continue;
+                    }
+                    unique++;
+                    child = BitmapNode.merge(null, keyA, PersistentHashMap.hash(keyA), valA, keyB, PersistentHashMap.hash(keyB), valB, shift + 5);
+                } else if (dataA) {
+                    int hash = PersistentHashMap.hash(keyA);
+                    Object found = childB.find(keyA, hash, shift + 5, NOT_FOUND);
+                    if (countRight) unique += size(childB) - (found != NOT_FOUND ? 1 : 0);
+                    else if (found == NOT_FOUND) unique++;
+                    if (found == NOT_FOUND) child = childB.assoc(null, keyA, hash, valA, shift + 5, addedLeaf);
+                    else if (resolver == null) child = childB;
+                    else child = childB.assoc(null, keyA, hash, resolver.apply(valA, found), shift + 5, addedLeaf);
+                } else if (dataB) {
+                    int hash = PersistentHashMap.hash(keyB);
+                    Object found = childA.find(keyB, hash, shift + 5, NOT_FOUND);
+                    if (!countRight) unique += size(childA) - (found != NOT_FOUND ? 1 : 0);
+                    else if (found == NOT_FOUND) unique++;
+                    Object value = found == NOT_FOUND ? valB : resolve(found, valB);
+                    child = childA.assoc(null, keyB, hash, value, shift + 5, addedLeaf);
+                } else {
+                    child = nodes(childA, childB, shift + 5);
+                }
+                children[n++] = child;
+                nodeMap |= bit;
+            }
+
+            // The children are stored in reverse order at the back of the array.
+            Object[] array = new Object[d + n];
+            System.arraycopy(data, 0, array, 0, d);
+            for (int i = 0; i < n; i++) {
+                array[array.length - 1 - i] = children[i];
+            }
+            if (sameAs(x, dataMap, nodeMap, array)) return x;
+            if (sameAs(y, dataMap, nodeMap, array)) return y;
+            return new BitmapNode(null, dataMap, nodeMap, array);
+        }
+
+        Node collisions(CollisionNode a, CollisionNode b, int shift) {
+            Node ret = a;
+            int found = 0;
+            for (int i = 0; i < b.array.length; i += 2) {
+                int index = a.indexOf(b.array[i]);
+                Object value = b.array[i + 1];
+                if (index >= 0) {
+                    found++;
+                    value = resolve(a.array[index + 1], value);
+                }
+                ret = ret.assoc(null, b.array[i], b.hash, value, shift, addedLeaf);
+            }
+            unique += countRight ? b.payloadArity() - found : a.payloadArity() - found;
+            return ret;
+        }
+
+        private static boolean sameAs(BitmapNode node, int dataMap, int nodeMap, Object[] array) {
+            if (node.dataMap != dataMap || node.nodeMap != nodeMap) return false;
+            for (int i = 0; i < array.length; i++) {
+                if (node.array[i] != array[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A seq over the entries or keys of a subtree. The inline entries of a node come first,
+     * followed by the contents of each child in turn.
+     */
+    static final class NodeSeq extends ASeq {
+        private static final long serialVersionUID = 1L;
+
+        private final Node node;
+        private final int index;
+        private final ISeq nested;
+        private final boolean keys;
+
+        private NodeSeq(IPersistentMap meta, Node node, int index, ISeq nested, boolean keys) {
+            super(meta);
+            this.node = node;
+            this.index = index;
+            this.nested = nested;
+            this.keys = keys;
+        }
+
+        /**
+         * Returns a seq starting at position {@code index} of {@code node}, where positions past
+         * its inline entries refer to its children, or null if there is nothing left.
+         */
+        static ISeq create(Node node, int index, ISeq nested, boolean keys) {
+            if (nested != null) return new NodeSeq(null, node, index, nested, keys);
+            int payloadArity = node.payloadArity();
+            for (int i = index; i < payloadArity + node.nodeArity(); i++) {
+                if (i < payloadArity) return new NodeSeq(null, node, i, null, keys);
+                ISeq child = create(node.child(i - payloadArity), 0, null, keys);
+                if (child != null) return new NodeSeq(null, node, i, child, keys);
+            }
+            return null;
+        }
+
+        @Override
+        public Object first() {
+            if (nested != null) return nested.first();
+            if (keys) return node.array[2 * index];
+            return new MapEntry(node.array[2 * index], node.array[2 * index + 1]);
+        }
+
+        @Override
+        public ISeq next() {
+            if (nested != null) {
+                ISeq rest = nested.next();
+                if (rest != null) return new NodeSeq(null, node, index, rest, keys);
+            }
+            return create(node, index + 1, null, keys);
+        }
+
+        @Override
+        public Obj withMeta(IPersistentMap meta) {
+            return new NodeSeq(meta, node, index, nested, keys);
+        }
+    }
+
+    /**
+     * An iterator over the keys, values or entries of a trie, which walks the nodes with an
+     * explicit stack.
+     */
+    static final class NodeIterator implements Iterator<Object> {
+        static final int KEYS = 0;
+        static final int VALUES = 1;
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        // One frame per level: the node, the index of its next inline entry, and the index of
+        // its next child. The trie is at most eight levels deep.
+        private final Node[] nodes = new Node[8];
+        private final int[] entryIndex = new int[8];
+        private final int[] childIndex = new int[8];
+        private int depth;
+
+        NodeIterator(Node root, int mode) {
+            this.mode = mode;
+            this.nodes[0] = root;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (entryIndex[depth] < node.payloadArity()) return true;
+                if (childIndex[depth] < node.nodeArity()) {
+                    Node child = node.child(childIndex[depth]++);
+                    depth++;
+                    nodes[depth] = child;
+                    entryIndex[depth] = 0;
+                    childIndex[depth] = 0;
+                } else {
+                    nodes[depth--] = null;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Object[] array = nodes[depth].array;
+            int i = 2 * entryIndex[depth]++;
+            switch (mode) {
+                case KEYS:
+                    return array[i];
+                case VALUES:
+                    return array[i + 1];
+                default:
+                    return new MapEntry(array[i], array[i + 1]);
+            }
+        }
+    }
+
+    static final class TransientChampMap extends ATransientMap {
+        private final AtomicReference<Thread> edit;
+        private final Box leafFlag = new Box(null);
+        private volatile Node root;
+        private volatile int count;
+
+        TransientChampMap(ChampMap map) {
+            this.edit = new AtomicReference<>(Thread.currentThread());
+            this.root = map.root;
+            this.count = map.count;
+        }
+
+        @Override
+        void ensureEditable() {
+            if (edit.get() == null) throw new IllegalAccessError("Transient used after persistent! call");
+        }
+
+        @Override
+        ITransientMap doAssoc(Object key, Object val) {
+            leafFlag.val = null;
+            Node n = root.assoc(edit, key, PersistentHashMap.hash(key), val, 0, leafFlag);
+            if (n != root) root = n;
+            if (leafFlag.val != null) count++;
+            return this;
+        }
+
+        @Override
+        ITransientMap doWithout(Object key) {
+            leafFlag.val = null;
+            Node n = root.without(edit, key, PersistentHashMap.hash(key), 0, leafFlag);
+            if (n != root) root = n;
+            if (leafFlag.val != null) count--;
+            return this;
+        }
+
+        @Override
+        Object doValAt(Object key, Object notFound) {
+            return root.find(key, PersistentHashMap.hash(key), 0, notFound);
+        }
+
+        @Override
+        int doCount() {
+            return count;
+        }
+
+        @Override
+        IPersistentMap doPersistent() {
+            edit.set(null);
+            return new ChampMap(null, count, root);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package clojure.lang;
+
+import java.util.Iterator;
+
+/**
+ * A persistent hash set backed by a {@link ChampMap}, in the same way that a {@link
+ * PersistentHashSet} is backed by a {@link PersistentHashMap}.
+ * <p/>
+ * This class lives in {@code clojure.lang} because the constructor of {@link ATransientSet} is
+ * package-private; it is an implementation detail of Collider and not part of its public API.
+ */
+public final class ChampSet extends APersistentSet implements IEditableCollection, IObj {
+    private static final long serialVersionUID = 1L;
+
+    public static final ChampSet EMPTY = new ChampSet(null, ChampMap.EMPTY);
+
+    private final IPersistentMap meta;
+
+    private ChampSet(IPersistentMap meta, IPersistentMap impl) {
+        super(impl);
+        this.meta = meta;
+    }
+
+    @Override
+    public IPersistentSet disjoin(Object key) {
+        if (!contains(key)) return this;
+        return new ChampSet(meta, impl.without(key));
+    }
+
+    @Override
+    public IPersistentCollection cons(Object o) {
+        if (contains(o)) return this;
+        return new ChampSet(meta, impl.assoc(o, o));
+    }
+
+    @Override
+    public IPersistentCollection empty() {
+        return EMPTY.withMeta(meta);
+    }
+
+    @Override
+    public ISeq seq() {
+        return ((ChampMap) impl).keySeq();
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return ((ChampMap) impl).keyIterator();
+    }
+
+    /**
+     * Returns a set containing every member of this set and {@code other}, merging the underlying
+     * tries as described in {@link ChampMap#merge}.
+     */
+    ChampSet union(ChampSet other) {
+        IPersistentMap merged = ChampMap.merge((ChampMap) impl, (ChampMap) other.impl, null);
+        if (merged == impl) return this;
+        return new ChampSet(meta, merged);
+    }
+
+    @Override
+    public IPersistentMap meta() {
+        return meta;
+    }
+
+    @Override
+    public ChampSet withMeta(IPersistentMap meta) {
+        if (meta == this.meta) return this;
+        return new ChampSet(meta, impl);
+    }
+
+    @Override
+    public ITransientCollection asTransient() {
+        return new TransientChampSet(((ChampMap) impl).asTransient());
+    }
+
+    static final class TransientChampSet extends ATransientSet {
+        TransientChampSet(ITransientMap impl) {
+            super(impl);
+        }
+
+        @Override
+        public IPersistentCollection persistent() {
+            return new ChampSet(null, impl.persistent());
+        }
+    }
+}
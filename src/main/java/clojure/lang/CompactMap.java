@@ -0,0 +1,387 @@
+package clojure.lang;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * A read-optimized snapshot of a persistent map, stored in a single open-addressed hash table
+ * rather than a trie. Keys and values sit side by side in one array, and the hash of each key is
+ * kept in a parallel array, so a lookup usually costs one hash computation, one or two reads from
+ * each array, and one call to {@link Util#equiv}. The table is kept at most three-quarters full,
+ * which takes about a third of the memory of a {@link PersistentHashMap} with the same contents.
+ * <p/>
+ * A compact map is meant to be built once and read many times. The first modification, including
+ * {@link #asTransient}, copies its entries into a map of the kind it was created from (which
+ * {@link #empty} returns), so its cost is proportional to the size of the map, and applies its
+ * change to that copy. Later modifications reuse the copy, but it is only softly reachable: while
+ * it is alive, the compact map takes the memory of both the table and the copy, and once the
+ * garbage collector has reclaimed it, the next modification pays for a new one. Modifications that
+ * would not change the map return it as-is.
+ * <p/>
+ * This class lives in {@code clojure.lang} for the hashing and equality helpers of {@link
+ * PersistentHashMap}, which are package-private; it is an implementation detail of Collider and
+ * not part of its public API.
+ */
+public final class CompactMap extends APersistentMap implements IEditableCollection, IObj {
+    private static final long serialVersionUID = 1L;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private final IPersistentMap meta;
+    private final IPersistentMap empty;
+    final int count;
+    final int[] hashes;
+    final Object[] array;
+    final boolean hasNull;
+    final Object nullValue;
+    // Set by the first modification, and again after the copy has been reclaimed; racing threads
+    // may each build a copy, but they are equal, and any one of them will do.
+    private transient volatile SoftReference<IPersistentMap> thawed;
+
+    private CompactMap(IPersistentMap meta, IPersistentMap empty, int count, int[] hashes, Object[] array, boolean hasNull, Object nullValue) {
+        this.meta = meta;
+        this.empty = empty;
+        this.count = count;
+        this.hashes = hashes;
+        this.array = array;
+        this.hasNull = hasNull;
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * Returns a compact copy of {@code map}, with the same metadata. Its modifications produce
+     * maps of the same kind as {@code map}.
+     */
+    public static CompactMap create(IPersistentMap map) {
+        Table table = new Table(map.count());
+        HashTries.forEachRemaining(entries(map), table::put);
+        return table.build(((IMeta) map).meta(), (IPersistentMap) ((IObj) map.empty()).withMeta(null));
+    }
+
+    private static Spliterator<?> entries(IPersistentMap map) {
+        Spliterator<Object> ret = HashTries.entrySpliterator(map);
+        return ret != null ? ret : ((Iterable<?>) map).spliterator();
+    }
+
+    /**
+     * Returns the slot at which the search for a key with hash {@code hash} starts, in a table
+     * with {@code capacity} slots. The hash is scrambled and then scaled to the capacity, which
+     * need not be a power of two.
+     */
+    static int index(int hash, int capacity) {
+        return (int) (((hash * 0x9E3779B9L) & 0xFFFFFFFFL) * capacity >>> 32);
+    }
+
+    @Override
+    public IPersistentMap assoc(Object key, Object val) {
+        if (valAt(key, NOT_FOUND) == val) return this;
+        return thaw().assoc(key, val);
+    }
+
+    @Override
+    public IPersistentMap assocEx(Object key, Object val) {
+        if (containsKey(key)) throw new RuntimeException("Key already present");
+        return thaw().assoc(key, val);
+    }
+
+    @Override
+    public IPersistentMap without(Object key) {
+        if (!containsKey(key)) return this;
+        return thaw().without(key);
+    }
+
+    /**
+     * Returns a map of the kind this one was created from, with the same contents and metadata.
+     * It is built on the first call, and returned again by later ones until it is reclaimed.
+     */
+    private IPersistentMap thaw() {
+        SoftReference<IPersistentMap> ref = thawed;
+        IPersistentMap ret = ref == null ? null : ref.get();
+        if (ret == null) {
+            ITransientMap tr = (ITransientMap) ((IEditableCollection) empty).asTransient();
+            if (hasNull) tr = tr.assoc(null, nullValue);
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] != null) tr = tr.assoc(array[i], array[i + 1]);
+            }
+            ret = tr.persistent();
+            if (meta != null) ret = (IPersistentMap) ((IObj) ret).withMeta(meta);
+            thawed = new SoftReference<>(ret);
+        }
+        return ret;
+    }
+
+    @Override
+    public Object valAt(Object key) {
+        return valAt(key, null);
+    }
+
+    @Override
+    public Object valAt(Object key, Object notFound) {
+        if (key == null) return hasNull ? nullValue : notFound;
+        int hash = PersistentHashMap.hash(key);
+        int[] hashes = this.hashes;
+        Object[] array = this.array;
+        for (int i = index(hash, hashes.length); ; ) {
+            Object k = array[2 * i];
+            if (k == null) return notFound;
+            if (hashes[i] == hash && Util.equiv(key, k)) return array[2 * i + 1];
+            if (++i == hashes.length) i = 0;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return valAt(key, NOT_FOUND) != NOT_FOUND;
+    }
+
+    @Override
+    public IMapEntry entryAt(Object key) {
+        Object val = valAt(key, NOT_FOUND);
+        return val == NOT_FOUND ? null : new MapEntry(key, val);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public IPersistentCollection empty() {
+        return (IPersistentCollection) ((IObj) empty).withMeta(meta);
+    }
+
+    @Override
+    public ISeq seq() {
+        return Seq.create(this, -1, false);
+    }
+
+    /**
+     * Returns a seq of the keys of this map, or null if it is empty.
+     */
+    ISeq keySeq() {
+        return Seq.create(this, -1, true);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new SlotIterator(this, SlotIterator.ENTRIES);
+    }
+
+    Iterator<Object> keyIterator() {
+        return new SlotIterator(this, SlotIterator.KEYS);
+    }
+
+    /**
+     * Returns a view of the keys of this map that reads them straight out of the table, without
+     * allocating an entry for each one.
+     */
+    @Override
+    public Set<Object> keySet() {
+        return new AbstractSet<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return keyIterator();
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    /**
+     * Returns a view of the values of this map that, like {@link #keySet}, does not allocate an
+     * entry for each one.
+     */
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new SlotIterator(CompactMap.this, SlotIterator.VALUES);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public IPersistentMap meta() {
+        return meta;
+    }
+
+    @Override
+    public CompactMap withMeta(IPersistentMap meta) {
+        if (meta == this.meta) return this;
+        return new CompactMap(meta, empty, count, hashes, array, hasNull, nullValue);
+    }
+
+    /**
+     * Returns a transient map of the kind this one was created from, holding a copy of its
+     * entries.
+     */
+    @Override
+    public ITransientCollection asTransient() {
+        return ((IEditableCollection) thaw()).asTransient();
+    }
+
+    /**
+     * An open-addressed table under construction.
+     */
+    static final class Table {
+        private final int[] hashes;
+        private final Object[] array;
+        private int count;
+        private boolean hasNull;
+        private Object nullValue;
+
+        Table(int expectedSize) {
+            // At most three-quarters full, with at least one empty slot to end every search.
+            int capacity = expectedSize + expectedSize / 3 + 1;
+            this.hashes = new int[capacity];
+            this.array = new Object[2 * capacity];
+        }
+
+        /**
+         * Adds an entry to the table; {@code key} must not already be present in it.
+         */
+        void put(Object key, Object val) {
+            if (key == null) {
+                hasNull = true;
+                nullValue = val;
+                return;
+            }
+            int hash = PersistentHashMap.hash(key);
+            int i = index(hash, hashes.length);
+            while (array[2 * i] != null) {
+                if (++i == hashes.length) i = 0;
+            }
+            hashes[i] = hash;
+            array[2 * i] = key;
+            array[2 * i + 1] = val;
+            count++;
+        }
+
+        CompactMap build(IPersistentMap meta, IPersistentMap empty) {
+            return new CompactMap(meta, empty, hasNull ? count + 1 : count, hashes, array, hasNull, nullValue);
+        }
+    }
+
+    /**
+     * A seq over the entries or keys of a compact map, in the order of their slots, with the
+     * entry for the null key, if any, first. An index of -1 refers to the null key.
+     */
+    static final class Seq extends ASeq {
+        private static final long serialVersionUID = 1L;
+
+        private final CompactMap map;
+        private final int index;
+        private final boolean keys;
+
+        private Seq(IPersistentMap meta, CompactMap map, int index, boolean keys) {
+            super(meta);
+            this.map = map;
+            this.index = index;
+            this.keys = keys;
+        }
+
+        /**
+         * Returns a seq starting at the first occupied position at or after {@code index}, or
+         * null if there is none.
+         */
+        static ISeq create(CompactMap map, int index, boolean keys) {
+            if (index < 0 && map.hasNull) return new Seq(null, map, -1, keys);
+            for (int i = Math.max(index, 0); i < map.hashes.length; i++) {
+                if (map.array[2 * i] != null) return new Seq(null, map, i, keys);
+            }
+            return null;
+        }
+
+        @Override
+        public Object first() {
+            Object key = index < 0 ? null : map.array[2 * index];
+            if (keys) return key;
+            return new MapEntry(key, index < 0 ? map.nullValue : map.array[2 * index + 1]);
+        }
+
+        @Override
+        public ISeq next() {
+            return create(map, index + 1, keys);
+        }
+
+        @Override
+        public Obj withMeta(IPersistentMap meta) {
+            return new Seq(meta, map, index, keys);
+        }
+    }
+
+    /**
+     * An iterator over the keys, values or entries of a compact map, in the same order as {@link
+     * Seq}.
+     */
+    static final class SlotIterator implements Iterator<Object> {
+        static final int KEYS = 0;
+        static final int VALUES = 1;
+        static final int ENTRIES = 2;
+
+        private final Object[] array;
+        private final int mode;
+        private boolean nullPending;
+        private Object nullValue;
+        private int index;
+
+        SlotIterator(CompactMap map, int mode) {
+            this.array = map.array;
+            this.mode = mode;
+            this.nullPending = map.hasNull;
+            this.nullValue = map.nullValue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nullPending) return true;
+            while (index < array.length && array[index] == null) index += 2;
+            return index < array.length;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Object key;
+            Object val;
+            if (nullPending) {
+                nullPending = false;
+                key = null;
+                val = nullValue;
+                nullValue = null;
+            } else {
+                key = array[index];
+                val = array[index + 1];
+                index += 2;
+            }
+            switch (mode) {
+                case KEYS:
+                    return key;
+                case VALUES:
+                    return val;
+                default:
+                    return new MapEntry(key, val);
+            }
+        }
+    }
+}
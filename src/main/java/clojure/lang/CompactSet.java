@@ -0,0 +1,108 @@
+package clojure.lang;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+
+/**
+ * A read-optimized snapshot of a persistent set, backed by a {@link CompactMap} from each member
+ * to itself. Like a compact map, it copies its members into a set of the kind it was created from
+ * on the first modification, and holds that copy through a soft reference for later ones, so it
+ * takes the memory of both until the copy is reclaimed.
+ * <p/>
+ * This class lives in {@code clojure.lang} because the {@code impl} field of {@link
+ * APersistentSet} is package-private; it is an implementation detail of Collider and not part of
+ * its public API.
+ */
+public final class CompactSet extends APersistentSet implements IEditableCollection, IObj {
+    private static final long serialVersionUID = 1L;
+
+    private final IPersistentMap meta;
+    private final IPersistentSet empty;
+    // Set and reclaimed like the copy held by CompactMap.
+    private transient volatile SoftReference<IPersistentSet> thawed;
+
+    private CompactSet(IPersistentMap meta, IPersistentSet empty, CompactMap impl) {
+        super(impl);
+        this.meta = meta;
+        this.empty = empty;
+    }
+
+    /**
+     * Returns a compact copy of {@code set}, with the same metadata. Its modifications produce
+     * sets of the same kind as {@code set}.
+     */
+    public static CompactSet create(IPersistentSet set) {
+        CompactMap.Table table = new CompactMap.Table(set.count());
+        for (Object o : (Iterable<?>) set) {
+            table.put(o, o);
+        }
+        IPersistentSet empty = (IPersistentSet) ((IObj) set.empty()).withMeta(null);
+        return new CompactSet(((IMeta) set).meta(), empty, table.build(null, PersistentHashMap.EMPTY));
+    }
+
+    @Override
+    public IPersistentSet disjoin(Object key) {
+        if (!contains(key)) return this;
+        return thaw().disjoin(key);
+    }
+
+    @Override
+    public IPersistentCollection cons(Object o) {
+        if (contains(o)) return this;
+        return thaw().cons(o);
+    }
+
+    /**
+     * Returns a set of the kind this one was created from, with the same members and metadata.
+     * It is built on the first call, and returned again by later ones until it is reclaimed.
+     */
+    private IPersistentSet thaw() {
+        SoftReference<IPersistentSet> ref = thawed;
+        IPersistentSet ret = ref == null ? null : ref.get();
+        if (ret == null) {
+            ITransientCollection tr = ((IEditableCollection) empty).asTransient();
+            for (Iterator<?> it = iterator(); it.hasNext(); ) {
+                tr = tr.conj(it.next());
+            }
+            ret = (IPersistentSet) tr.persistent();
+            if (meta != null) ret = (IPersistentSet) ((IObj) ret).withMeta(meta);
+            thawed = new SoftReference<>(ret);
+        }
+        return ret;
+    }
+
+    @Override
+    public IPersistentCollection empty() {
+        return (IPersistentCollection) ((IObj) empty).withMeta(meta);
+    }
+
+    @Override
+    public ISeq seq() {
+        return ((CompactMap) impl).keySeq();
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return ((CompactMap) impl).keyIterator();
+    }
+
+    @Override
+    public IPersistentMap meta() {
+        return meta;
+    }
+
+    @Override
+    public CompactSet withMeta(IPersistentMap meta) {
+        if (meta == this.meta) return this;
+        return new CompactSet(meta, empty, (CompactMap) impl);
+    }
+
+    /**
+     * Returns a transient set of the kind this one was created from, holding a copy of its
+     * members.
+     */
+    @Override
+    public ITransientCollection asTransient() {
+        return ((IEditableCollection) thaw()).asTransient();
+    }
+}
@@ -0,0 +1,313 @@
+package clojure.lang;
+
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import clojure.lang.PersistentHashMap.ArrayNode;
+import clojure.lang.PersistentHashMap.BitmapIndexedNode;
+import clojure.lang.PersistentHashMap.HashCollisionNode;
+import clojure.lang.PersistentHashMap.INode;
+
+/**
+ * A spliterator over the entries of a {@link PersistentHashMap} or a {@link ChampMap} (or of the
+ * arrays behind a {@link PersistentArrayMap} or a {@link CompactMap}) that splits on trie node
+ * boundaries and walks node arrays directly, rather than going through the map's iterator. It
+ * yields keys, values or map entries, depending on its mode; in the first two modes, no entry
+ * object is ever allocated.
+ * <p/>
+ * The remaining work is a queue of subtrees and runs of inline entries. Splitting hands off the
+ * front half of the queue; when only one subtree is left, it is first replaced by its children.
+ * The size of a subtree is not known without walking it, so each split divides the parent's
+ * estimate in proportion to the number of pieces it takes, which is accurate on average since the
+ * trie is balanced by its hash function.
+ */
+final class HashTrieSpliterator implements Spliterator<Object> {
+    static final int KEYS = 0;
+    static final int VALUES = 1;
+    static final int ENTRIES = 2;
+
+    /**
+     * The key/value pairs of a node, as stored in its array from {@code from} to {@code to}. If
+     * the run is sparse, slots with a null key are skipped: in a {@link BitmapIndexedNode}, they
+     * hold child nodes, which are queued separately, and in a {@link CompactMap}, they are empty.
+     */
+    private static final class Run {
+        final Object[] array;
+        final int from;
+        final int to;
+        final boolean sparse;
+
+        Run(Object[] array, int to, boolean sparse) {
+            this(array, 0, to, sparse);
+        }
+
+        Run(Object[] array, int from, int to, boolean sparse) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.sparse = sparse;
+        }
+    }
+
+    // A run of a compact map is split in half until it holds this many slots or fewer.
+    private static final int MIN_SPLIT = 64;
+
+    private final int mode;
+    private final ArrayDeque<Object> pending;
+    private Run run;
+    private int runIndex;
+    private long estimate;
+    private boolean exact;
+
+    private HashTrieSpliterator(int mode, ArrayDeque<Object> pending, long estimate, boolean exact) {
+        this.mode = mode;
+        this.pending = pending;
+        this.estimate = estimate;
+        this.exact = exact;
+    }
+
+    static HashTrieSpliterator create(PersistentHashMap map, int mode) {
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        if (map.hasNull) pending.add(new Run(new Object[]{null, map.nullValue}, 2, false));
+        if (map.root != null) pending.add(map.root);
+        return new HashTrieSpliterator(mode, pending, map.count, true);
+    }
+
+    static HashTrieSpliterator create(ChampMap map, int mode) {
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        if (map.count > 0) pending.add(map.root);
+        return new HashTrieSpliterator(mode, pending, map.count, true);
+    }
+
+    static HashTrieSpliterator create(CompactMap map, int mode) {
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        if (map.hasNull) pending.add(new Run(new Object[]{null, map.nullValue}, 2, false));
+        pending.add(new Run(map.array, map.array.length, true));
+        return new HashTrieSpliterator(mode, pending, map.count, true);
+    }
+
+    static HashTrieSpliterator create(PersistentArrayMap map, int mode) {
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        if (map.array.length > 0) pending.add(new Run(map.array, map.array.length, false));
+        return new HashTrieSpliterator(mode, pending, map.count(), true);
+    }
+
+    @Override
+    public Spliterator<Object> trySplit() {
+        while (pending.size() == 1 && expand(pending.peekFirst())) continue;
+        int size = pending.size();
+        if (size < 2) return null;
+        int n = size / 2;
+        ArrayDeque<Object> prefix = new ArrayDeque<>(n);
+        for (int i = 0; i < n; i++) prefix.addLast(pending.pollFirst());
+        long split = estimate * n / size;
+        estimate -= split;
+        exact = false;
+        return new HashTrieSpliterator(mode, prefix, split, false);
+    }
+
+    /**
+     * Replaces {@code item}, the only pending piece of work, with its children and a run of its
+     * inline entries. Returns false if it cannot be broken up any further.
+     */
+    private boolean expand(Object item) {
+        if (item instanceof BitmapIndexedNode) {
+            Object[] array = ((BitmapIndexedNode) item).array;
+            pending.clear();
+            boolean inline = false;
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] != null) inline = true;
+                else if (array[i + 1] != null) pending.add(array[i + 1]);
+            }
+            if (inline) pending.add(new Run(array, array.length, true));
+            return true;
+        }
+        if (item instanceof ArrayNode) {
+            pending.clear();
+            for (INode child : ((ArrayNode) item).array) {
+                if (child != null) pending.add(child);
+            }
+            return true;
+        }
+        if (item instanceof ChampMap.BitmapNode) {
+            ChampMap.Node node = (ChampMap.Node) item;
+            pending.clear();
+            for (int i = 0; i < node.nodeArity(); i++) pending.add(node.child(i));
+            if (node.payloadArity() > 0) pending.add(new Run(node.array, 2 * node.payloadArity(), false));
+            return true;
+        }
+        if (item instanceof Run && ((Run) item).sparse) {
+            Run run = (Run) item;
+            if (run.to - run.from <= 2 * MIN_SPLIT) return false;
+            int middle = run.from + (run.to - run.from) / 4 * 2;
+            pending.clear();
+            pending.add(new Run(run.array, run.from, middle, true));
+            pending.add(new Run(run.array, middle, run.to, true));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Object> action) {
+        while (true) {
+            if (run != null) {
+                Object[] array = run.array;
+                while (runIndex < run.to) {
+                    int i = runIndex;
+                    runIndex += 2;
+                    if (run.sparse && array[i] == null) continue;
+                    if (estimate > 0) estimate--;
+                    emit(array[i], array[i + 1], action);
+                    return true;
+                }
+                run = null;
+            }
+            Object item = pending.pollFirst();
+            if (item == null) {
+                estimate = 0;
+                return false;
+            }
+            if (item instanceof Run) {
+                run = (Run) item;
+                runIndex = run.from;
+            } else if (item instanceof HashCollisionNode) {
+                HashCollisionNode node = (HashCollisionNode) item;
+                run = new Run(node.array, 2 * node.count, false);
+                runIndex = 0;
+            } else if (item instanceof ChampMap.Node) {
+                push((ChampMap.Node) item);
+            } else {
+                push((INode) item);
+            }
+        }
+    }
+
+    /**
+     * Queues the children and inline entries of {@code node} at the front of the pending work.
+     */
+    private void push(INode node) {
+        if (node instanceof BitmapIndexedNode) {
+            Object[] array = ((BitmapIndexedNode) node).array;
+            boolean inline = false;
+            for (int i = array.length - 2; i >= 0; i -= 2) {
+                if (array[i] != null) inline = true;
+                else if (array[i + 1] != null) pending.addFirst(array[i + 1]);
+            }
+            if (inline) pending.addFirst(new Run(array, array.length, true));
+        } else {
+            INode[] array = ((ArrayNode) node).array;
+            for (int i = array.length - 1; i >= 0; i--) {
+                if (array[i] != null) pending.addFirst(array[i]);
+            }
+        }
+    }
+
+    /**
+     * Queues the children of {@code node} at the front of the pending work, and makes its inline
+     * entries the current run.
+     */
+    private void push(ChampMap.Node node) {
+        for (int i = node.nodeArity() - 1; i >= 0; i--) pending.addFirst(node.child(i));
+        run = new Run(node.array, 2 * node.payloadArity(), false);
+        runIndex = 0;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Object> action) {
+        switch (mode) {
+            case KEYS:
+                forEachRemaining((key, val) -> action.accept(key));
+                break;
+            case VALUES:
+                forEachRemaining((key, val) -> action.accept(val));
+                break;
+            default:
+                forEachRemaining((key, val) -> action.accept(new MapEntry(key, val)));
+        }
+    }
+
+    /**
+     * Performs {@code action} on the key and value of each remaining entry, regardless of this
+     * spliterator's mode.
+     */
+    void forEachRemaining(BiConsumer<Object, Object> action) {
+        if (run != null) {
+            walk(run, runIndex, action);
+            run = null;
+        }
+        for (Object item = pending.pollFirst(); item != null; item = pending.pollFirst()) {
+            if (item instanceof Run) {
+                walk((Run) item, ((Run) item).from, action);
+            } else if (item instanceof ChampMap.Node) {
+                walk((ChampMap.Node) item, action);
+            } else {
+                walk((INode) item, action);
+            }
+        }
+        estimate = 0;
+    }
+
+    private static void walk(Run run, int from, BiConsumer<Object, Object> action) {
+        Object[] array = run.array;
+        for (int i = from; i < run.to; i += 2) {
+            if (run.sparse && array[i] == null) continue;
+            action.accept(array[i], array[i + 1]);
+        }
+    }
+
+    private static void walk(INode node, BiConsumer<Object, Object> action) {
+        if (node instanceof BitmapIndexedNode) {
+            Object[] array = ((BitmapIndexedNode) node).array;
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] != null) action.accept(array[i], array[i + 1]);
+                else if (array[i + 1] != null) walk((INode) array[i + 1], action);
+            }
+        } else if (node instanceof ArrayNode) {
+            for (INode child : ((ArrayNode) node).array) {
+                if (child != null) walk(child, action);
+            }
+        } else {
+            HashCollisionNode hcn = (HashCollisionNode) node;
+            for (int i = 0; i < 2 * hcn.count; i += 2) {
+                action.accept(hcn.array[i], hcn.array[i + 1]);
+            }
+        }
+    }
+
+    private static void walk(ChampMap.Node node, BiConsumer<Object, Object> action) {
+        Object[] array = node.array;
+        for (int i = 0; i < 2 * node.payloadArity(); i += 2) {
+            action.accept(array[i], array[i + 1]);
+        }
+        for (int i = 0; i < node.nodeArity(); i++) {
+            walk(node.child(i), action);
+        }
+    }
+
+    private void emit(Object key, Object val, Consumer<? super Object> action) {
+        switch (mode) {
+            case KEYS:
+                action.accept(key);
+                break;
+            case VALUES:
+                action.accept(val);
+                break;
+            default:
+                action.accept(new MapEntry(key, val));
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = IMMUTABLE | (mode == VALUES ? 0 : DISTINCT);
+        return exact ? characteristics | SIZED : characteristics;
+    }
+}
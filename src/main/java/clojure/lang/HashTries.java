@@ -0,0 +1,794 @@
+package clojure.lang;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import clojure.lang.PersistentHashMap.ArrayNode;
+import clojure.lang.PersistentHashMap.BitmapIndexedNode;
+import clojure.lang.PersistentHashMap.HashCollisionNode;
+import clojure.lang.PersistentHashMap.INode;
+
+/**
+ * Structural operations on the hash array mapped tries that back {@link PersistentHashMap} and
+ * {@link PersistentHashSet}. This class lives in {@code clojure.lang} because the trie nodes are
+ * package-private; it is an implementation detail of Collider and not part of its public API.
+ * <p/>
+ * Every operation here is persistent: nodes of the inputs are never modified, and whole subtrees
+ * are shared with the result wherever possible.
+ */
+public final class HashTries {
+    private static final Object NOT_FOUND = new Object();
+
+    private HashTries() {
+    }
+
+    /**
+     * Returns a map containing every entry of {@code left} and {@code right}. If a key is present
+     * in both maps, the entry from {@code right} is kept. The result is of the same kind as {@code
+     * left}.
+     * <p/>
+     * When both maps are {@link PersistentHashMap}s, or both are {@link ChampMap}s, the tries are
+     * merged node by node: a subtree that only exists on one side is reused as-is, and a subtree
+     * shared by both maps is not visited at all. The size of the result still has to be known, so
+     * the entries that only the smaller map contains are counted; the cost is therefore
+     * proportional to the overlap between the two maps plus the size of the smaller one, rather
+     * than to the size of the larger one. Otherwise, the entries of {@code right} are added to
+     * {@code left} one at a time.
+     */
+    public static IPersistentMap merge(IPersistentMap left, IPersistentMap right) {
+        if (left == right || right.count() == 0) return left;
+        if (left.count() == 0 && sameKind(left, right)) return right;
+        if (left instanceof PersistentHashMap && right instanceof PersistentHashMap) {
+            return merge((PersistentHashMap) left, (PersistentHashMap) right, null);
+        }
+        if (left instanceof ChampMap && right instanceof ChampMap) {
+            return ChampMap.merge((ChampMap) left, (ChampMap) right, null);
+        }
+        return assocAll(left, right);
+    }
+
+    /**
+     * Returns a map containing every entry of {@code left} and {@code right}. If a key is present
+     * in both maps, it is bound to the result of applying {@code resolver} to its value in {@code
+     * left} and its value in {@code right}, in that order.
+     * <p/>
+     * The tries are merged as described in {@link #merge(IPersistentMap, IPersistentMap)}, except
+     * that subtrees that are shared by both maps must still be traversed, since {@code resolver}
+     * has to be applied to every key they contain.
+     */
+    public static IPersistentMap merge(IPersistentMap left, IPersistentMap right, BiFunction<Object, Object, Object> resolver) {
+        if (right.count() == 0) return left;
+        if (left.count() == 0 && sameKind(left, right)) return right;
+        if (left instanceof PersistentHashMap && right instanceof PersistentHashMap) {
+            return merge((PersistentHashMap) left, (PersistentHashMap) right, resolver);
+        }
+        if (left instanceof ChampMap && right instanceof ChampMap) {
+            return ChampMap.merge((ChampMap) left, (ChampMap) right, resolver);
+        }
+
+        ITransientMap ret = asTransient(left);
+        for (Object o : right) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Object value = ret.valAt(entry.getKey(), NOT_FOUND);
+            ret = ret.assoc(entry.getKey(), value == NOT_FOUND ? entry.getValue() : resolver.apply(value, entry.getValue()));
+        }
+        return ret.persistent();
+    }
+
+    /**
+     * Returns a set containing every member of {@code left} and {@code right}, of the same kind as
+     * {@code left}, merging the underlying tries as described in {@link #merge(IPersistentMap,
+     * IPersistentMap)}.
+     */
+    public static IPersistentSet union(IPersistentSet left, IPersistentSet right) {
+        if (left == right || right.count() == 0) return left;
+        if (left.count() == 0 && sameKind(left, right)) return right;
+        if (left instanceof PersistentHashSet && right instanceof PersistentHashSet) {
+            IPersistentMap leftImpl = ((PersistentHashSet) left).impl;
+            IPersistentMap merged = merge(leftImpl, ((PersistentHashSet) right).impl);
+            if (merged == leftImpl) return left;
+            return new PersistentHashSet(null, merged);
+        }
+        if (left instanceof ChampSet && right instanceof ChampSet) {
+            return ((ChampSet) left).union((ChampSet) right);
+        }
+        ITransientSet ret = asTransient(left);
+        for (Object o : (Iterable<?>) right) {
+            ret = (ITransientSet) ret.conj(o);
+        }
+        return (IPersistentSet) ret.persistent();
+    }
+
+    /**
+     * Returns whether {@code right} can stand in for a result of the same kind as {@code left}:
+     * either they are of the same class, or both are Clojure's own hash maps, which switch from
+     * one class to the other as they grow.
+     */
+    public static boolean sameKind(Object left, Object right) {
+        if (left.getClass() == right.getClass()) return true;
+        return (left instanceof PersistentArrayMap || left instanceof PersistentHashMap)
+                && (right instanceof PersistentArrayMap || right instanceof PersistentHashMap);
+    }
+
+    /**
+     * Returns a map with the same keys as {@code map}, in which every value has been replaced by
+     * the result of applying {@code f} to it. If {@code f} returns every value unchanged, {@code
+     * map} itself is returned.
+     * <p/>
+     * For {@link PersistentHashMap}s and {@link PersistentArrayMap}s, the result is built by
+     * copying the nodes of the input with their values replaced, so no key is hashed or compared.
+     * Subtrees whose values are all unchanged are shared with the input.
+     */
+    public static IPersistentMap mapValues(IPersistentMap map, Function<Object, Object> f) {
+        if (map instanceof PersistentHashMap) {
+            PersistentHashMap phm = (PersistentHashMap) map;
+            INode root = phm.root == null ? null : mapValues(phm.root, f);
+            Object nullValue = phm.hasNull ? f.apply(phm.nullValue) : null;
+            if (root == phm.root && nullValue == phm.nullValue) return phm;
+            return new PersistentHashMap(phm.meta(), phm.count, root, phm.hasNull, nullValue);
+        }
+        if (map instanceof PersistentArrayMap) {
+            PersistentArrayMap pam = (PersistentArrayMap) map;
+            Object[] array = mapValues(pam.array, pam.array.length, false, f);
+            if (array == pam.array) return pam;
+            return new PersistentArrayMap(pam.meta(), array);
+        }
+
+        ITransientMap ret = asTransient(map);
+        boolean changed = false;
+        for (Object o : map) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Object value = f.apply(entry.getValue());
+            if (value != entry.getValue()) {
+                ret = ret.assoc(entry.getKey(), value);
+                changed = true;
+            }
+        }
+        IPersistentMap persistent = ret.persistent();
+        return changed ? persistent : map;
+    }
+
+    private static INode mapValues(INode node, Function<Object, Object> f) {
+        if (node instanceof BitmapIndexedNode) {
+            BitmapIndexedNode bin = (BitmapIndexedNode) node;
+            Object[] array = mapValues(bin.array, bin.array.length, true, f);
+            return array == bin.array ? bin : new BitmapIndexedNode(null, bin.bitmap, array);
+        }
+        if (node instanceof ArrayNode) {
+            ArrayNode an = (ArrayNode) node;
+            INode[] array = null;
+            for (int i = 0; i < an.array.length; i++) {
+                INode child = an.array[i];
+                if (child == null) continue;
+                INode mapped = mapValues(child, f);
+                if (mapped != child) {
+                    if (array == null) array = an.array.clone();
+                    array[i] = mapped;
+                }
+            }
+            return array == null ? an : new ArrayNode(null, an.count, array);
+        }
+        HashCollisionNode hcn = (HashCollisionNode) node;
+        Object[] array = mapValues(hcn.array, 2 * hcn.count, true, f);
+        return array == hcn.array ? hcn : new HashCollisionNode(null, hcn.hash, hcn.count, array);
+    }
+
+    /**
+     * Applies {@code f} to the values among the first {@code length} elements of {@code array},
+     * which holds alternating keys and values. In a trie node, a null key instead marks a subnode
+     * (or unused capacity, if the value is null as well). Returns a copy of the array if any value
+     * changed, or the array itself otherwise.
+     */
+    private static Object[] mapValues(Object[] array, int length, boolean trie, Function<Object, Object> f) {
+        Object[] ret = array;
+        for (int i = 0; i < length; i += 2) {
+            Object key = array[i];
+            Object val = array[i + 1];
+            Object mapped;
+            if (key != null || !trie) mapped = f.apply(val);
+            else if (val != null) mapped = mapValues((INode) val, f);
+            else continue;
+            if (mapped != val) {
+                if (ret == array) ret = array.clone();
+                ret[i + 1] = mapped;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a map containing only the entries of {@code map} whose key and value match {@code
+     * p}. If every entry matches, {@code map} itself is returned.
+     * <p/>
+     * For {@link PersistentHashMap}s, subtrees in which every entry matches are shared with the
+     * result, so new nodes are only allocated along the paths to removed entries.
+     */
+    public static IPersistentMap filter(IPersistentMap map, BiPredicate<Object, Object> p) {
+        if (map instanceof PersistentHashMap) {
+            PersistentHashMap phm = (PersistentHashMap) map;
+            Filter filter = new Filter(p);
+            INode root = phm.root == null ? null : filter.node(phm.root);
+            boolean hasNull = phm.hasNull && p.test(null, phm.nullValue);
+            if (root == phm.root && hasNull == phm.hasNull) return phm;
+            int count = phm.count - filter.removed - (phm.hasNull && !hasNull ? 1 : 0);
+            return new PersistentHashMap(phm.meta(), count, root, hasNull, hasNull ? phm.nullValue : null);
+        }
+        if (map instanceof PersistentArrayMap) {
+            PersistentArrayMap pam = (PersistentArrayMap) map;
+            Object[] array = new Object[pam.array.length];
+            int n = 0;
+            for (int i = 0; i < pam.array.length; i += 2) {
+                if (p.test(pam.array[i], pam.array[i + 1])) {
+                    array[n++] = pam.array[i];
+                    array[n++] = pam.array[i + 1];
+                }
+            }
+            if (n == array.length) return pam;
+            return new PersistentArrayMap(pam.meta(), Arrays.copyOf(array, n));
+        }
+
+        ITransientMap ret = asTransient(map);
+        boolean changed = false;
+        for (Object o : map) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            if (!p.test(entry.getKey(), entry.getValue())) {
+                ret = ret.without(entry.getKey());
+                changed = true;
+            }
+        }
+        IPersistentMap persistent = ret.persistent();
+        return changed ? persistent : map;
+    }
+
+    /**
+     * Returns a set containing only the members of {@code set} that match {@code p}, filtering the
+     * underlying trie as described in {@link #filter(IPersistentMap, BiPredicate)}. If every member
+     * matches, {@code set} itself is returned.
+     */
+    public static IPersistentSet filter(IPersistentSet set, Predicate<Object> p) {
+        if (set instanceof PersistentHashSet) {
+            PersistentHashSet phs = (PersistentHashSet) set;
+            IPersistentMap impl = filter(phs.impl, (k, v) -> p.test(k));
+            if (impl == phs.impl) return phs;
+            return new PersistentHashSet(phs.meta(), impl);
+        }
+
+        ITransientSet ret = asTransient(set);
+        boolean changed = false;
+        for (Object o : (Iterable<?>) set) {
+            if (!p.test(o)) {
+                ret = ret.disjoin(o);
+                changed = true;
+            }
+        }
+        IPersistentSet persistent = (IPersistentSet) ret.persistent();
+        return changed ? persistent : set;
+    }
+
+    /**
+     * Returns a spliterator over the keys of {@code map} that splits along trie node boundaries,
+     * or null if {@code map} is not a {@link PersistentHashMap}, a {@link PersistentArrayMap}, a
+     * {@link ChampMap} or a {@link CompactMap}.
+     */
+    public static Spliterator<Object> keySpliterator(IPersistentMap map) {
+        return spliterator(map, HashTrieSpliterator.KEYS);
+    }
+
+    /**
+     * Returns a spliterator over the values of {@code map}, as described in {@link
+     * #keySpliterator}.
+     */
+    public static Spliterator<Object> valueSpliterator(IPersistentMap map) {
+        return spliterator(map, HashTrieSpliterator.VALUES);
+    }
+
+    /**
+     * Returns a spliterator over the entries of {@code map}, as described in {@link
+     * #keySpliterator}. Each entry is a {@link MapEntry}, allocated as it is traversed.
+     */
+    public static Spliterator<Object> entrySpliterator(IPersistentMap map) {
+        return spliterator(map, HashTrieSpliterator.ENTRIES);
+    }
+
+    /**
+     * Returns a spliterator over the members of {@code set}, as described in {@link
+     * #keySpliterator}, or null if {@code set} is not a {@link PersistentHashSet}, a {@link
+     * ChampSet} or a {@link CompactSet}.
+     */
+    public static Spliterator<Object> spliterator(IPersistentSet set) {
+        if (!(set instanceof PersistentHashSet) && !(set instanceof ChampSet) && !(set instanceof CompactSet)) return null;
+        return keySpliterator(((APersistentSet) set).impl);
+    }
+
+    /**
+     * Performs {@code action} on the key and value of each remaining entry of {@code entries}, a
+     * spliterator over the entries of a map. If {@code entries} was created by this class, the
+     * entries are read straight out of the trie and no entry object is allocated.
+     */
+    public static void forEachRemaining(Spliterator<?> entries, BiConsumer<Object, Object> action) {
+        if (entries instanceof HashTrieSpliterator) {
+            ((HashTrieSpliterator) entries).forEachRemaining(action);
+        } else {
+            entries.forEachRemaining(o -> {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                action.accept(entry.getKey(), entry.getValue());
+            });
+        }
+    }
+
+    /**
+     * Returns a transient version of {@code map}. If {@code map} does not support transients, as
+     * is the case for a {@link PersistentTreeMap}, the returned transient applies each change to
+     * a persistent copy of {@code map} instead.
+     */
+    public static ITransientMap asTransient(IPersistentMap map) {
+        if (map instanceof IEditableCollection) return (ITransientMap) ((IEditableCollection) map).asTransient();
+        return new PersistentEdits(map);
+    }
+
+    /**
+     * Returns a transient version of {@code set}, as described in {@link
+     * #asTransient(IPersistentMap)}.
+     */
+    public static ITransientSet asTransient(IPersistentSet set) {
+        if (set instanceof IEditableCollection) return (ITransientSet) ((IEditableCollection) set).asTransient();
+        return new PersistentSetEdits(set);
+    }
+
+    private static Spliterator<Object> spliterator(IPersistentMap map, int mode) {
+        if (map instanceof PersistentHashMap) return HashTrieSpliterator.create((PersistentHashMap) map, mode);
+        if (map instanceof PersistentArrayMap) return HashTrieSpliterator.create((PersistentArrayMap) map, mode);
+        if (map instanceof ChampMap) return HashTrieSpliterator.create((ChampMap) map, mode);
+        if (map instanceof CompactMap) return HashTrieSpliterator.create((CompactMap) map, mode);
+        return null;
+    }
+
+    /**
+     * A transient map that is backed by a persistent map, for maps that cannot be edited in place.
+     */
+    private static final class PersistentEdits implements ITransientMap {
+        private IPersistentMap map;
+
+        PersistentEdits(IPersistentMap map) {
+            this.map = map;
+        }
+
+        @Override
+        public ITransientMap assoc(Object key, Object val) {
+            map = map.assoc(key, val);
+            return this;
+        }
+
+        @Override
+        public ITransientMap without(Object key) {
+            map = map.without(key);
+            return this;
+        }
+
+        @Override
+        public ITransientCollection conj(Object o) {
+            map = (IPersistentMap) map.cons(o);
+            return this;
+        }
+
+        @Override
+        public IPersistentMap persistent() {
+            return map;
+        }
+
+        @Override
+        public Object valAt(Object key) {
+            return map.valAt(key);
+        }
+
+        @Override
+        public Object valAt(Object key, Object notFound) {
+            return map.valAt(key, notFound);
+        }
+
+        @Override
+        public int count() {
+            return map.count();
+        }
+    }
+
+    /**
+     * A transient set that is backed by a persistent set, like {@link PersistentEdits}.
+     */
+    private static final class PersistentSetEdits implements ITransientSet {
+        private IPersistentSet set;
+
+        PersistentSetEdits(IPersistentSet set) {
+            this.set = set;
+        }
+
+        @Override
+        public ITransientSet disjoin(Object key) {
+            set = set.disjoin(key);
+            return this;
+        }
+
+        @Override
+        public ITransientCollection conj(Object o) {
+            set = (IPersistentSet) set.cons(o);
+            return this;
+        }
+
+        @Override
+        public IPersistentCollection persistent() {
+            return set;
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return set.contains(key);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return set.get(key);
+        }
+
+        @Override
+        public int count() {
+            return set.count();
+        }
+    }
+
+    private static final class Filter {
+        final BiPredicate<Object, Object> p;
+        int removed;
+
+        Filter(BiPredicate<Object, Object> p) {
+            this.p = p;
+        }
+
+        /**
+         * Returns {@code node} if all of its entries match, null if none of them do, and
+         * otherwise a new node holding the entries that match.
+         */
+        INode node(INode node) {
+            if (node instanceof BitmapIndexedNode) return bitmapIndexed((BitmapIndexedNode) node);
+            if (node instanceof ArrayNode) return array((ArrayNode) node);
+            return collisions((HashCollisionNode) node);
+        }
+
+        INode bitmapIndexed(BitmapIndexedNode node) {
+            Object[] array = node.array;
+            Object[] ret = null;
+            int bitmap = node.bitmap;
+            int n = 0;
+            int i = 0;
+            for (int bits = node.bitmap; bits != 0; bits &= bits - 1, i += 2) {
+                Object key = array[i];
+                Object val = array[i + 1];
+                Object kept = val;
+                boolean keep;
+                if (key != null) {
+                    keep = p.test(key, val);
+                    if (!keep) removed++;
+                } else {
+                    kept = node((INode) val);
+                    keep = kept != null;
+                }
+
+                if (ret == null && (!keep || kept != val)) {
+                    ret = new Object[array.length];
+                    System.arraycopy(array, 0, ret, 0, i);
+                    n = i;
+                }
+                if (ret == null) continue;
+                if (keep) {
+                    ret[n++] = key;
+                    ret[n++] = kept;
+                } else {
+                    bitmap &= ~(bits & -bits);
+                }
+            }
+
+            if (ret == null) return node;
+            if (bitmap == 0) return null;
+            return new BitmapIndexedNode(null, bitmap, Arrays.copyOf(ret, n));
+        }
+
+        /**
+         * Like {@link ArrayNode#without}, this packs the result into a {@link BitmapIndexedNode}
+         * once eight or fewer children are left.
+         */
+        INode array(ArrayNode node) {
+            INode[] ret = null;
+            int count = node.count;
+            for (int i = 0; i < node.array.length; i++) {
+                INode child = node.array[i];
+                if (child == null) continue;
+                INode kept = node(child);
+                if (kept == child) continue;
+                if (ret == null) ret = node.array.clone();
+                ret[i] = kept;
+                if (kept == null) count--;
+            }
+
+            if (ret == null) return node;
+            if (count == 0) return null;
+            if (count > 8) return new ArrayNode(null, count, ret);
+            Object[] packed = new Object[2 * count];
+            int bitmap = 0;
+            for (int i = 0, j = 1; i < ret.length; i++) {
+                if (ret[i] != null) {
+                    packed[j] = ret[i];
+                    bitmap |= 1 << i;
+                    j += 2;
+                }
+            }
+            return new BitmapIndexedNode(null, bitmap, packed);
+        }
+
+        INode collisions(HashCollisionNode node) {
+            Object[] array = node.array;
+            Object[] ret = null;
+            int n = 0;
+            for (int i = 0; i < 2 * node.count; i += 2) {
+                boolean keep = p.test(array[i], array[i + 1]);
+                if (!keep) removed++;
+                if (ret == null && !keep) {
+                    ret = new Object[2 * node.count];
+                    System.arraycopy(array, 0, ret, 0, i);
+                    n = i;
+                } else if (ret != null && keep) {
+                    ret[n++] = array[i];
+                    ret[n++] = array[i + 1];
+                }
+            }
+
+            if (ret == null) return node;
+            if (n == 0) return null;
+            return new HashCollisionNode(null, node.hash, n / 2, Arrays.copyOf(ret, n));
+        }
+    }
+
+    /**
+     * Adds the entries of {@code source} to {@code target}, either overwriting existing entries or
+     * leaving them alone.
+     */
+    private static IPersistentMap assocAll(IPersistentMap target, IPersistentMap source) {
+        ITransientMap ret = asTransient(target);
+        for (Object o : source) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            ret = ret.assoc(entry.getKey(), entry.getValue());
+        }
+        return ret.persistent();
+    }
+
+    private static PersistentHashMap merge(PersistentHashMap left, PersistentHashMap right, BiFunction<Object, Object, Object> resolver) {
+        // To compute the size of the result, we count the entries that are unique to one side. We
+        // choose the smaller side, which bounds the work spent counting by the size of that side;
+        // subtrees shared by both sides are never counted at all.
+        Merge merge = new Merge(right.count <= left.count, resolver);
+
+        INode root = merge.nodes(left.root, right.root, 0);
+        boolean hasNull = left.hasNull || right.hasNull;
+        Object nullValue = !right.hasNull ? left.nullValue
+                : left.hasNull ? merge.resolve(left.nullValue, right.nullValue)
+                : right.nullValue;
+        if (merge.countRight ? right.hasNull && !left.hasNull : left.hasNull && !right.hasNull) {
+            merge.unique++;
+        }
+
+        if (root == left.root && hasNull == left.hasNull && nullValue == left.nullValue) return left;
+        if (root == right.root && hasNull == right.hasNull && nullValue == right.nullValue) return right;
+        int count = merge.countRight ? left.count + merge.unique : right.count + merge.unique;
+        return new PersistentHashMap(count, root, hasNull, nullValue);
+    }
+
+    private static final class Merge {
+        final boolean countRight;
+        final BiFunction<Object, Object, Object> resolver;
+        final Box addedLeaf = new Box(null);
+        int unique;
+
+        Merge(boolean countRight, BiFunction<Object, Object, Object> resolver) {
+            this.countRight = countRight;
+            this.resolver = resolver;
+        }
+
+        Object resolve(Object a, Object b) {
+            return resolver == null ? b : resolver.apply(a, b);
+        }
+
+        INode nodes(INode a, INode b, int shift) {
+            if (a == null) {
+                if (countRight) unique += size(b);
+                return b;
+            }
+            if (b == null) {
+                if (!countRight) unique += size(a);
+                return a;
+            }
+            if (a == b && resolver == null) return a;
+            if (a instanceof HashCollisionNode && b instanceof HashCollisionNode
+                    && ((HashCollisionNode) a).hash == ((HashCollisionNode) b).hash) {
+                return collisions((HashCollisionNode) a, (HashCollisionNode) b, shift);
+            }
+
+            int bitmapA = bitmap(a, shift);
+            int bitmapB = bitmap(b, shift);
+            int union = bitmapA | bitmapB;
+            Object[] array = new Object[2 * Integer.bitCount(union)];
+            boolean sameAsA = bitmapA == union;
+            boolean sameAsB = bitmapB == union;
+
+            int i = 0;
+            for (int bits = union; bits != 0; bits &= bits - 1, i += 2) {
+                int bit = bits & -bits;
+                boolean inA = (bitmapA & bit) != 0;
+                boolean inB = (bitmapB & bit) != 0;
+                Object keyA = null, valA = null, keyB = null, valB = null;
+                if (inA) {
+                    keyA = key(a, bitmapA, bit);
+                    valA = val(a, bitmapA, bit);
+                }
+                if (inB) {
+                    keyB = key(b, bitmapB, bit);
+                    valB = val(b, bitmapB, bit);
+                }
+
+                if (!inA) {
+                    if (countRight) unique += keyB != null ? 1 : size((INode) valB);
+                    array[i] = keyB;
+                    array[i + 1] = valB;
+                } else if (!inB) {
+                    if (!countRight) unique += keyA != null ? 1 : size((INode) valA);
+                    array[i] = keyA;
+                    array[i + 1] = valA;
+                } else if (keyA != null && keyB != null) {
+                    if (Util.equiv(keyA, keyB)) {
+                        array[i] = keyB;
+                        array[i + 1] = resolve(valA, valB);
+                    } else {
+                        unique++;
+                        array[i + 1] = BitmapIndexedNode.EMPTY
+                                .assoc(shift + 5, PersistentHashMap.hash(keyA), keyA, valA, addedLeaf)
+                                .assoc(shift + 5, PersistentHashMap.hash(keyB), keyB, valB, addedLeaf);
+                    }
+                } else if (keyA != null) {
+                    INode nodeB = (INode) valB;
+                    int hash = PersistentHashMap.hash(keyA);
+                    Object found = nodeB.find(shift + 5, hash, keyA, NOT_FOUND);
+                    if (countRight) unique += size(nodeB) - (found != NOT_FOUND ? 1 : 0);
+                    else if (found == NOT_FOUND) unique++;
+                    if (found == NOT_FOUND) array[i + 1] = nodeB.assoc(shift + 5, hash, keyA, valA, addedLeaf);
+                    else if (resolver == null) array[i + 1] = nodeB;
+                    else array[i + 1] = nodeB.assoc(shift + 5, hash, keyA, resolver.apply(valA, found), addedLeaf);
+                } else if (keyB != null) {
+                    INode nodeA = (INode) valA;
+                    int hash = PersistentHashMap.hash(keyB);
+                    Object found = nodeA.find(shift + 5, hash, keyB, NOT_FOUND);
+                    if (!countRight) unique += size(nodeA) - (found != NOT_FOUND ? 1 : 0);
+                    else if (found == NOT_FOUND) unique++;
+                    Object value = found == NOT_FOUND ? valB : resolve(found, valB);
+                    array[i + 1] = nodeA.assoc(shift + 5, hash, keyB, value, addedLeaf);
+                } else {
+                    array[i + 1] = nodes((INode) valA, (INode) valB, shift + 5);
+                }
+
+                sameAsA &= array[i] == keyA && array[i + 1] == valA;
+                sameAsB &= array[i] == keyB && array[i + 1] == valB;
+            }
+
+            if (sameAsA) return a;
+            if (sameAsB) return b;
+            return node(union, array, shift);
+        }
+
+        INode collisions(HashCollisionNode a, HashCollisionNode b, int shift) {
+            INode ret = a;
+            int found = 0;
+            for (int i = 0; i < 2 * b.count; i += 2) {
+                int index = a.findIndex(b.array[i]);
+                Object value = b.array[i + 1];
+                if (index != -1) {
+                    found++;
+                    value = resolve(a.array[index + 1], value);
+                }
+                ret = ret.assoc(shift, b.hash, b.array[i], value, addedLeaf);
+            }
+            unique += countRight ? b.count - found : a.count - found;
+            return ret;
+        }
+    }
+
+    /**
+     * Builds a node from the key/value pairs (or null/subnode pairs) in {@code array}, whose
+     * positions are given by {@code bitmap}. Like {@link BitmapIndexedNode#assoc}, this switches
+     * to an {@link ArrayNode} once there are more than 16 entries.
+     */
+    private static INode node(int bitmap, Object[] array, int shift) {
+        int n = array.length / 2;
+        if (n <= 16) return new BitmapIndexedNode(null, bitmap, array);
+
+        INode[] nodes = new INode[32];
+        Box addedLeaf = new Box(null);
+        int i = 0;
+        for (int bits = bitmap; bits != 0; bits &= bits - 1, i += 2) {
+            int slot = Integer.numberOfTrailingZeros(bits);
+            Object key = array[i];
+            if (key == null) {
+                nodes[slot] = (INode) array[i + 1];
+            } else {
+                nodes[slot] = BitmapIndexedNode.EMPTY.assoc(shift + 5, PersistentHashMap.hash(key), key, array[i + 1], addedLeaf);
+            }
+        }
+        return new ArrayNode(null, n, nodes);
+    }
+
+    /**
+     * Returns a bitmap of the occupied positions of {@code node} at {@code shift}. A hash
+     * collision node is treated as a single subnode at the position of its hash.
+     */
+    private static int bitmap(INode node, int shift) {
+        if (node instanceof BitmapIndexedNode) return ((BitmapIndexedNode) node).bitmap;
+        if (node instanceof ArrayNode) {
+            INode[] array = ((ArrayNode) node).array;
+            int bitmap = 0;
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] != null) bitmap |= 1 << i;
+            }
+            return bitmap;
+        }
+        return 1 << PersistentHashMap.mask(((HashCollisionNode) node).hash, shift);
+    }
+
+    /**
+     * Returns the key stored at position {@code bit} of {@code node}, or null if that position
+     * holds a subnode.
+     */
+    private static Object key(INode node, int bitmap, int bit) {
+        if (node instanceof BitmapIndexedNode) {
+            return ((BitmapIndexedNode) node).array[2 * Integer.bitCount(bitmap & (bit - 1))];
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value or subnode stored at position {@code bit} of {@code node}.
+     */
+    private static Object val(INode node, int bitmap, int bit) {
+        if (node instanceof BitmapIndexedNode) {
+            return ((BitmapIndexedNode) node).array[2 * Integer.bitCount(bitmap & (bit - 1)) + 1];
+        }
+        if (node instanceof ArrayNode) {
+            return ((ArrayNode) node).array[Integer.numberOfTrailingZeros(bit)];
+        }
+        return node;
+    }
+
+    /**
+     * Returns the number of entries in the subtree rooted at {@code node}.
+     */
+    static int size(INode node) {
+        if (node == null) return 0;
+        if (node instanceof BitmapIndexedNode) {
+            Object[] array = ((BitmapIndexedNode) node).array;
+            int size = 0;
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] != null) size++;
+                else if (array[i + 1] != null) size += size((INode) array[i + 1]);
+            }
+            return size;
+        }
+        if (node instanceof ArrayNode) {
+            int size = 0;
+            for (INode child : ((ArrayNode) node).array) {
+                size += size(child);
+            }
+            return size;
+        }
+        return ((HashCollisionNode) node).count;
+    }
+}
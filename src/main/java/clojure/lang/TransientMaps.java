@@ -0,0 +1,138 @@
+package clojure.lang;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import clojure.lang.PersistentArrayMap.TransientArrayMap;
+import clojure.lang.PersistentHashMap.ArrayNode;
+import clojure.lang.PersistentHashMap.BitmapIndexedNode;
+import clojure.lang.PersistentHashMap.HashCollisionNode;
+import clojure.lang.PersistentHashMap.INode;
+import clojure.lang.PersistentHashMap.TransientHashMap;
+
+/**
+ * In-place operations on Clojure's transient maps. This class lives in {@code clojure.lang}
+ * because the transient maps and their trie nodes are package-private; it is an implementation
+ * detail of Collider and not part of its public API.
+ */
+public final class TransientMaps {
+    private TransientMaps() {
+    }
+
+    /**
+     * Replaces the value associated with {@code key} in {@code map} with the result of applying
+     * {@code f} to the current value, or to {@code notFound} if {@code key} is absent, and returns
+     * the updated transient. The new value is also stored in {@code result}.
+     * <p/>
+     * For {@link TransientHashMap}s, the trie is traversed only once: the entry for {@code key} is
+     * located, and then either its value is overwritten or a new entry is inserted at the node
+     * where the search ended. This requires every node on the path to be owned by the transient;
+     * if any of them is still shared with a persistent map, this falls back to a lookup followed
+     * by an {@link ITransientMap#assoc}, which takes ownership of the path for next time.
+     */
+    public static ITransientMap update(ITransientMap map, Object key, Object notFound, UnaryOperator<Object> f, Box result) {
+        if (map instanceof TransientHashMap) return update((TransientHashMap) map, key, notFound, f, result);
+        if (map instanceof TransientArrayMap) return update((TransientArrayMap) map, key, notFound, f, result);
+        return lookupAndAssoc(map, key, notFound, f, result);
+    }
+
+    private static ITransientMap lookupAndAssoc(ITransientMap map, Object key, Object notFound, UnaryOperator<Object> f, Box result) {
+        Object oldValue = map.valAt(key, notFound);
+        Object newValue = f.apply(oldValue);
+        result.val = newValue;
+        if (newValue == oldValue) return map;
+        return map.assoc(key, newValue);
+    }
+
+    private static ITransientMap update(TransientArrayMap map, Object key, Object notFound, UnaryOperator<Object> f, Box result) {
+        map.ensureEditable();
+        Object[] array = map.array;
+        for (int i = 0; i < map.len; i += 2) {
+            if (Util.equiv(key, array[i])) {
+                Object newValue = f.apply(array[i + 1]);
+                result.val = newValue;
+                array[i + 1] = newValue;
+                return map;
+            }
+        }
+        // An array map holds at most eight entries, so the second scan performed by assoc is
+        // cheap; more importantly, assoc knows when to promote this map to a hash map.
+        Object newValue = f.apply(notFound);
+        result.val = newValue;
+        return map.assoc(key, newValue);
+    }
+
+    private static ITransientMap update(TransientHashMap map, Object key, Object notFound, UnaryOperator<Object> f, Box result) {
+        map.ensureEditable();
+        if (key == null) {
+            Object newValue = f.apply(map.hasNull ? map.nullValue : notFound);
+            result.val = newValue;
+            return map.assoc(null, newValue);
+        }
+
+        AtomicReference<Thread> edit = map.edit;
+        int hash = PersistentHashMap.hash(key);
+        INode parent = null;
+        int slot = 0;
+        INode node = map.root;
+        int shift = 0;
+
+        while (node != null) {
+            if (node instanceof BitmapIndexedNode) {
+                BitmapIndexedNode bin = (BitmapIndexedNode) node;
+                if (bin.edit != edit) return lookupAndAssoc(map, key, notFound, f, result);
+                int bit = 1 << PersistentHashMap.mask(hash, shift);
+                if ((bin.bitmap & bit) == 0) break;
+                int index = 2 * bin.index(bit);
+                Object keyOrNull = bin.array[index];
+                if (keyOrNull == null) {
+                    parent = bin;
+                    slot = index + 1;
+                    node = (INode) bin.array[index + 1];
+                    shift += 5;
+                    continue;
+                }
+                if (!Util.equiv(key, keyOrNull)) break;
+                Object newValue = f.apply(bin.array[index + 1]);
+                result.val = newValue;
+                bin.array[index + 1] = newValue;
+                return map;
+            } else if (node instanceof ArrayNode) {
+                ArrayNode an = (ArrayNode) node;
+                if (an.edit != edit) return lookupAndAssoc(map, key, notFound, f, result);
+                int index = PersistentHashMap.mask(hash, shift);
+                if (an.array[index] == null) break;
+                parent = an;
+                slot = index;
+                node = an.array[index];
+                shift += 5;
+            } else {
+                HashCollisionNode hcn = (HashCollisionNode) node;
+                if (hcn.edit != edit) return lookupAndAssoc(map, key, notFound, f, result);
+                if (hcn.hash != hash) break;
+                int index = hcn.findIndex(key);
+                if (index == -1) break;
+                Object newValue = f.apply(hcn.array[index + 1]);
+                result.val = newValue;
+                hcn.array[index + 1] = newValue;
+                return map;
+            }
+        }
+
+        // The key is absent. Insert it into the node where the search ended, exactly as the
+        // transient's own assoc would have done after descending to the same node.
+        Object newValue = f.apply(notFound);
+        result.val = newValue;
+        Box addedLeaf = map.leafFlag;
+        addedLeaf.val = null;
+        INode start = node == null ? BitmapIndexedNode.EMPTY : node;
+        INode replacement = start.assoc(edit, shift, hash, key, newValue, addedLeaf);
+        if (replacement != node) {
+            if (parent == null) map.root = replacement;
+            else if (parent instanceof BitmapIndexedNode) ((BitmapIndexedNode) parent).array[slot] = replacement;
+            else ((ArrayNode) parent).array[slot] = replacement;
+        }
+        if (addedLeaf.val != null) map.count++;
+        return map;
+    }
+}
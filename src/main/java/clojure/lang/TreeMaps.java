@@ -0,0 +1,128 @@
+package clojure.lang;
+
+import java.util.Comparator;
+
+import clojure.lang.PersistentTreeMap.Node;
+
+/**
+ * Navigation and bulk construction for {@link PersistentTreeMap} and {@link PersistentTreeSet}.
+ * This class lives in {@code clojure.lang} because the tree's nodes, its constructor and its node
+ * factories are package-private; it is an implementation detail of Collider and not part of its
+ * public API.
+ */
+public final class TreeMaps {
+    private TreeMaps() {
+    }
+
+    /**
+     * Returns the comparator that orders {@code map}. The tree declares it as a raw type, but
+     * every comparator it is built with accepts any of its keys.
+     */
+    @SuppressWarnings("unchecked")
+    public static Comparator<Object> comparator(PersistentTreeMap map) {
+        return map.comp;
+    }
+
+    /**
+     * Returns the entry with the least key in {@code map}, or null if it is empty.
+     */
+    public static IMapEntry first(PersistentTreeMap map) {
+        Node node = map.tree;
+        if (node == null) return null;
+        while (node.left() != null) node = node.left();
+        return node;
+    }
+
+    /**
+     * Returns the entry with the greatest key in {@code map}, or null if it is empty.
+     */
+    public static IMapEntry last(PersistentTreeMap map) {
+        Node node = map.tree;
+        if (node == null) return null;
+        while (node.right() != null) node = node.right();
+        return node;
+    }
+
+    /**
+     * Returns the entry with the least key greater than {@code key} (or equal to it, if {@code
+     * inclusive}), or null if there is none. Unlike {@link PersistentTreeMap#seqFrom}, this does
+     * not allocate a seq.
+     */
+    public static IMapEntry ceiling(PersistentTreeMap map, Object key, boolean inclusive) {
+        Comparator<Object> comp = comparator(map);
+        Node result = null;
+        Node node = map.tree;
+        while (node != null) {
+            int c = comp.compare(key, node.key());
+            if (c == 0 && inclusive) return node;
+            if (c < 0) {
+                result = node;
+                node = node.left();
+            } else {
+                node = node.right();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entry with the greatest key less than {@code key} (or equal to it, if {@code
+     * inclusive}), or null if there is none.
+     */
+    public static IMapEntry floor(PersistentTreeMap map, Object key, boolean inclusive) {
+        Comparator<Object> comp = comparator(map);
+        Node result = null;
+        Node node = map.tree;
+        while (node != null) {
+            int c = comp.compare(key, node.key());
+            if (c == 0 && inclusive) return node;
+            if (c > 0) {
+                result = node;
+                node = node.right();
+            } else {
+                node = node.left();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds a tree map from the first {@code count} entries of {@code keys} and {@code vals},
+     * which must already be in strictly ascending order according to {@code comp}. This takes
+     * O(n) time, rather than the O(n log n) time taken by inserting each entry in turn.
+     * <p/>
+     * The tree is built by recursively splitting the input at its midpoint, so every path from the
+     * root to a missing child has the same length, give or take one. Every node on the deepest
+     * level is red, unless that level is the root, and every other node is black; this satisfies
+     * the red-black invariants without any rebalancing.
+     */
+    public static PersistentTreeMap fromSorted(Comparator<?> comp, Object[] keys, Object[] vals, int count) {
+        if (count == 0) return new PersistentTreeMap(null, comp);
+        int redDepth = 31 - Integer.numberOfLeadingZeros(count);
+        return new PersistentTreeMap(null, comp, build(keys, vals, 0, count, 0, redDepth), count);
+    }
+
+    private static Node build(Object[] keys, Object[] vals, int from, int to, int depth, int redDepth) {
+        if (from == to) return null;
+        int mid = (from + to) >>> 1;
+        Node left = build(keys, vals, from, mid, depth + 1, redDepth);
+        Node right = build(keys, vals, mid + 1, to, depth + 1, redDepth);
+        Object val = vals == null ? keys[mid] : vals[mid];
+        if (depth == redDepth && depth > 0) return PersistentTreeMap.red(keys[mid], val, left, right);
+        return PersistentTreeMap.black(keys[mid], val, left, right);
+    }
+
+    /**
+     * Returns a tree set backed by {@code map}, which must map each of its keys to itself.
+     */
+    public static PersistentTreeSet asSet(PersistentTreeMap map) {
+        return new PersistentTreeSet(null, map);
+    }
+
+    /**
+     * Returns the tree map that backs {@code set}, in which every element is mapped to itself.
+     */
+    public static PersistentTreeMap backingMap(PersistentTreeSet set) {
+        return (PersistentTreeMap) set.impl;
+    }
+}
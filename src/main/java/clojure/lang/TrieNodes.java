@@ -0,0 +1,100 @@
+package clojure.lang;
+
+import java.util.function.Predicate;
+
+import clojure.lang.PersistentHashMap.ArrayNode;
+import clojure.lang.PersistentHashMap.BitmapIndexedNode;
+import clojure.lang.PersistentHashMap.HashCollisionNode;
+import clojure.lang.PersistentHashMap.INode;
+
+/**
+ * Walks the objects that make up a persistent collection: the collection itself, the nodes of its
+ * trie, and the arrays inside those nodes. Keys, values and elements are not visited. This class
+ * lives in {@code clojure.lang} because the node classes and their fields are package-private; it
+ * is an implementation detail of Collider and not part of its public API.
+ */
+public final class TrieNodes {
+    private TrieNodes() {
+    }
+
+    /**
+     * Returns whether {@link #walk} can walk {@code coll}.
+     */
+    public static boolean isSupported(Object coll) {
+        return coll instanceof PersistentHashMap
+                || coll instanceof PersistentArrayMap
+                || coll instanceof ChampMap
+                || coll instanceof CompactMap
+                || coll instanceof APersistentSet && isSupported(((APersistentSet) coll).impl)
+                || coll instanceof PersistentVector
+                || coll instanceof APersistentVector.SubVector && isSupported(((APersistentVector.SubVector) coll).v);
+    }
+
+    /**
+     * Passes every object that makes up {@code coll} to {@code visitor}, parents before children.
+     * If {@code visitor} returns false for a collection or a node, the objects beneath it are not
+     * visited; its return value for an array is ignored. An object that is reachable along more
+     * than one path is visited once for each.
+     *
+     * @throws IllegalArgumentException if {@code coll} is not {@link #isSupported supported}
+     */
+    public static void walk(Object coll, Predicate<Object> visitor) {
+        if (!isSupported(coll)) throw new IllegalArgumentException("Unsupported collection: " + coll.getClass().getName());
+        if (!visitor.test(coll)) return;
+        if (coll instanceof PersistentHashMap) {
+            INode root = ((PersistentHashMap) coll).root;
+            if (root != null) walkHashNode(root, visitor);
+        } else if (coll instanceof PersistentArrayMap) {
+            visitor.test(((PersistentArrayMap) coll).array);
+        } else if (coll instanceof ChampMap) {
+            walkChampNode(((ChampMap) coll).root, visitor);
+        } else if (coll instanceof CompactMap) {
+            visitor.test(((CompactMap) coll).hashes);
+            visitor.test(((CompactMap) coll).array);
+        } else if (coll instanceof APersistentSet) {
+            walk(((APersistentSet) coll).impl, visitor);
+        } else if (coll instanceof PersistentVector) {
+            PersistentVector vector = (PersistentVector) coll;
+            walkVectorNode(vector.root, vector.shift, visitor);
+            visitor.test(vector.tail);
+        } else {
+            walk(((APersistentVector.SubVector) coll).v, visitor);
+        }
+    }
+
+    private static void walkHashNode(INode node, Predicate<Object> visitor) {
+        if (!visitor.test(node)) return;
+        if (node instanceof BitmapIndexedNode) {
+            Object[] array = ((BitmapIndexedNode) node).array;
+            visitor.test(array);
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null && array[i + 1] != null) walkHashNode((INode) array[i + 1], visitor);
+            }
+        } else if (node instanceof ArrayNode) {
+            INode[] array = ((ArrayNode) node).array;
+            visitor.test(array);
+            for (INode child : array) {
+                if (child != null) walkHashNode(child, visitor);
+            }
+        } else {
+            visitor.test(((HashCollisionNode) node).array);
+        }
+    }
+
+    private static void walkChampNode(ChampMap.Node node, Predicate<Object> visitor) {
+        if (!visitor.test(node)) return;
+        visitor.test(node.array);
+        for (int i = 0; i < node.nodeArity(); i++) {
+            walkChampNode(node.child(i), visitor);
+        }
+    }
+
+    private static void walkVectorNode(PersistentVector.Node node, int shift, Predicate<Object> visitor) {
+        if (!visitor.test(node)) return;
+        visitor.test(node.array);
+        if (shift == 0) return;
+        for (Object child : node.array) {
+            if (child != null) walkVectorNode((PersistentVector.Node) child, shift - 5, visitor);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package clojure.lang;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over a range of a {@link PersistentVector} that splits on leaf boundaries and
+ * walks each 32-element leaf array directly, rather than going through the vector's iterator.
+ * Since every split is sized exactly, parallel streams can divide the work evenly, and a split
+ * never copies elements.
+ */
+final class VectorSpliterator implements Spliterator<Object> {
+    private final PersistentVector vector;
+    private int index;
+    private final int end;
+
+    VectorSpliterator(PersistentVector vector, int index, int end) {
+        this.vector = vector;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public Spliterator<Object> trySplit() {
+        int mid = ((index + end) >>> 1) & ~31;
+        if (mid <= index) return null;
+        Spliterator<Object> prefix = new VectorSpliterator(vector, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Object> action) {
+        if (index >= end) return false;
+        action.accept(vector.arrayFor(index)[index & 31]);
+        index++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Object> action) {
+        while (index < end) {
+            Object[] leaf = vector.arrayFor(index);
+            int stop = Math.min(end, (index | 31) + 1);
+            for (; index < stop; index++) {
+                action.accept(leaf[index & 31]);
+            }
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return SIZED | SUBSIZED | ORDERED | IMMUTABLE;
+    }
+}
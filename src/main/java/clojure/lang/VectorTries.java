@@ -0,0 +1,166 @@
+package clojure.lang;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+
+import clojure.lang.PersistentVector.Node;
+
+/**
+ * Structural operations on the tries that back {@link PersistentVector}. This class lives in
+ * {@code clojure.lang} because the vector's constructor and parts of its state are
+ * package-private; it is an implementation detail of Collider and not part of its public API.
+ */
+public final class VectorTries {
+    private VectorTries() {
+    }
+
+    /**
+     * Returns a vector containing the elements of {@code left} followed by the elements of {@code
+     * right}.
+     * <p/>
+     * Rather than appending the elements of {@code right} one at a time, the result is assembled
+     * from whole nodes: every full subtree of {@code left} is reused as-is, as is every leaf of
+     * {@code right} when {@code left} ends on a leaf boundary. Otherwise the leaves of {@code
+     * right} are copied a leaf at a time with {@link System#arraycopy}. Either way, no internal
+     * node of {@code left} is copied and no element is inserted individually.
+     */
+    public static PersistentVector concat(PersistentVector left, PersistentVector right) {
+        if (right.cnt == 0) return left;
+        if (left.cnt == 0) return right;
+
+        Builder builder = new Builder();
+        builder.addTree(left.root, left.shift / 5, left.tailoff());
+        builder.addElements(left.tail, left.cnt - left.tailoff());
+        builder.addTree(right.root, right.shift / 5, right.tailoff());
+        builder.addElements(right.tail, right.cnt - right.tailoff());
+        return builder.build(left.cnt + right.cnt);
+    }
+
+    /**
+     * Returns a view of the elements of {@code vector} from {@code start}, inclusive, to {@code
+     * end}, exclusive. This is equivalent to {@link RT#subvec}, but it does not go through {@link
+     * RT}, whose static initializer loads the whole Clojure runtime.
+     *
+     * @throws IndexOutOfBoundsException if {@code start} or {@code end} is out of range
+     */
+    public static IPersistentVector subvec(IPersistentVector vector, int start, int end) {
+        if (end < start || start < 0 || end > vector.count()) throw new IndexOutOfBoundsException();
+        if (start == end) return PersistentVector.EMPTY;
+        return new APersistentVector.SubVector(null, vector, start, end);
+    }
+
+    /**
+     * Returns a spliterator over {@code vector} that splits along leaf boundaries, or null if
+     * {@code vector} is neither a {@link PersistentVector} nor a subvector of one.
+     */
+    public static Spliterator<Object> spliterator(IPersistentVector vector) {
+        if (vector instanceof PersistentVector) {
+            return new VectorSpliterator((PersistentVector) vector, 0, vector.count());
+        }
+        if (vector instanceof APersistentVector.SubVector) {
+            APersistentVector.SubVector sub = (APersistentVector.SubVector) vector;
+            if (sub.v instanceof PersistentVector) return new VectorSpliterator((PersistentVector) sub.v, sub.start, sub.end);
+        }
+        return null;
+    }
+
+    /**
+     * Assembles a vector trie from left to right. Level 0 holds leaves, and level {@code k} holds
+     * nodes whose children are at level {@code k - 1}. Elements that do not fill a whole leaf are
+     * buffered in {@code pending}, which becomes the tail of the finished vector.
+     */
+    private static final class Builder {
+        private final Object[][] levels = new Object[8][];
+        private final int[] counts = new int[8];
+        private Object[] pending = new Object[32];
+        private int fill;
+
+        /**
+         * Adds the first {@code size} elements of the subtree rooted at {@code node}, which is at
+         * {@code level}.
+         */
+        void addTree(Node node, int level, int size) {
+            if (size == 0) return;
+            if (size == 1L << (5 * (level + 1))) {
+                addNode(node, level);
+                return;
+            }
+            int childSize = 1 << (5 * level);
+            for (int i = 0; size > 0; i++, size -= childSize) {
+                addTree((Node) node.array[i], level - 1, Math.min(size, childSize));
+            }
+        }
+
+        /**
+         * Adds the full subtree rooted at {@code node}, sharing it if the builder is currently
+         * positioned at a boundary of that subtree's size, and splitting it otherwise.
+         */
+        void addNode(Node node, int level) {
+            if (fill == 32) flushPending();
+            boolean aligned = fill == 0;
+            for (int i = 0; i < level && aligned; i++) {
+                aligned = counts[i] == 0;
+            }
+            if (aligned) {
+                push(level, node);
+            } else if (level == 0) {
+                addElements(node.array, 32);
+            } else {
+                for (Object child : node.array) {
+                    addNode((Node) child, level - 1);
+                }
+            }
+        }
+
+        void addElements(Object[] array, int length) {
+            for (int from = 0; from < length; ) {
+                if (fill == 32) flushPending();
+                int n = Math.min(32 - fill, length - from);
+                System.arraycopy(array, from, pending, fill, n);
+                fill += n;
+                from += n;
+            }
+        }
+
+        private void flushPending() {
+            push(0, new Node(PersistentVector.NOEDIT, pending));
+            pending = new Object[32];
+            fill = 0;
+        }
+
+        private void push(int level, Node node) {
+            if (levels[level] == null) levels[level] = new Object[32];
+            levels[level][counts[level]++] = node;
+            if (counts[level] == 32) {
+                Node parent = new Node(PersistentVector.NOEDIT, levels[level]);
+                levels[level] = null;
+                counts[level] = 0;
+                push(level + 1, parent);
+            }
+        }
+
+        PersistentVector build(int count) {
+            Object[] tail = Arrays.copyOf(pending, fill);
+
+            int top = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) top = i;
+            }
+            if (top == -1) return new PersistentVector(count, 5, PersistentVector.EMPTY_NODE, tail);
+
+            // Close off each partially filled level, bottom-up, by wrapping it in a parent that
+            // is appended to the next level. The top level becomes the root.
+            for (int level = 0; level < top; level++) {
+                if (counts[level] > 0) {
+                    Node parent = new Node(PersistentVector.NOEDIT, levels[level]);
+                    if (levels[level + 1] == null) levels[level + 1] = new Object[32];
+                    levels[level + 1][counts[level + 1]++] = parent;
+                }
+            }
+            if (top > 0 && counts[top] == 1) {
+                return new PersistentVector(count, 5 * top, (Node) levels[top][0], tail);
+            }
+            return new PersistentVector(count, 5 * (top + 1), new Node(PersistentVector.NOEDIT, levels[top]), tail);
+        }
+    }
+}
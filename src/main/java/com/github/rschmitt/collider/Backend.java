@@ -0,0 +1,77 @@
+package com.github.rschmitt.collider;
+
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentSet;
+import clojure.lang.IPersistentVector;
+
+/**
+ * A source of the persistent data structures behind {@link ClojureMap}, {@link ClojureSet} and
+ * {@link ClojureList}, and their transient counterparts. A backend only supplies empty
+ * collections; every other collection is derived from one of them, so a collection and everything
+ * computed from it stay with the same backend.
+ * <p/>
+ * Two backends are built in: {@link #clojure()}, which uses Clojure's own collections, and {@link
+ * #champ()}, which stores maps and sets in CHAMP tries; these use less memory than Clojure's hash
+ * tries and are faster to iterate. Collections from different backends are equal whenever their
+ * contents are, and may be freely combined.
+ * <p/>
+ * The backend used by the factory methods in {@link Collider} is chosen once, when it is first
+ * needed, by the {@code collider.backend} system property: either {@code clojure} (the default),
+ * {@code champ}, or the name of a class that implements this interface and has a public
+ * no-argument constructor. The built-in names are not case-sensitive. Individual collections may
+ * be created with a different backend by passing it to the factory method, as in {@link
+ * Collider#transientMap(Backend)}.
+ */
+public interface Backend {
+    /**
+     * Returns an empty map, which must also implement {@link java.util.Map} and {@link
+     * clojure.lang.IEditableCollection}.
+     */
+    IPersistentMap emptyMap();
+
+    /**
+     * Returns an empty map, as in {@link #emptyMap()}, that is expected to grow to about {@code
+     * expectedSize} entries.
+     */
+    default IPersistentMap emptyMap(int expectedSize) {
+        return emptyMap();
+    }
+
+    /**
+     * Returns an empty set, which must also implement {@link java.util.Set} and {@link
+     * clojure.lang.IEditableCollection}.
+     */
+    IPersistentSet emptySet();
+
+    /**
+     * Returns an empty vector, which must also implement {@link java.util.List} and {@link
+     * clojure.lang.IEditableCollection}.
+     */
+    IPersistentVector emptyList();
+
+    /**
+     * Returns the backend that uses Clojure's {@code PersistentHashMap}, {@code
+     * PersistentHashSet} and {@code PersistentVector}.
+     */
+    static Backend clojure() {
+        return Backends.CLOJURE;
+    }
+
+    /**
+     * Returns the backend that stores maps and sets in CHAMP tries. Lists are still backed by
+     * Clojure's {@code PersistentVector}.
+     */
+    static Backend champ() {
+        return Backends.CHAMP;
+    }
+
+    /**
+     * Returns the backend selected by the {@code collider.backend} system property.
+     *
+     * @throws IllegalStateException if the property names neither a built-in backend nor a class
+     *                               that implements this interface
+     */
+    static Backend defaultBackend() {
+        return Backends.defaultBackend();
+    }
+}
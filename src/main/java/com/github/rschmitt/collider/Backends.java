@@ -0,0 +1,141 @@
+package com.github.rschmitt.collider;
+
+import java.util.function.Supplier;
+
+import clojure.lang.ChampMap;
+import clojure.lang.ChampSet;
+import clojure.lang.IPersistentCollection;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentSet;
+import clojure.lang.IPersistentVector;
+import clojure.lang.PersistentArrayMap;
+import clojure.lang.PersistentHashMap;
+import clojure.lang.PersistentHashSet;
+import clojure.lang.PersistentVector;
+
+/**
+ * The built-in {@link Backend}s, and the one selected by the {@code collider.backend} system
+ * property.
+ */
+final class Backends {
+    static final String PROPERTY = "collider.backend";
+
+    static final Backend CLOJURE = new Backend() {
+        @Override
+        public IPersistentMap emptyMap() {
+            return PersistentHashMap.EMPTY;
+        }
+
+        @Override
+        public IPersistentMap emptyMap(int expectedSize) {
+            // Array maps are promoted to hash maps once they exceed eight entries. A map that is
+            // known to grow past that point starts out as a hash map, skipping the linear scans
+            // and the copy that the promotion would otherwise cost.
+            return expectedSize > 8 ? PersistentHashMap.EMPTY : PersistentArrayMap.EMPTY;
+        }
+
+        @Override
+        public IPersistentSet emptySet() {
+            return PersistentHashSet.EMPTY;
+        }
+
+        @Override
+        public IPersistentVector emptyList() {
+            return PersistentVector.EMPTY;
+        }
+
+        @Override
+        public String toString() {
+            return "clojure";
+        }
+    };
+
+    static final Backend CHAMP = new Backend() {
+        @Override
+        public IPersistentMap emptyMap() {
+            return ChampMap.EMPTY;
+        }
+
+        @Override
+        public IPersistentSet emptySet() {
+            return ChampSet.EMPTY;
+        }
+
+        @Override
+        public IPersistentVector emptyList() {
+            return PersistentVector.EMPTY;
+        }
+
+        @Override
+        public String toString() {
+            return "champ";
+        }
+    };
+
+    private Backends() {
+    }
+
+    /**
+     * Returns the backend selected by the {@code collider.backend} system property. The property
+     * is read the first time this is called.
+     *
+     * @throws IllegalStateException if the property does not name a backend
+     */
+    static Backend defaultBackend() {
+        return Default.SELECTION.get();
+    }
+
+    private static final class Default {
+        static final Supplier<Backend> SELECTION = select(System.getProperty(PROPERTY, "clojure"));
+    }
+
+    /**
+     * Returns the backend that {@code coll} belongs to, so that collections derived from it can be
+     * built with the same backend. This is judged by the kind of empty collection that {@code
+     * coll} returns: a collection that is not recognized as belonging to a built-in backend, such
+     * as a sorted map, is taken to belong to the default backend.
+     */
+    static Backend of(IPersistentCollection coll) {
+        IPersistentCollection empty = coll.empty();
+        if (empty instanceof ChampMap || empty instanceof ChampSet) return CHAMP;
+        if (empty instanceof PersistentHashMap
+                || empty instanceof PersistentArrayMap
+                || empty instanceof PersistentHashSet
+                || empty instanceof PersistentVector) {
+            return CLOJURE;
+        }
+        return defaultBackend();
+    }
+
+    /**
+     * Resolves the backend named {@code name} once, and returns a supplier of it. If {@code name}
+     * does not name a backend, the supplier throws an {@link IllegalStateException} every time it
+     * is called, rather than only the first time.
+     */
+    static Supplier<Backend> select(String name) {
+        try {
+            Backend backend = load(name);
+            return () -> backend;
+        } catch (IllegalArgumentException e) {
+            return () -> {
+                throw new IllegalStateException(e.getMessage(), e);
+            };
+        }
+    }
+
+    /**
+     * Returns the backend named {@code name}: either one of the built-in backends, whose names are
+     * matched without regard to case, or an instance of the class with that name.
+     *
+     * @throws IllegalArgumentException if {@code name} does not name a backend
+     */
+    static Backend load(String name) {
+        if (name.equalsIgnoreCase("clojure")) return CLOJURE;
+        if (name.equalsIgnoreCase("champ")) return CHAMP;
+        try {
+            return (Backend) Class.forName(name).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            throw new IllegalArgumentException("Invalid " + PROPERTY + ": " + name, e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.github.rschmitt.collider;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A persistent immutable list of primitive {@code double}s. It offers the same three types of
+ * methods as {@link ClojureList}, but elements are stored unboxed in {@code double[]} leaves, and
+ * its primitive methods, such as {@link #getDouble}, {@link #doubleStream} and {@link #sum}, never
+ * box. The methods inherited from {@link java.util.List} are supported, but box their elements.
+ */
+@Immutable
+public class ClojureDoubleList extends AbstractList<Double> implements RandomAccess {
+    private static final ClojureDoubleList EMPTY = new ClojureDoubleList(PrimitiveVector.empty(double[]::new));
+
+    final PrimitiveVector vector;
+
+    ClojureDoubleList(PrimitiveVector vector) {
+        this.vector = vector;
+    }
+
+    static ClojureDoubleList empty() {
+        return EMPTY;
+    }
+
+    static ClojureDoubleList create(double... elements) {
+        TransientDoubleList ret = EMPTY.asTransient();
+        for (double element : elements) {
+            ret.append(element);
+        }
+        return ret.toPersistent();
+    }
+
+    /**
+     * Returns the element at position {@code index} in this list.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public double getDouble(int index) {
+        return ((double[]) vector.arrayFor(index))[index & 31];
+    }
+
+    /**
+     * Returns a copy of this list with {@code value} appended.
+     */
+    public ClojureDoubleList append(double value) {
+        PrimitiveVector ret = vector.grow();
+        ((double[]) ret.tail)[vector.count & 31] = value;
+        return new ClojureDoubleList(ret);
+    }
+
+    /**
+     * Returns a copy of this list with the element at position {@code index} replaced by {@code
+     * value}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public ClojureDoubleList assoc(int index, double value) {
+        PrimitiveVector ret = vector.copyPath(index);
+        ((double[]) ret.arrayFor(index))[index & 31] = value;
+        return new ClojureDoubleList(ret);
+    }
+
+    /**
+     * Returns the sum of the elements in this list, computed with the same compensated summation
+     * as {@link java.util.stream.DoubleStream#sum}.
+     */
+    public double sum() {
+        double sum = 0, compensation = 0, simpleSum = 0;
+        for (int i = 0; i < vector.count; i += 32) {
+            double[] leaf = (double[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                double y = leaf[j] - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+                simpleSum += leaf[j];
+            }
+        }
+        // The compensation holds the negated error of the running sum, so it is subtracted.
+        double ret = sum - compensation;
+        if (Double.isNaN(ret) && Double.isInfinite(simpleSum)) return simpleSum;
+        return ret;
+    }
+
+    /**
+     * Returns the elements of this list as a new {@code double[]}.
+     */
+    public double[] toDoubleArray() {
+        double[] ret = new double[vector.count];
+        for (int i = 0; i < vector.count; i += 32) {
+            System.arraycopy(vector.arrayFor(i), 0, ret, i, Math.min(32, vector.count - i));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a sequential {@link DoubleStream} of the elements in this list.
+     */
+    public DoubleStream doubleStream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the elements of this list that splits on leaf boundaries.
+     */
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new DoubleSpliterator(vector, 0, vector.count);
+    }
+
+    /**
+     * Performs {@code action} on each element of this list, in order.
+     */
+    public void forEachDouble(DoubleConsumer action) {
+        for (int i = 0; i < vector.count; i += 32) {
+            double[] leaf = (double[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                action.accept(leaf[j]);
+            }
+        }
+    }
+
+    /**
+     * Returns a transient version of this list in constant time.
+     */
+    public TransientDoubleList asTransient() {
+        return new TransientDoubleList(new PrimitiveVector.Transient(vector));
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public int size() {
+        return vector.count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return vector.count == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ClojureDoubleList) {
+            ClojureDoubleList other = (ClojureDoubleList) o;
+            if (other.vector.count != vector.count) return false;
+            for (int i = 0; i < vector.count; i += 32) {
+                double[] a = (double[]) vector.arrayFor(i);
+                double[] b = (double[]) other.vector.arrayFor(i);
+                int length = Math.min(32, vector.count - i);
+                for (int j = 0; j < length; j++) {
+                    if (Double.doubleToLongBits(a[j]) != Double.doubleToLongBits(b[j])) return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < vector.count; i += 32) {
+            double[] leaf = (double[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                hash = 31 * hash + Double.hashCode(leaf[j]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #append} instead
+     */
+    @Override
+    @Deprecated
+    public boolean add(Double value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #append} instead
+     */
+    @Override
+    @Deprecated
+    public boolean addAll(Collection<? extends Double> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #assoc} instead
+     */
+    @Override
+    @Deprecated
+    public Double set(int index, Double element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public boolean removeIf(Predicate<? super Double> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void replaceAll(UnaryOperator<Double> operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void sort(Comparator<? super Double> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    static final class DoubleSpliterator extends PrimitiveVector.RangeSpliterator implements Spliterator.OfDouble {
+        DoubleSpliterator(PrimitiveVector vector, int index, int end) {
+            super(vector, index, end);
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            int mid = splitPoint();
+            if (mid < 0) return null;
+            Spliterator.OfDouble prefix = new DoubleSpliterator(vector, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (index >= end) return false;
+            action.accept(((double[]) vector.arrayFor(index))[index & 31]);
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            while (index < end) {
+                double[] leaf = (double[]) vector.arrayFor(index);
+                int stop = Math.min(end, (index | 31) + 1);
+                for (; index < stop; index++) {
+                    action.accept(leaf[index & 31]);
+                }
+            }
+        }
+    }
+}
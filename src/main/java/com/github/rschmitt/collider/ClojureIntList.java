@@ -0,0 +1,269 @@
+package com.github.rschmitt.collider;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A persistent immutable list of primitive {@code int}s. It offers the same three types of methods
+ * as {@link ClojureList}, but elements are stored unboxed in {@code int[]} leaves, and its
+ * primitive methods, such as {@link #getInt}, {@link #intStream} and {@link #sum}, never box. The
+ * methods inherited from {@link java.util.List} are supported, but box their elements.
+ */
+@Immutable
+public class ClojureIntList extends AbstractList<Integer> implements RandomAccess {
+    private static final ClojureIntList EMPTY = new ClojureIntList(PrimitiveVector.empty(int[]::new));
+
+    final PrimitiveVector vector;
+
+    ClojureIntList(PrimitiveVector vector) {
+        this.vector = vector;
+    }
+
+    static ClojureIntList empty() {
+        return EMPTY;
+    }
+
+    static ClojureIntList create(int... elements) {
+        TransientIntList ret = EMPTY.asTransient();
+        for (int element : elements) {
+            ret.append(element);
+        }
+        return ret.toPersistent();
+    }
+
+    /**
+     * Returns the element at position {@code index} in this list.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public int getInt(int index) {
+        return ((int[]) vector.arrayFor(index))[index & 31];
+    }
+
+    /**
+     * Returns a copy of this list with {@code value} appended.
+     */
+    public ClojureIntList append(int value) {
+        PrimitiveVector ret = vector.grow();
+        ((int[]) ret.tail)[vector.count & 31] = value;
+        return new ClojureIntList(ret);
+    }
+
+    /**
+     * Returns a copy of this list with the element at position {@code index} replaced by {@code
+     * value}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public ClojureIntList assoc(int index, int value) {
+        PrimitiveVector ret = vector.copyPath(index);
+        ((int[]) ret.arrayFor(index))[index & 31] = value;
+        return new ClojureIntList(ret);
+    }
+
+    /**
+     * Returns the sum of the elements in this list; as with {@link
+     * java.util.stream.IntStream#sum}, overflow is not detected.
+     */
+    public int sum() {
+        int sum = 0;
+        for (int i = 0; i < vector.count; i += 32) {
+            int[] leaf = (int[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                sum += leaf[j];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the elements of this list as a new {@code int[]}.
+     */
+    public int[] toIntArray() {
+        int[] ret = new int[vector.count];
+        for (int i = 0; i < vector.count; i += 32) {
+            System.arraycopy(vector.arrayFor(i), 0, ret, i, Math.min(32, vector.count - i));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a sequential {@link IntStream} of the elements in this list.
+     */
+    public IntStream intStream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the elements of this list that splits on leaf boundaries.
+     */
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return new IntSpliterator(vector, 0, vector.count);
+    }
+
+    /**
+     * Performs {@code action} on each element of this list, in order.
+     */
+    public void forEachInt(IntConsumer action) {
+        for (int i = 0; i < vector.count; i += 32) {
+            int[] leaf = (int[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                action.accept(leaf[j]);
+            }
+        }
+    }
+
+    /**
+     * Returns a transient version of this list in constant time.
+     */
+    public TransientIntList asTransient() {
+        return new TransientIntList(new PrimitiveVector.Transient(vector));
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public int size() {
+        return vector.count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return vector.count == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ClojureIntList) {
+            ClojureIntList other = (ClojureIntList) o;
+            if (other.vector.count != vector.count) return false;
+            for (int i = 0; i < vector.count; i += 32) {
+                int[] a = (int[]) vector.arrayFor(i);
+                int[] b = (int[]) other.vector.arrayFor(i);
+                int length = Math.min(32, vector.count - i);
+                for (int j = 0; j < length; j++) {
+                    if (a[j] != b[j]) return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < vector.count; i += 32) {
+            int[] leaf = (int[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                hash = 31 * hash + Integer.hashCode(leaf[j]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #append} instead
+     */
+    @Override
+    @Deprecated
+    public boolean add(Integer value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #append} instead
+     */
+    @Override
+    @Deprecated
+    public boolean addAll(Collection<? extends Integer> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #assoc} instead
+     */
+    @Override
+    @Deprecated
+    public Integer set(int index, Integer element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public boolean removeIf(Predicate<? super Integer> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void replaceAll(UnaryOperator<Integer> operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void sort(Comparator<? super Integer> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    static final class IntSpliterator extends PrimitiveVector.RangeSpliterator implements Spliterator.OfInt {
+        IntSpliterator(PrimitiveVector vector, int index, int end) {
+            super(vector, index, end);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int mid = splitPoint();
+            if (mid < 0) return null;
+            Spliterator.OfInt prefix = new IntSpliterator(vector, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= end) return false;
+            action.accept(((int[]) vector.arrayFor(index))[index & 31]);
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (index < end) {
+                int[] leaf = (int[]) vector.arrayFor(index);
+                int stop = Math.min(end, (index | 31) + 1);
+                for (; index < stop; index++) {
+                    action.accept(leaf[index & 31]);
+                }
+            }
+        }
+    }
+}
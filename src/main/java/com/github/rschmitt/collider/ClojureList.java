@@ -7,19 +7,26 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.concurrent.Immutable;
 
+import com.github.rschmitt.collider.Metrics.Operation;
+
 import clojure.lang.IEditableCollection;
 import clojure.lang.IPersistentVector;
 import clojure.lang.ITransientCollection;
 import clojure.lang.ITransientVector;
 import clojure.lang.PersistentVector;
+import clojure.lang.VectorTries;
 
 import static com.github.rschmitt.collider.Collider.toClojureList;
 
@@ -44,7 +51,17 @@ public class ClojureList<T> implements List<T> {
 
     @SafeVarargs
     static <T> ClojureList<T> create(T... ts) {
-        return create(PersistentVector.create(ts));
+        return create(Backend.defaultBackend(), ts);
+    }
+
+    private static <T> ClojureList<T> create(Backend backend, T[] ts) {
+        IPersistentVector empty = backend.emptyList();
+        if (ts.length == 0) return wrap(empty);
+        ITransientCollection ret = ((IEditableCollection) empty).asTransient();
+        for (T t : ts) {
+            ret = ret.conj(t);
+        }
+        return wrap((IPersistentVector) ret.persistent());
     }
 
     static <T> ClojureList<T> wrap(IPersistentVector vector) {
@@ -67,18 +84,54 @@ public class ClojureList<T> implements List<T> {
         return ClojureList.create(((IPersistentVector) delegate).cons(t));
     }
 
+    /**
+     * Returns a copy of this list with the elements of {@code other} appended, in order. When both
+     * lists are backed by {@link PersistentVector}s, the result shares the tree structure of both
+     * lists rather than appending each element of {@code other} individually.
+     */
+    @SuppressWarnings("unchecked")
+    public ClojureList<T> concat(ClojureList<? extends T> other) {
+        if (delegate instanceof PersistentVector && other.delegate instanceof PersistentVector) {
+            return ClojureList.create(VectorTries.concat((PersistentVector) delegate, (PersistentVector) other.delegate));
+        }
+        TransientList<T> ret;
+        if (delegate instanceof IEditableCollection) {
+            ret = asTransient();
+        } else {
+            ret = new TransientList<>(Backends.of((IPersistentVector) delegate));
+            ret.appendAll(this);
+        }
+        ret.appendAll(other);
+        return ret.toPersistent();
+    }
+
+    /**
+     * Returns a lazy {@link Pipeline} over the elements of this list. Unlike chaining calls to
+     * {@link #map} and {@link #filter}, which build a new list at every step, the stages of a
+     * pipeline are fused into a single pass when it is run.
+     */
+    public Pipeline<T> pipeline() {
+        return Pipeline.of(this::spliterator, Backends.of((IPersistentVector) delegate));
+    }
+
     /**
      * Maps {@code f} over the elements in this list, returning a new list containing the result.
      */
     public <U> ClojureList<U> map(Function<? super T, ? extends U> f) {
-        return stream().map(f).collect(toClojureList());
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.BULK_REBUILD, "ClojureList.map") : null;
+        ClojureList<U> ret = stream().map(f).collect(toClojureList());
+        if (Events.ENABLED) span.end(size(), ret.size());
+        return ret;
     }
 
     /**
      * Returns a new list containing only the elements in this list matching {@code p}.
      */
     public ClojureList<T> filter(Predicate<? super T> p) {
-        return stream().filter(p).collect(toClojureList());
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.BULK_REBUILD, "ClojureList.filter") : null;
+        ClojureList<T> ret = stream().filter(p).collect(toClojureList());
+        if (Events.ENABLED) span.end(size(), ret.size());
+        return ret;
     }
 
     /**
@@ -104,9 +157,59 @@ public class ClojureList<T> implements List<T> {
         return new TransientList<>((ITransientVector) asTransient);
     }
 
+    /**
+     * Reduces this list in parallel, in the manner of Clojure's {@code
+     * clojure.core.reducers/fold}, using the common {@link ForkJoinPool}. The list is split
+     * along the boundaries of its underlying trie into pieces of roughly {@code
+     * parallelismThreshold} elements or fewer; each piece is reduced sequentially with {@code
+     * reduceFn}, starting from {@code identity}, and the results are combined with {@code
+     * combineFn}.
+     * <p/>
+     * {@code identity} must be an identity for {@code combineFn}, which must be associative. The
+     * splits depend only on the contents of the list and on the threshold, so the result is
+     * the same on every run.
+     *
+     * @throws IllegalArgumentException if {@code parallelismThreshold} is not positive
+     */
+    public <R> R fold(R identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn, int parallelismThreshold) {
+        return fold(identity, combineFn, reduceFn, parallelismThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reduces this list in parallel as described in {@link #fold(Object, BinaryOperator, BiFunction,
+     * int)}, using {@code pool} to run the work.
+     */
+    public <R> R fold(R identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn, int parallelismThreshold, ForkJoinPool pool) {
+        return Fold.fold(spliterator(), Fold.reducing(identity, reduceFn), combineFn, parallelismThreshold, pool);
+    }
+
+    /**
+     * Returns a spliterator over this list. For lists backed by a {@link PersistentVector}, it
+     * splits along the boundaries of the vector's 32-element leaves and reads each leaf array
+     * directly, so parallel streams divide the work evenly.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<T> spliterator() {
+        if (!(delegate instanceof IPersistentVector)) return delegate.spliterator();
+        Spliterator<Object> ret = VectorTries.spliterator((IPersistentVector) delegate);
+        if (ret == null) return delegate.spliterator();
+        return (Spliterator<T>) ret;
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public ClojureList<T> subList(int fromIndex, int toIndex) {
-        return wrap((IPersistentVector) delegate.subList(fromIndex, toIndex));
+        return wrap(VectorTries.subvec((IPersistentVector) delegate, fromIndex, toIndex));
     }
 
     ////////////////////////////////
@@ -188,21 +291,6 @@ public class ClojureList<T> implements List<T> {
         return delegate.listIterator(index);
     }
 
-    @Override
-    public Spliterator<T> spliterator() {
-        return delegate.spliterator();
-    }
-
-    @Override
-    public Stream<T> stream() {
-        return delegate.stream();
-    }
-
-    @Override
-    public Stream<T> parallelStream() {
-        return delegate.parallelStream();
-    }
-
     @Override
     public void forEach(Consumer<? super T> action) {
         delegate.forEach(action);
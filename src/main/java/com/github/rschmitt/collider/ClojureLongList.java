@@ -0,0 +1,269 @@
+package com.github.rschmitt.collider;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A persistent immutable list of primitive {@code long}s. It offers the same three types of methods
+ * as {@link ClojureList}, but elements are stored unboxed in {@code long[]} leaves, and its
+ * primitive methods, such as {@link #getLong}, {@link #longStream} and {@link #sum}, never box. The
+ * methods inherited from {@link java.util.List} are supported, but box their elements.
+ */
+@Immutable
+public class ClojureLongList extends AbstractList<Long> implements RandomAccess {
+    private static final ClojureLongList EMPTY = new ClojureLongList(PrimitiveVector.empty(long[]::new));
+
+    final PrimitiveVector vector;
+
+    ClojureLongList(PrimitiveVector vector) {
+        this.vector = vector;
+    }
+
+    static ClojureLongList empty() {
+        return EMPTY;
+    }
+
+    static ClojureLongList create(long... elements) {
+        TransientLongList ret = EMPTY.asTransient();
+        for (long element : elements) {
+            ret.append(element);
+        }
+        return ret.toPersistent();
+    }
+
+    /**
+     * Returns the element at position {@code index} in this list.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public long getLong(int index) {
+        return ((long[]) vector.arrayFor(index))[index & 31];
+    }
+
+    /**
+     * Returns a copy of this list with {@code value} appended.
+     */
+    public ClojureLongList append(long value) {
+        PrimitiveVector ret = vector.grow();
+        ((long[]) ret.tail)[vector.count & 31] = value;
+        return new ClojureLongList(ret);
+    }
+
+    /**
+     * Returns a copy of this list with the element at position {@code index} replaced by {@code
+     * value}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public ClojureLongList assoc(int index, long value) {
+        PrimitiveVector ret = vector.copyPath(index);
+        ((long[]) ret.arrayFor(index))[index & 31] = value;
+        return new ClojureLongList(ret);
+    }
+
+    /**
+     * Returns the sum of the elements in this list; as with {@link
+     * java.util.stream.LongStream#sum}, overflow is not detected.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < vector.count; i += 32) {
+            long[] leaf = (long[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                sum += leaf[j];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the elements of this list as a new {@code long[]}.
+     */
+    public long[] toLongArray() {
+        long[] ret = new long[vector.count];
+        for (int i = 0; i < vector.count; i += 32) {
+            System.arraycopy(vector.arrayFor(i), 0, ret, i, Math.min(32, vector.count - i));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a sequential {@link LongStream} of the elements in this list.
+     */
+    public LongStream longStream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the elements of this list that splits on leaf boundaries.
+     */
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return new LongSpliterator(vector, 0, vector.count);
+    }
+
+    /**
+     * Performs {@code action} on each element of this list, in order.
+     */
+    public void forEachLong(LongConsumer action) {
+        for (int i = 0; i < vector.count; i += 32) {
+            long[] leaf = (long[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                action.accept(leaf[j]);
+            }
+        }
+    }
+
+    /**
+     * Returns a transient version of this list in constant time.
+     */
+    public TransientLongList asTransient() {
+        return new TransientLongList(new PrimitiveVector.Transient(vector));
+    }
+
+    @Override
+    public Long get(int index) {
+        return getLong(index);
+    }
+
+    @Override
+    public int size() {
+        return vector.count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return vector.count == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ClojureLongList) {
+            ClojureLongList other = (ClojureLongList) o;
+            if (other.vector.count != vector.count) return false;
+            for (int i = 0; i < vector.count; i += 32) {
+                long[] a = (long[]) vector.arrayFor(i);
+                long[] b = (long[]) other.vector.arrayFor(i);
+                int length = Math.min(32, vector.count - i);
+                for (int j = 0; j < length; j++) {
+                    if (a[j] != b[j]) return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < vector.count; i += 32) {
+            long[] leaf = (long[]) vector.arrayFor(i);
+            int length = Math.min(32, vector.count - i);
+            for (int j = 0; j < length; j++) {
+                hash = 31 * hash + Long.hashCode(leaf[j]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #append} instead
+     */
+    @Override
+    @Deprecated
+    public boolean add(Long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #append} instead
+     */
+    @Override
+    @Deprecated
+    public boolean addAll(Collection<? extends Long> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #assoc} instead
+     */
+    @Override
+    @Deprecated
+    public Long set(int index, Long element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public boolean removeIf(Predicate<? super Long> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void replaceAll(UnaryOperator<Long> operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void sort(Comparator<? super Long> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    static final class LongSpliterator extends PrimitiveVector.RangeSpliterator implements Spliterator.OfLong {
+        LongSpliterator(PrimitiveVector vector, int index, int end) {
+            super(vector, index, end);
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            int mid = splitPoint();
+            if (mid < 0) return null;
+            Spliterator.OfLong prefix = new LongSpliterator(vector, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index >= end) return false;
+            action.accept(((long[]) vector.arrayFor(index))[index & 31]);
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            while (index < end) {
+                long[] leaf = (long[]) vector.arrayFor(index);
+                int stop = Math.min(end, (index | 31) + 1);
+                for (; index < stop; index++) {
+                    action.accept(leaf[index & 31]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.rschmitt.collider;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.github.rschmitt.collider.LongTrie.Delta;
+import com.github.rschmitt.collider.LongTrie.Leaf;
+import com.github.rschmitt.collider.LongTrie.LeafIterator;
+import com.github.rschmitt.collider.LongTrie.Node;
+
+/**
+ * A persistent immutable Map keyed by primitive longs. It offers the same three types of methods
+ * as {@link ClojureMap}, but its primitive read and "modification" methods, such as {@link
+ * #get(long)} and {@link #assoc(long, Object)}, never box their keys, and reads allocate nothing.
+ * <p/>
+ * Entries are stored in a big-endian Patricia trie, so a key costs eight bytes rather than a
+ * {@link Long} object, and iteration is in ascending key order. The methods inherited from {@link
+ * Map} are supported, but box their keys.
+ */
+@Immutable
+public class ClojureLongMap<V> extends AbstractMap<Long, V> {
+    private static final ClojureLongMap<?> EMPTY = new ClojureLongMap<>(null, 0);
+    private static final Object NOT_FOUND = new Object();
+
+    final Node root;
+    private final int count;
+
+    ClojureLongMap(Node root, int count) {
+        this.root = root;
+        this.count = count;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> ClojureLongMap<V> empty() {
+        return (ClojureLongMap<V>) EMPTY;
+    }
+
+    /**
+     * Returns the value associated with {@code key}, or {@code null} if none exists.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        return (V) LongTrie.get(root, LongTrie.toTrieKey(key), null);
+    }
+
+    /**
+     * Returns the value associated with {@code key}, or {@code defaultValue} if none exists.
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        return (V) LongTrie.get(root, LongTrie.toTrieKey(key), defaultValue);
+    }
+
+    /**
+     * Returns whether this map contains a mapping for {@code key}.
+     */
+    public boolean containsKey(long key) {
+        return LongTrie.get(root, LongTrie.toTrieKey(key), NOT_FOUND) != NOT_FOUND;
+    }
+
+    /**
+     * Returns a copy of this map which also contains a mapping from {@code key} to {@code value}.
+     * If a mapping for {@code key} already exists in the current map, it will be overwritten.
+     */
+    public ClojureLongMap<V> assoc(long key, V value) {
+        Delta delta = new Delta();
+        Node root = LongTrie.assoc(this.root, LongTrie.toTrieKey(key), value, null, null, delta);
+        if (root == this.root) return this;
+        return new ClojureLongMap<>(root, count + delta.size);
+    }
+
+    /**
+     * Returns a copy of this map without a mapping for {@code key}.
+     */
+    public ClojureLongMap<V> dissoc(long key) {
+        Delta delta = new Delta();
+        Node root = LongTrie.without(this.root, LongTrie.toTrieKey(key), null, delta);
+        if (root == this.root) return this;
+        return new ClojureLongMap<>(root, count + delta.size);
+    }
+
+    /**
+     * Returns a transient version of this map in constant time.
+     */
+    public TransientLongMap<V> asTransient() {
+        return new TransientLongMap<>(root, count);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey((long) (Long) key);
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long ? get((long) (Long) key) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        return key instanceof Long ? getOrDefault((long) (Long) key, defaultValue) : defaultValue;
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return new AbstractSet<Entry<Long, V>>() {
+            @Override
+            public Iterator<Entry<Long, V>> iterator() {
+                LeafIterator leaves = new LeafIterator(root);
+                return new Iterator<Entry<Long, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return leaves.hasNext();
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<Long, V> next() {
+                        Leaf leaf = leaves.next();
+                        return new SimpleImmutableEntry<>(LongTrie.fromTrieKey(leaf.key), (V) leaf.value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Long, ? super V> action) {
+        for (LeafIterator leaves = new LeafIterator(root); leaves.hasNext(); ) {
+            Leaf leaf = leaves.next();
+            action.accept(LongTrie.fromTrieKey(leaf.key), (V) leaf.value);
+        }
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #assoc} instead
+     */
+    @Override
+    @Deprecated
+    public V put(Long key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #dissoc} instead
+     */
+    @Override
+    @Deprecated
+    public V remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void putAll(Map<? extends Long, ? extends V> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link Collider#clojureLongMap()} instead
+     */
+    @Override
+    @Deprecated
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+}
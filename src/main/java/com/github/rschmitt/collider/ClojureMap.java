@@ -1,26 +1,37 @@
 package com.github.rschmitt.collider;
 
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import javax.annotation.concurrent.Immutable;
 
-import clojure.lang.Associative;
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import clojure.lang.CompactMap;
+import clojure.lang.HashTries;
 import clojure.lang.IEditableCollection;
 import clojure.lang.IPersistentMap;
-import clojure.lang.ITransientCollection;
 import clojure.lang.ITransientMap;
-import clojure.lang.PersistentHashMap;
-import clojure.lang.RT;
+import clojure.lang.PersistentArrayMap;
+import clojure.lang.Sorted;
 
-import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.groupingToClojureMap;
 
 /**
  * A generic persistent immutable Map implementation, with three types of methods:
@@ -34,11 +45,28 @@ import static com.github.rschmitt.collider.Collider.toClojureMap;
  */
 @Immutable
 public class ClojureMap<K, V> implements Map<K, V> {
+    private static final Object NOT_FOUND = new Object();
+
     private final Map<K, V> delegate;
 
-    @SuppressWarnings("unchecked")
+    // Views are created on first use. Since they are immutable, racing threads may each create
+    // one without harm.
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+
     static <K, V> ClojureMap<K, V> create(Object... init) {
-        return (ClojureMap<K, V>) create(PersistentHashMap.create(init));
+        return create(Backend.defaultBackend(), init);
+    }
+
+    private static <K, V> ClojureMap<K, V> create(Backend backend, Object[] init) {
+        IPersistentMap empty = backend.emptyMap();
+        if (init.length == 0) return wrap(empty);
+        ITransientMap ret = (ITransientMap) ((IEditableCollection) empty).asTransient();
+        for (int i = 0; i < init.length; i += 2) {
+            ret = ret.assoc(init[i], init[i + 1]);
+        }
+        return wrap(ret.persistent());
     }
 
     @SuppressWarnings("unchecked")
@@ -64,19 +92,158 @@ public class ClojureMap<K, V> implements Map<K, V> {
      * Returns a copy of this map which also contains a mapping from {@code key} to {@code value}.
      * If a mapping for {@code key} already exists in the current map, it will be overwritten.
      */
-    @SuppressWarnings("unchecked")
     public ClojureMap<K, V> assoc(K key, V value) {
-        Associative assoc = RT.assoc(delegate, key, value);
-        return ClojureMap.create((Map<K, V>) assoc);
+        return ClojureMap.wrap(((IPersistentMap) delegate).assoc(key, value));
     }
 
     /**
      * Returns a copy of this map without a mapping for {@code key}.
      */
-    @SuppressWarnings("unchecked")
     public ClojureMap<K, V> dissoc(K key) {
-        Object dissoc = RT.dissoc(delegate, key);
-        return ClojureMap.create((Map<K, V>) dissoc);
+        IPersistentMap ret = ((IPersistentMap) delegate).without(key);
+        if (ret == delegate) return this;
+        return ClojureMap.wrap(ret);
+    }
+
+    /**
+     * Returns a copy of this map which also contains every mapping in {@code map}, overwriting any
+     * existing mappings for the same keys. All of the changes are applied in a single transient
+     * edit, so no intermediate versions of this map are created.
+     */
+    @SuppressWarnings("unchecked")
+    public ClojureMap<K, V> assocAll(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty()) return this;
+        if (map instanceof ClojureMap) return merge((ClojureMap<K, V>) map);
+        TransientMap<K, V> ret = asTransient();
+        ret.putAll(map);
+        return ret.toPersistent();
+    }
+
+    /**
+     * Returns a copy of this map without mappings for any of {@code keys}. All of the changes are
+     * applied in a single transient edit, so no intermediate versions of this map are created. If
+     * none of {@code keys} are present, this map is returned.
+     */
+    public ClojureMap<K, V> dissocAll(Collection<? extends K> keys) {
+        if (keys.isEmpty()) return this;
+        TransientMap<K, V> ret = asTransient();
+        for (K key : keys) {
+            ret.remove(key);
+        }
+        if (ret.size() == size()) return this;
+        return ret.toPersistent();
+    }
+
+    /**
+     * Returns a copy of this map that only contains mappings for keys in {@code keys}.
+     */
+    @SuppressWarnings("unchecked")
+    public ClojureMap<K, V> selectKeys(Set<? extends K> keys) {
+        if (keys.size() >= size()) return filterKeys(keys::contains);
+        IPersistentMap map = (IPersistentMap) delegate;
+        TransientMap<K, V> ret = new TransientMap<>(Backends.of(map), keys.size());
+        for (K key : keys) {
+            Object value = map.valAt(key, NOT_FOUND);
+            if (value != NOT_FOUND) ret.put(key, (V) value);
+        }
+        return ret.toPersistent();
+    }
+
+    /**
+     * Returns a copy of this nested map in which the value at {@code path} is {@code value}. Each
+     * element of {@code path} is a key into the map at the corresponding level; missing levels are
+     * created as empty ClojureMaps with the same backend as this one. Only the maps along {@code
+     * path} are copied.
+     *
+     * @throws IllegalArgumentException if {@code path} is empty, or if a value along {@code path}
+     *                                  is neither null nor a persistent map
+     */
+    public ClojureMap<K, V> assocIn(List<?> path, Object value) {
+        return updateIn(path, x -> value);
+    }
+
+    /**
+     * Returns a copy of this nested map in which the value at {@code path} has been replaced with
+     * the result of applying {@code f} to it, or to {@code null} if there is no value at {@code
+     * path}. Missing levels are created as empty ClojureMaps with the same backend as this one, and
+     * only the maps along {@code path} are copied. If {@code f} returns the current value, this map
+     * is returned.
+     *
+     * @throws IllegalArgumentException if {@code path} is empty, or if a value along {@code path}
+     *                                  is neither null nor a persistent map
+     */
+    @SuppressWarnings("unchecked")
+    public ClojureMap<K, V> updateIn(List<?> path, Function<Object, ?> f) {
+        if (path.isEmpty()) throw new IllegalArgumentException("Path must not be empty");
+        return (ClojureMap<K, V>) updateIn(Backends.of((IPersistentMap) delegate), this, path, 0, f);
+    }
+
+    private static Object updateIn(Backend backend, Object node, List<?> path, int depth, Function<Object, ?> f) {
+        IPersistentMap map = asPersistentMap(backend, node, path, depth);
+        Object key = path.get(depth);
+        Object child = map.valAt(key, NOT_FOUND);
+        Object current = child == NOT_FOUND ? null : child;
+        Object updated = depth == path.size() - 1 ? f.apply(current) : updateIn(backend, current, path, depth + 1, f);
+        if (updated == child) return node;
+        return rewrap(node, map.assoc(key, updated));
+    }
+
+    /**
+     * Returns a copy of this nested map with every edit in {@code edits} applied, as if by calling
+     * {@link #assocIn} once per entry in the iteration order of {@code edits}. Edits that share a
+     * prefix are applied together: each map along a shared prefix is copied only once, and all of
+     * the changes to it are made in a single transient edit.
+     *
+     * @throws IllegalArgumentException if any path is empty, or if a value along any path is
+     *                                  neither null nor a persistent map
+     */
+    @SuppressWarnings("unchecked")
+    public ClojureMap<K, V> assocInAll(Map<? extends List<?>, ?> edits) {
+        if (edits.isEmpty()) return this;
+        List<Entry<? extends List<?>, ?>> list = new ArrayList<>(edits.entrySet());
+        for (Entry<? extends List<?>, ?> edit : list) {
+            if (edit.getKey().isEmpty()) throw new IllegalArgumentException("Path must not be empty");
+        }
+        return (ClojureMap<K, V>) assocInAll(Backends.of((IPersistentMap) delegate), this, list, 0);
+    }
+
+    private static Object assocInAll(Backend backend, Object node, List<Entry<? extends List<?>, ?>> edits, int depth) {
+        IPersistentMap map = asPersistentMap(backend, node, edits.get(0).getKey(), depth);
+        ClojureMap<Object, ClojureList<Entry<? extends List<?>, ?>>> groups = edits.stream()
+                .collect(groupingToClojureMap(edit -> edit.getKey().get(depth)));
+
+        TransientMap<Object, Object> ret = ClojureMap.wrap(map).asTransient();
+        for (Entry<Object, ClojureList<Entry<? extends List<?>, ?>>> group : groups.entrySet()) {
+            Object value = map.valAt(group.getKey());
+            List<Entry<? extends List<?>, ?>> nested = new ArrayList<>();
+            for (Entry<? extends List<?>, ?> edit : group.getValue()) {
+                if (edit.getKey().size() > depth + 1) {
+                    nested.add(edit);
+                    continue;
+                }
+                nested.clear();
+                value = edit.getValue();
+            }
+            if (!nested.isEmpty()) value = assocInAll(backend, value, nested, depth + 1);
+            ret.put(group.getKey(), value);
+        }
+        return rewrap(node, (IPersistentMap) ret.toPersistent().delegate);
+    }
+
+    private static IPersistentMap asPersistentMap(Backend backend, Object node, List<?> path, int depth) {
+        if (node == null) return backend.emptyMap(0);
+        if (node instanceof ClojureMap) return (IPersistentMap) ((ClojureMap<?, ?>) node).delegate;
+        if (node instanceof IPersistentMap) return (IPersistentMap) node;
+        throw new IllegalArgumentException("Expected a map at " + path.subList(0, depth) + ", but found " + node.getClass().getName());
+    }
+
+    /**
+     * Returns {@code map} as the same kind of object as {@code node}: a raw persistent map if
+     * {@code node} was one, and a ClojureMap otherwise.
+     */
+    private static Object rewrap(Object node, IPersistentMap map) {
+        if (node instanceof IPersistentMap) return map;
+        return ClojureMap.wrap(map);
     }
 
     /**
@@ -88,14 +255,36 @@ public class ClojureMap<K, V> implements Map<K, V> {
     public final ClojureMap<K, V> merge(ClojureMap<K, V>... maps) {
         if (maps.length == 0) return this;
         if (Stream.of(maps).allMatch(Map::isEmpty)) return this;
-        if (isEmpty() && maps.length == 1) return maps[0];
-        TransientMap<K, V> ret = asTransient();
+        if (isEmpty() && maps.length == 1 && HashTries.sameKind(delegate, maps[0].delegate)) return maps[0];
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.MAP_MERGE, "ClojureMap.merge") : null;
+        IPersistentMap ret = (IPersistentMap) delegate;
+        long inputSize = 0;
         for (ClojureMap<K, V> map : maps) {
-            for (Entry<K, V> entry : map.entrySet()) {
-                ret.put(entry.getKey(), entry.getValue());
-            }
+            if (Events.ENABLED) inputSize += map.size();
+            ret = HashTries.merge(ret, (IPersistentMap) map.delegate);
         }
-        return ret.toPersistent();
+        if (Events.ENABLED) span.end(inputSize, ret.count());
+        return ret == delegate ? this : ClojureMap.wrap(ret);
+    }
+
+    /**
+     * Returns a map that consists of all bindings from the current map, as well as {@code maps}.
+     * If a key occurs in more than one map, the values are combined from left to right with {@code
+     * f}, which is called with the value accumulated so far and the value from the next map that
+     * contains the key.
+     */
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public final ClojureMap<K, V> mergeWith(BiFunction<? super V, ? super V, ? extends V> f, ClojureMap<K, V>... maps) {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.MAP_MERGE, "ClojureMap.mergeWith") : null;
+        IPersistentMap ret = (IPersistentMap) delegate;
+        long inputSize = 0;
+        for (ClojureMap<K, V> map : maps) {
+            if (Events.ENABLED) inputSize += map.size();
+            ret = HashTries.merge(ret, (IPersistentMap) map.delegate, (a, b) -> f.apply((V) a, (V) b));
+        }
+        if (Events.ENABLED) span.end(inputSize, ret.count());
+        return ret == delegate ? this : ClojureMap.wrap(ret);
     }
 
     /**
@@ -106,12 +295,39 @@ public class ClojureMap<K, V> implements Map<K, V> {
     }
 
     /**
-     * Returns a transient version of this map in constant time.
+     * Returns a transient version of this map in constant time, or in linear time if this map is
+     * {@link #compact compact}.
      */
     public TransientMap<K, V> asTransient() {
-        IEditableCollection asEditable = (IEditableCollection) delegate;
-        ITransientCollection asTransient = asEditable.asTransient();
-        return new TransientMap<>((ITransientMap) asTransient);
+        return new TransientMap<>(HashTries.asTransient((IPersistentMap) delegate));
+    }
+
+    /**
+     * Returns a read-only snapshot of this map, stored in a single open-addressed hash table
+     * rather than a trie. A compact map takes less memory and answers {@link #get} faster, which
+     * suits large maps that are built once and then only read, such as lookup tables.
+     * <p/>
+     * A compact map supports every operation, but it is not persistent in the usual sense: the
+     * first modification of it, including {@link #asTransient}, copies all of its entries back
+     * into a map of the kind this one is, which takes linear time. Later modifications reuse that
+     * copy for as long as the garbage collector leaves it alone, and the compact map takes the
+     * memory of both in the meantime. Modifications that would not change the map (such as
+     * assoc'ing a key to the value it already has) return it unchanged.
+     * <p/>
+     * If this map is already compact, small, or sorted, it is returned as-is.
+     */
+    public ClojureMap<K, V> compact() {
+        if (delegate instanceof CompactMap || delegate instanceof PersistentArrayMap || delegate instanceof Sorted) return this;
+        return ClojureMap.wrap(CompactMap.create((IPersistentMap) delegate));
+    }
+
+    /**
+     * Returns a lazy {@link Pipeline} over the entries of this map. Unlike chaining calls to
+     * {@link #mapValues} and {@link #filter}, which build a new map at every step, the stages of a
+     * pipeline are fused into a single pass when it is run.
+     */
+    public Pipeline<Entry<K, V>> pipeline() {
+        return Pipeline.of(entrySet()::spliterator, Backends.of((IPersistentMap) delegate));
     }
 
     /**
@@ -119,28 +335,56 @@ public class ClojureMap<K, V> implements Map<K, V> {
      * {@code f} produces collisions, the result is undefined.
      */
     public <R> ClojureMap<R, V> mapKeys(Function<? super K, ? extends R> f) {
-        return entrySet().stream().collect(toClojureMap(e -> f.apply(e.getKey()), Entry::getValue));
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.BULK_REBUILD, "ClojureMap.mapKeys") : null;
+        TransientMap<R, V> tr = new TransientMap<>(Backends.of((IPersistentMap) delegate), size());
+        forEach((k, v) -> tr.put(f.apply(k), v));
+        ClojureMap<R, V> ret = tr.toPersistent();
+        if (Events.ENABLED) span.end(size(), ret.size());
+        return ret;
     }
 
     /**
-     * Maps {@code f} over the values in this map, returning a new map containing the result.
+     * Maps {@code f} over the values in this map, returning a new map containing the result. The
+     * new map has the same shape as this one and shares every part of it whose values are
+     * unchanged; if {@code f} returns every value unchanged, this map is returned.
      */
+    @SuppressWarnings("unchecked")
     public <R> ClojureMap<K, R> mapValues(Function<? super V, ? extends R> f) {
-        return entrySet().stream().collect(toClojureMap(Entry::getKey, e -> f.apply(e.getValue())));
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.BULK_REBUILD, "ClojureMap.mapValues") : null;
+        IPersistentMap map = (IPersistentMap) delegate;
+        IPersistentMap ret = HashTries.mapValues(map, v -> f.apply((V) v));
+        if (Events.ENABLED) span.end(map.count(), ret.count());
+        if (ret == map) return (ClojureMap<K, R>) this;
+        return ClojureMap.wrap(ret);
     }
 
     /**
-     * Returns a new map containing only the mappings whose keys match {@code p}.
+     * Returns a new map containing only the mappings whose keys match {@code p}. The new map shares
+     * every part of this one that contains no removed mappings; if nothing is removed, this map is
+     * returned.
      */
+    @SuppressWarnings("unchecked")
     public ClojureMap<K, V> filterKeys(Predicate<? super K> p) {
-        return entrySet().stream().filter(e -> p.test(e.getKey())).collect(toClojureMap(Entry::getKey, Entry::getValue));
+        return filter((k, v) -> p.test((K) k));
     }
 
     /**
-     * Returns a new map containing only the mappings whose values match {@code p}.
+     * Returns a new map containing only the mappings whose values match {@code p}. The new map
+     * shares every part of this one that contains no removed mappings; if nothing is removed, this
+     * map is returned.
      */
+    @SuppressWarnings("unchecked")
     public ClojureMap<K, V> filterValues(Predicate<? super V> p) {
-        return entrySet().stream().filter(e -> p.test(e.getValue())).collect(toClojureMap(Entry::getKey, Entry::getValue));
+        return filter((k, v) -> p.test((V) v));
+    }
+
+    private ClojureMap<K, V> filter(BiPredicate<Object, Object> p) {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.BULK_REBUILD, "ClojureMap.filter") : null;
+        IPersistentMap map = (IPersistentMap) delegate;
+        IPersistentMap ret = HashTries.filter(map, p);
+        if (Events.ENABLED) span.end(map.count(), ret.count());
+        if (ret == map) return this;
+        return ClojureMap.wrap(ret);
     }
 
     /**
@@ -157,6 +401,59 @@ public class ClojureMap<K, V> implements Map<K, V> {
         return filterValues(p.negate());
     }
 
+    /**
+     * Folds every mapping of this map into a result, starting from {@code init}, in no particular
+     * order. The traversal walks the nodes of the underlying hash trie directly (as Clojure's
+     * {@code reduce-kv} does), so unlike iterating over {@link #entrySet}, it does not allocate an
+     * entry for each mapping.
+     */
+    public <R> R reduce(R init, MapReducer<R, ? super K, ? super V> f) {
+        Object[] acc = {init};
+        HashTries.forEachRemaining(entrySpliterator(), (k, v) -> acc[0] = f.apply(Fold.<R>cast(acc[0]), Fold.cast(k), Fold.cast(v)));
+        return Fold.cast(acc[0]);
+    }
+
+    /**
+     * Returns a spliterator over the entries of this map that splits along trie nodes, and from
+     * which {@link HashTries#forEachRemaining} can read keys and values without allocating
+     * entries.
+     */
+    private Spliterator<Object> entrySpliterator() {
+        Spliterator<Object> entries = HashTries.entrySpliterator((IPersistentMap) delegate);
+        return entries != null ? entries : Fold.cast(delegate.entrySet().spliterator());
+    }
+
+    /**
+     * Reduces this map in parallel, in the manner of Clojure's {@code
+     * clojure.core.reducers/fold}, using the common {@link ForkJoinPool}. The map is split
+     * along the boundaries of its underlying trie into pieces of roughly {@code
+     * parallelismThreshold} entries or fewer; each piece is reduced sequentially with {@code
+     * reduceFn}, starting from {@code identity}, and the results are combined with {@code
+     * combineFn}.
+     * <p/>
+     * {@code identity} must be an identity for {@code combineFn}, which must be associative. The
+     * splits depend only on the contents of the map and on the threshold, so the result is
+     * the same on every run.
+     *
+     * @throws IllegalArgumentException if {@code parallelismThreshold} is not positive
+     */
+    public <R> R fold(R identity, BinaryOperator<R> combineFn, MapReducer<R, ? super K, ? super V> reduceFn, int parallelismThreshold) {
+        return fold(identity, combineFn, reduceFn, parallelismThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reduces this map in parallel as described in {@link #fold(Object, BinaryOperator, MapReducer,
+     * int)}, using {@code pool} to run the work.
+     */
+    public <R> R fold(R identity, BinaryOperator<R> combineFn, MapReducer<R, ? super K, ? super V> reduceFn, int parallelismThreshold, ForkJoinPool pool) {
+        Function<Spliterator<Object>, R> reducer = spliterator -> {
+            Object[] acc = {identity};
+            HashTries.forEachRemaining(spliterator, (k, v) -> acc[0] = reduceFn.apply(Fold.<R>cast(acc[0]), Fold.cast(k), Fold.cast(v)));
+            return Fold.cast(acc[0]);
+        };
+        return Fold.fold(entrySpliterator(), reducer, combineFn, parallelismThreshold, pool);
+    }
+
     ////////////////////////////////
     // Mindless delegation goes here
     ////////////////////////////////
@@ -186,19 +483,38 @@ public class ClojureMap<K, V> implements Map<K, V> {
         return delegate.get(key);
     }
 
+    /**
+     * Returns a read-only view of the keys of this map. Its spliterator splits along the nodes of
+     * the underlying hash trie and reads keys straight out of them, without allocating an entry
+     * for each one.
+     */
     @Override
     public Set<K> keySet() {
-        return delegate.keySet();
+        Set<K> keySet = this.keySet;
+        if (keySet == null) this.keySet = keySet = new SetView<>(delegate.keySet(), HashTries::keySpliterator);
+        return keySet;
     }
 
+    /**
+     * Returns a read-only view of the values of this map. Like {@link #keySet}, its spliterator
+     * splits along trie nodes and does not allocate an entry for each value.
+     */
     @Override
     public Collection<V> values() {
-        return delegate.values();
+        Collection<V> values = this.values;
+        if (values == null) this.values = values = new ValuesView<>(delegate.values(), HashTries::valueSpliterator);
+        return values;
     }
 
+    /**
+     * Returns a read-only view of the entries of this map. Its spliterator splits along the nodes
+     * of the underlying hash trie, so parallel streams divide the work evenly.
+     */
     @Override
     public Set<Entry<K, V>> entrySet() {
-        return delegate.entrySet();
+        Set<Entry<K, V>> entrySet = this.entrySet;
+        if (entrySet == null) this.entrySet = entrySet = new SetView<>(delegate.entrySet(), HashTries::entrySpliterator);
+        return entrySet;
     }
 
     @Override
@@ -223,7 +539,7 @@ public class ClojureMap<K, V> implements Map<K, V> {
 
     @Override
     public void forEach(BiConsumer<? super K, ? super V> action) {
-        delegate.forEach(action);
+        HashTries.forEachRemaining(entrySpliterator(), (k, v) -> action.accept(Fold.cast(k), Fold.cast(v)));
     }
 
     /**
@@ -342,4 +658,77 @@ public class ClojureMap<K, V> implements Map<K, V> {
     public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
         return delegate.merge(key, value, remappingFunction);
     }
+
+    ////////////////////////////////
+    // Views
+    ////////////////////////////////
+
+    /**
+     * A set view of this map, such as its key set or entry set, that delegates everything to the
+     * corresponding view of the underlying Clojure map except for its spliterator.
+     */
+    private final class SetView<E> extends AbstractSet<E> {
+        private final Set<E> view;
+        private final Function<IPersistentMap, Spliterator<Object>> spliterator;
+
+        SetView(Set<E> view, Function<IPersistentMap, Spliterator<Object>> spliterator) {
+            this.view = view;
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return view.iterator();
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return view.contains(o);
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return split(view, spliterator);
+        }
+    }
+
+    /**
+     * The collection of values of this map, which is split the same way as a {@link SetView}.
+     */
+    private final class ValuesView<E> extends AbstractCollection<E> {
+        private final Collection<E> view;
+        private final Function<IPersistentMap, Spliterator<Object>> spliterator;
+
+        ValuesView(Collection<E> view, Function<IPersistentMap, Spliterator<Object>> spliterator) {
+            this.view = view;
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return view.iterator();
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return split(view, spliterator);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> Spliterator<E> split(Collection<E> view, Function<IPersistentMap, Spliterator<Object>> spliterator) {
+        Spliterator<Object> ret = delegate instanceof IPersistentMap ? spliterator.apply((IPersistentMap) delegate) : null;
+        if (ret == null) return view.spliterator();
+        return (Spliterator<E>) ret;
+    }
 }
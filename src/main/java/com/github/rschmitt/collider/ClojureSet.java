@@ -1,24 +1,31 @@
 package com.github.rschmitt.collider;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.concurrent.Immutable;
 
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import clojure.lang.CompactSet;
+import clojure.lang.HashTries;
 import clojure.lang.IEditableCollection;
 import clojure.lang.IPersistentSet;
 import clojure.lang.ITransientCollection;
 import clojure.lang.ITransientSet;
-import clojure.lang.PersistentHashSet;
-
-import static com.github.rschmitt.collider.Collider.toClojureSet;
+import clojure.lang.Sorted;
 
 /**
  * A generic persistent immutable Set implementation, with three types of methods:
@@ -33,6 +40,7 @@ import static com.github.rschmitt.collider.Collider.toClojureSet;
 @Immutable
 public class ClojureSet<T> implements Set<T> {
     private final Set<T> delegate;
+    private int hash;
 
     @SuppressWarnings("unchecked")
     protected ClojureSet(Object delegate) {
@@ -41,7 +49,17 @@ public class ClojureSet<T> implements Set<T> {
 
     @SafeVarargs
     static <T> ClojureSet<T> create(T... ts) {
-        return create(PersistentHashSet.create(ts));
+        return create(Backend.defaultBackend(), ts);
+    }
+
+    private static <T> ClojureSet<T> create(Backend backend, T[] ts) {
+        IPersistentSet empty = backend.emptySet();
+        if (ts.length == 0) return wrap(empty);
+        ITransientCollection ret = ((IEditableCollection) empty).asTransient();
+        for (T t : ts) {
+            ret = ret.conj(t);
+        }
+        return wrap((IPersistentSet) ret.persistent());
     }
 
     static <T> ClojureSet<T> wrap(IPersistentSet clojureSet) {
@@ -71,18 +89,52 @@ public class ClojureSet<T> implements Set<T> {
         return wrap(((IPersistentSet) delegate).disjoin(t));
     }
 
+    /**
+     * Returns a read-only snapshot of this set, stored in a single open-addressed hash table, as
+     * described in {@link ClojureMap#compact}. Like a compact map, it copies all of its members
+     * back into a set of the kind this one is before applying the first modification.
+     * <p/>
+     * If this set is already compact or sorted, it is returned as-is.
+     */
+    public ClojureSet<T> compact() {
+        if (delegate instanceof CompactSet || delegate instanceof Sorted) return this;
+        return wrap(CompactSet.create((IPersistentSet) delegate));
+    }
+
+    /**
+     * Returns a lazy {@link Pipeline} over the elements of this set. Unlike chaining calls to
+     * {@link #map} and {@link #filter}, which build a new set at every step, the stages of a
+     * pipeline are fused into a single pass when it is run.
+     */
+    public Pipeline<T> pipeline() {
+        return Pipeline.of(this::spliterator, Backends.of((IPersistentSet) delegate));
+    }
+
     /**
      * Maps {@code f} over the elements in this set, returning a new set containing the result.
      */
     public <U> ClojureSet<U> map(Function<? super T, ? extends U> f) {
-        return stream().map(f).collect(toClojureSet());
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.BULK_REBUILD, "ClojureSet.map") : null;
+        TransientSet<U> tr = new TransientSet<>(Backends.of((IPersistentSet) delegate));
+        forEach(t -> tr.add(f.apply(t)));
+        ClojureSet<U> ret = tr.toPersistent();
+        if (Events.ENABLED) span.end(size(), ret.size());
+        return ret;
     }
 
     /**
-     * Returns a new set containing only the elements in this set matching {@code p}.
+     * Returns a new set containing only the elements in this set matching {@code p}. The new set
+     * shares every part of this one that contains no removed elements; if nothing is removed, this
+     * set is returned.
      */
+    @SuppressWarnings("unchecked")
     public ClojureSet<T> filter(Predicate<? super T> p) {
-        return stream().filter(p).collect(toClojureSet());
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.BULK_REBUILD, "ClojureSet.filter") : null;
+        IPersistentSet set = (IPersistentSet) delegate;
+        IPersistentSet ret = HashTries.filter(set, t -> p.test((T) t));
+        if (Events.ENABLED) span.end(set.count(), ret.count());
+        if (ret == set) return this;
+        return wrap(ret);
     }
 
     /**
@@ -100,7 +152,8 @@ public class ClojureSet<T> implements Set<T> {
     }
 
     /**
-     * Returns a transient version of this set in constant time.
+     * Returns a transient version of this set in constant time, or in linear time if this set is
+     * {@link #compact compact}.
      */
     public TransientSet<T> asTransient() {
         IEditableCollection asEditable = (IEditableCollection) delegate;
@@ -134,12 +187,15 @@ public class ClojureSet<T> implements Set<T> {
 
     @Override
     public Object[] toArray() {
-        return delegate.toArray();
+        Object[] ret = new Object[size()];
+        int i = 0;
+        for (T t : delegate) ret[i++] = t;
+        return ret;
     }
 
     @Override
     public <T1> T1[] toArray(T1[] a) {
-        return delegate.toArray(a);
+        return Arrays.asList(toArray()).toArray(a);
     }
 
     @Override
@@ -152,9 +208,18 @@ public class ClojureSet<T> implements Set<T> {
         return delegate.equals(o);
     }
 
+    /**
+     * Returns the sum of the hash codes of the members of this set, as specified by {@link Set}.
+     * It is computed on first use and then cached.
+     */
     @Override
     public int hashCode() {
-        return delegate.hashCode();
+        int hash = this.hash;
+        if (hash == 0) {
+            for (T t : delegate) hash += t == null ? 0 : t.hashCode();
+            this.hash = hash;
+        }
+        return hash;
     }
 
     @Override
@@ -162,19 +227,54 @@ public class ClojureSet<T> implements Set<T> {
         return delegate.toString();
     }
 
+    /**
+     * Reduces this set in parallel, in the manner of Clojure's {@code
+     * clojure.core.reducers/fold}, using the common {@link ForkJoinPool}. The set is split
+     * along the boundaries of its underlying trie into pieces of roughly {@code
+     * parallelismThreshold} elements or fewer; each piece is reduced sequentially with {@code
+     * reduceFn}, starting from {@code identity}, and the results are combined with {@code
+     * combineFn}.
+     * <p/>
+     * {@code identity} must be an identity for {@code combineFn}, which must be associative. The
+     * splits depend only on the contents of the set and on the threshold, so the result is
+     * the same on every run.
+     *
+     * @throws IllegalArgumentException if {@code parallelismThreshold} is not positive
+     */
+    public <R> R fold(R identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn, int parallelismThreshold) {
+        return fold(identity, combineFn, reduceFn, parallelismThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reduces this set in parallel as described in {@link #fold(Object, BinaryOperator, BiFunction,
+     * int)}, using {@code pool} to run the work.
+     */
+    public <R> R fold(R identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn, int parallelismThreshold, ForkJoinPool pool) {
+        return Fold.fold(spliterator(), Fold.reducing(identity, reduceFn), combineFn, parallelismThreshold, pool);
+    }
+
+    /**
+     * Returns a spliterator over this set. For sets backed by a {@link
+     * clojure.lang.PersistentHashSet}, it splits along the nodes of the underlying hash trie and
+     * reads members straight out of them, so parallel streams divide the work evenly.
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public Spliterator<T> spliterator() {
-        return delegate.spliterator();
+        if (!(delegate instanceof IPersistentSet)) return delegate.spliterator();
+        Spliterator<Object> ret = HashTries.spliterator((IPersistentSet) delegate);
+        if (ret == null) return delegate.spliterator();
+        return (Spliterator<T>) ret;
     }
 
     @Override
     public Stream<T> stream() {
-        return delegate.stream();
+        return StreamSupport.stream(spliterator(), false);
     }
 
     @Override
     public Stream<T> parallelStream() {
-        return delegate.parallelStream();
+        return StreamSupport.stream(spliterator(), true);
     }
 
     @Override
@@ -0,0 +1,398 @@
+package com.github.rschmitt.collider;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.Immutable;
+
+import clojure.lang.PersistentTreeMap;
+import clojure.lang.RT;
+
+/**
+ * A generic persistent immutable sorted Map implementation, backed by a {@link PersistentTreeMap}.
+ * Like {@link ClojureMap}, it has three types of methods:
+ * <ol>
+ * <li>Read methods from {@link NavigableMap}, such as {@link #get} and {@link #floorEntry}</li>
+ * <li>Write methods from NavigableMap, such as {@link #put}; these will throw {@link
+ * UnsupportedOperationException}</li> and have been marked as {@code @Deprecated}
+ * <li>Persistent "modification" methods, such as {@link #assoc}; these will efficiently create
+ * modified copies of the current map</li>
+ * </ol>
+ * Navigation methods such as {@link #floorEntry} and {@link #ceilingKey} take O(log n) time. Range
+ * views such as {@link #subMap} are created in constant time without copying any entries; since
+ * this map is immutable, they are read-only and are never invalidated.
+ */
+@Immutable
+public class ClojureSortedMap<K, V> implements NavigableMap<K, V> {
+    private final PersistentTreeMap delegate;
+    private final Comparator<? super K> comparator;
+    private final SortedView<K, V> view;
+
+    ClojureSortedMap(PersistentTreeMap delegate, Comparator<? super K> comparator) {
+        this.delegate = delegate;
+        this.comparator = comparator;
+        this.view = new SortedView<>(delegate, comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> ClojureSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        // Reading the default comparator initializes RT, which has to come before the first use of
+        // PersistentTreeMap: otherwise, its static initializer starts RT part way, and RT fails to
+        // bootstrap on the half-initialized tree classes.
+        Comparator<Object> defaultComparator = RT.DEFAULT_COMPARATOR;
+        Comparator<Object> comp = comparator == null ? defaultComparator : (Comparator<Object>) comparator;
+        return new ClojureSortedMap<>(new PersistentTreeMap(null, comp), comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<K, V> unwrap() {
+        return (Map<K, V>) delegate;
+    }
+
+    /**
+     * Returns a copy of this map which also contains a mapping from {@code key} to {@code value}.
+     * If a mapping for {@code key} already exists in the current map, it will be overwritten.
+     */
+    public ClojureSortedMap<K, V> assoc(K key, V value) {
+        return new ClojureSortedMap<>(delegate.assoc(key, value), comparator);
+    }
+
+    /**
+     * Returns a copy of this map without a mapping for {@code key}.
+     */
+    public ClojureSortedMap<K, V> dissoc(K key) {
+        PersistentTreeMap ret = delegate.without(key);
+        if (ret == delegate) return this;
+        return new ClojureSortedMap<>(ret, comparator);
+    }
+
+    /**
+     * Returns a transient version of this map in constant time.
+     */
+    public TransientSortedMap<K, V> asTransient() {
+        return new TransientSortedMap<>(delegate, comparator);
+    }
+
+    ////////////////////////////////
+    // Mindless delegation goes here
+    ////////////////////////////////
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return view.lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return view.lowerKey(key);
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return view.floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return view.floorKey(key);
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return view.ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return view.ceilingKey(key);
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return view.higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return view.higherKey(key);
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return view.firstEntry();
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return view.lastEntry();
+    }
+
+    @Override
+    public K firstKey() {
+        return view.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return view.lastKey();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return view.descendingMap();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return view.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return view.descendingKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return view.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return view.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return view.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, K toKey) {
+        return view.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey) {
+        return view.headMap(toKey);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey) {
+        return view.tailMap(fromKey);
+    }
+
+    @Override
+    public int size() {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.count() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return delegate.containsValue(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return (V) delegate.valAt(key);
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return view.navigableKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return view.values();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return view.entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return delegate.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        return (V) delegate.valAt(key, defaultValue);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        view.forEach(action);
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #dissoc} instead
+     */
+    @Override
+    @Deprecated
+    public Entry<K, V> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #dissoc} instead
+     */
+    @Override
+    @Deprecated
+    public Entry<K, V> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #assoc} instead
+     */
+    @Override
+    @Deprecated
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #dissoc} instead
+     */
+    @Override
+    @Deprecated
+    public V remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link Collider#clojureSortedMap()} instead
+     */
+    @Override
+    @Deprecated
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public V putIfAbsent(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #dissoc} instead
+     */
+    @Override
+    @Deprecated
+    public boolean remove(Object key, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #assoc} instead
+     */
+    @Override
+    @Deprecated
+    public boolean replace(K key, V oldValue, V newValue) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #assoc} instead
+     */
+    @Override
+    @Deprecated
+    public V replace(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+}
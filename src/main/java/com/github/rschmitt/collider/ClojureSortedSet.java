@@ -0,0 +1,291 @@
+package com.github.rschmitt.collider;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javax.annotation.concurrent.Immutable;
+
+import clojure.lang.PersistentTreeMap;
+import clojure.lang.PersistentTreeSet;
+import clojure.lang.TreeMaps;
+
+/**
+ * A generic persistent immutable sorted Set implementation, backed by a {@link PersistentTreeSet}.
+ * Like {@link ClojureSet}, it has three types of methods:
+ * <ol>
+ * <li>Read methods from {@link NavigableSet}, such as {@link #contains} and {@link #floor}</li>
+ * <li>Write methods from NavigableSet, such as {@link #add}; these will throw {@link
+ * UnsupportedOperationException}</li> and have been marked as {@code @Deprecated}
+ * <li>Persistent "modification" methods, such as {@link #with}; these will efficiently create
+ * modified copies of the current set</li>
+ * </ol>
+ * Navigation methods such as {@link #floor} and {@link #ceiling} take O(log n) time. Range views
+ * such as {@link #subSet} are created in constant time without copying any elements; since this
+ * set is immutable, they are read-only and are never invalidated.
+ */
+@Immutable
+public class ClojureSortedSet<T> implements NavigableSet<T> {
+    private final PersistentTreeSet delegate;
+    private final Comparator<? super T> comparator;
+    private final NavigableSet<T> view;
+
+    ClojureSortedSet(PersistentTreeSet delegate, Comparator<? super T> comparator) {
+        this.delegate = delegate;
+        this.comparator = comparator;
+        this.view = new SortedView<T, T>(TreeMaps.backingMap(delegate), comparator).navigableKeySet();
+    }
+
+    static <T> ClojureSortedSet<T> empty(Comparator<? super T> comparator) {
+        ClojureSortedMap<T, T> map = ClojureSortedMap.empty(comparator);
+        return new ClojureSortedSet<>(TreeMaps.asSet((PersistentTreeMap) map.unwrap()), comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Set<T> unwrap() {
+        return (Set<T>) delegate;
+    }
+
+    /**
+     * Returns a copy of this set that includes {@code t}.
+     */
+    public ClojureSortedSet<T> with(T t) {
+        return new ClojureSortedSet<>((PersistentTreeSet) delegate.cons(t), comparator);
+    }
+
+    /**
+     * Returns a copy of this set that does not include {@code t}.
+     */
+    public ClojureSortedSet<T> without(T t) {
+        PersistentTreeSet ret = (PersistentTreeSet) delegate.disjoin(t);
+        if (ret.count() == delegate.count()) return this;
+        return new ClojureSortedSet<>(ret, comparator);
+    }
+
+    /**
+     * Returns a transient version of this set in constant time.
+     */
+    public TransientSortedSet<T> asTransient() {
+        return new TransientSortedSet<>(TreeMaps.backingMap(delegate), comparator);
+    }
+
+    ////////////////////////////////
+    // Mindless delegation goes here
+    ////////////////////////////////
+
+    @Override
+    public T lower(T t) {
+        return view.lower(t);
+    }
+
+    @Override
+    public T floor(T t) {
+        return view.floor(t);
+    }
+
+    @Override
+    public T ceiling(T t) {
+        return view.ceiling(t);
+    }
+
+    @Override
+    public T higher(T t) {
+        return view.higher(t);
+    }
+
+    @Override
+    public T first() {
+        return view.first();
+    }
+
+    @Override
+    public T last() {
+        return view.last();
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return view.descendingSet();
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return view.descendingIterator();
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        return view.subSet(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+        return view.headSet(toElement, inclusive);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+        return view.tailSet(fromElement, inclusive);
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        return view.subSet(fromElement, toElement);
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return view.headSet(toElement);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return view.tailSet(fromElement);
+    }
+
+    @Override
+    public int size() {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.count() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return delegate.contains(o);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return view.iterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return view.toArray();
+    }
+
+    @Override
+    public <T1> T1[] toArray(T1[] a) {
+        return view.toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        return delegate.containsAll(c);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return delegate.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        view.forEach(action);
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #without} instead
+     */
+    @Override
+    @Deprecated
+    public T pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #without} instead
+     */
+    @Override
+    @Deprecated
+    public T pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #with} instead
+     */
+    @Override
+    @Deprecated
+    public boolean add(T t) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #without} instead
+     */
+    @Override
+    @Deprecated
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link #with} instead
+     */
+    @Override
+    @Deprecated
+    public boolean addAll(Collection<? extends T> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail; use {@link Collider#clojureSortedSet()} instead
+     */
+    @Override
+    @Deprecated
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @deprecated This operation will fail.
+     */
+    @Override
+    @Deprecated
+    public boolean removeIf(Predicate<? super T> filter) {
+        throw new UnsupportedOperationException();
+    }
+}
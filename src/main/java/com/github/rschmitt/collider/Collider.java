@@ -1,6 +1,7 @@
 package com.github.rschmitt.collider;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
@@ -10,7 +11,10 @@ import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import clojure.lang.IPersistentMap;
 import clojure.lang.IPersistentSet;
@@ -21,6 +25,11 @@ import static java.util.stream.Collector.Characteristics.UNORDERED;
 /**
  * A collection of factory methods to create immutable collections. These methods are designed to be
  * imported statically, either individually or with a star import.
+ * <p/>
+ * The hash-based collections do not initialize {@code clojure.lang.RT}, which loads all of {@code
+ * clojure.core}, as long as none of their keys or members are numbers. Numbers are hashed and
+ * compared by {@code clojure.lang.Numbers}, which does initialize RT, as do the sorted collections
+ * and {@code toString}.
  */
 public class Collider {
     private Collider() {
@@ -82,11 +91,109 @@ public class Collider {
         return ClojureSet.create(elements);
     }
 
+    public static <V> ClojureLongMap<V> clojureLongMap() {
+        return ClojureLongMap.empty();
+    }
+
+    public static ClojureIntList clojureIntList(int... elements) {
+        return ClojureIntList.create(elements);
+    }
+
+    public static ClojureLongList clojureLongList(long... elements) {
+        return ClojureLongList.create(elements);
+    }
+
+    public static ClojureDoubleList clojureDoubleList(double... elements) {
+        return ClojureDoubleList.create(elements);
+    }
+
+    public static <K, V> ClojureSortedMap<K, V> clojureSortedMap() {
+        return ClojureSortedMap.empty(null);
+    }
+
+    public static <K, V> ClojureSortedMap<K, V> clojureSortedMap(Comparator<? super K> comparator) {
+        return ClojureSortedMap.empty(comparator);
+    }
+
+    @SafeVarargs
+    public static <T> ClojureSortedSet<T> clojureSortedSet(T... elements) {
+        TransientSortedSet<T> ret = ClojureSortedSet.<T>empty(null).asTransient();
+        for (T element : elements) {
+            ret.add(element);
+        }
+        return ret.toPersistent();
+    }
+
+    public static <T> ClojureSortedSet<T> clojureSortedSet(Comparator<? super T> comparator) {
+        return ClojureSortedSet.empty(comparator);
+    }
+
     public static <K, V> TransientMap<K, V> transientMap() {
         ClojureMap<K, V> emptyMap = clojureMap();
         return emptyMap.asTransient();
     }
 
+    /**
+     * Returns an empty TransientMap that is expected to grow to {@code expectedSize} entries. The
+     * size does not need to be exact; a large hint avoids the cost of starting out as a small,
+     * linearly-scanned array map and then converting to a hash map partway through.
+     */
+    public static <K, V> TransientMap<K, V> transientMap(int expectedSize) {
+        return new TransientMap<>(expectedSize);
+    }
+
+    /**
+     * Returns an empty ClojureMap from {@code backend}, rather than from the default backend. The
+     * maps derived from it, such as the results of {@link ClojureMap#assoc}, come from the same
+     * backend.
+     */
+    public static <K, V> ClojureMap<K, V> emptyClojureMap(Backend backend) {
+        return ClojureMap.wrap(backend.emptyMap());
+    }
+
+    /**
+     * Returns an empty ClojureSet from {@code backend}; see {@link #emptyClojureMap(Backend)}.
+     */
+    public static <T> ClojureSet<T> emptyClojureSet(Backend backend) {
+        return ClojureSet.wrap(backend.emptySet());
+    }
+
+    /**
+     * Returns an empty ClojureList from {@code backend}; see {@link #emptyClojureMap(Backend)}.
+     */
+    public static <T> ClojureList<T> emptyClojureList(Backend backend) {
+        return ClojureList.wrap(backend.emptyList());
+    }
+
+    /**
+     * Returns an empty TransientMap from {@code backend}, rather than from the default backend.
+     */
+    public static <K, V> TransientMap<K, V> transientMap(Backend backend) {
+        return new TransientMap<>(backend, 0);
+    }
+
+    /**
+     * Returns an empty TransientMap from {@code backend} that is expected to grow to {@code
+     * expectedSize} entries; see {@link #transientMap(int)}.
+     */
+    public static <K, V> TransientMap<K, V> transientMap(Backend backend, int expectedSize) {
+        return new TransientMap<>(backend, expectedSize);
+    }
+
+    /**
+     * Returns an empty TransientSet from {@code backend}, rather than from the default backend.
+     */
+    public static <T> TransientSet<T> transientSet(Backend backend) {
+        return new TransientSet<>(backend);
+    }
+
+    /**
+     * Returns an empty TransientList from {@code backend}, rather than from the default backend.
+     */
+    public static <T> TransientList<T> transientList(Backend backend) {
+        return new TransientList<>(backend);
+    }
+
     public static <T> TransientList<T> transientList() {
         ClojureList<T> emptyList = clojureList();
         return emptyList.asTransient();
@@ -97,11 +204,89 @@ public class Collider {
         return emptySet.asTransient();
     }
 
+    public static <V> TransientLongMap<V> transientLongMap() {
+        ClojureLongMap<V> emptyMap = clojureLongMap();
+        return emptyMap.asTransient();
+    }
+
+    public static TransientIntList transientIntList() {
+        return ClojureIntList.empty().asTransient();
+    }
+
+    public static TransientLongList transientLongList() {
+        return ClojureLongList.empty().asTransient();
+    }
+
+    public static TransientDoubleList transientDoubleList() {
+        return ClojureDoubleList.empty().asTransient();
+    }
+
+    /**
+     * Returns an empty TransientSortedMap. If keys are put into it in ascending order, the
+     * resulting ClojureSortedMap is built in O(n) time; see {@link TransientSortedMap}.
+     */
+    public static <K, V> TransientSortedMap<K, V> transientSortedMap() {
+        ClojureSortedMap<K, V> emptyMap = clojureSortedMap();
+        return emptyMap.asTransient();
+    }
+
+    public static <K, V> TransientSortedMap<K, V> transientSortedMap(Comparator<? super K> comparator) {
+        ClojureSortedMap<K, V> emptyMap = clojureSortedMap(comparator);
+        return emptyMap.asTransient();
+    }
+
+    public static <T> TransientSortedSet<T> transientSortedSet() {
+        ClojureSortedSet<T> emptySet = clojureSortedSet();
+        return emptySet.asTransient();
+    }
+
+    public static <T> TransientSortedSet<T> transientSortedSet(Comparator<? super T> comparator) {
+        ClojureSortedSet<T> emptySet = clojureSortedSet(comparator);
+        return emptySet.asTransient();
+    }
+
+    /**
+     * Returns a snapshot of the cumulative counters that Collider keeps for its bulk operations.
+     * These are only kept when the {@code collider.events} system property is set to {@code true};
+     * see {@link Metrics}.
+     */
+    public static Metrics metrics() {
+        return Events.snapshot();
+    }
+
+    /**
+     * Estimates the memory taken up by the structure of {@code maps}, and how much of it is shared
+     * between them or exclusive to each one; see {@link Footprint}.
+     *
+     * @throws IllegalArgumentException if one of {@code maps} is backed by a map whose structure
+     *                                  cannot be walked, such as one from a third-party {@link
+     *                                  Backend}
+     */
+    public static Footprint footprint(ClojureMap<?, ?>... maps) {
+        return Footprint.of(Stream.of(maps).map(ClojureMap::unwrap).collect(Collectors.toList()));
+    }
+
+    /**
+     * Estimates the memory taken up by the structure of {@code sets}; see {@link
+     * #footprint(ClojureMap[])}.
+     */
+    public static Footprint footprint(ClojureSet<?>... sets) {
+        return Footprint.of(Stream.of(sets).map(ClojureSet::unwrap).collect(Collectors.toList()));
+    }
+
+    /**
+     * Estimates the memory taken up by the structure of {@code lists}; see {@link
+     * #footprint(ClojureMap[])}.
+     */
+    public static Footprint footprint(ClojureList<?>... lists) {
+        return Footprint.of(Stream.of(lists).map(ClojureList::unwrap).collect(Collectors.toList()));
+    }
+
     @SuppressWarnings("unchecked")
     public static <K, V> ClojureMap<K, V> intoClojureMap(Map<? extends K, ? extends V> map) {
         if (map instanceof ClojureMap) return (ClojureMap<K, V>) map;
         if (map instanceof IPersistentMap) return ClojureMap.wrap((IPersistentMap) map);
-        return map.entrySet().stream().collect(toClojureMap(Entry::getKey, Entry::getValue));
+        return map.entrySet().stream().collect(toClojureMap(Entry::getKey, Entry::getValue, map.size()));
     }
 
     @SuppressWarnings("unchecked")
@@ -140,11 +325,32 @@ public class Collider {
     public static <T, K, V> Collector<T, TransientMap<K, V>, ClojureMap<K, V>> toClojureMap(
             Function<? super T, ? extends K> keyMapper,
             Function<? super T, ? extends V> valueMapper
+    ) {
+        return toClojureMap(keyMapper, valueMapper, 0);
+    }
+
+    /**
+     * Returns a {@link Collector} that efficiently accumulates values into a ClojureMap that is
+     * expected to contain about {@code expectedSize} entries. If multiple mappings are produced for
+     * the same key, the last mapping produced will be the one in the returned map.
+     *
+     * @param keyMapper    a function from the input type to keys
+     * @param valueMapper  a function from the input type to values
+     * @param expectedSize the expected number of entries in the returned map; see {@link
+     *                     #transientMap(int)}
+     * @param <T>          the type of the input element in the stream
+     * @param <K>          the key type for the map that will be returned
+     * @param <V>          the value type for the map that will be returned
+     */
+    public static <T, K, V> Collector<T, TransientMap<K, V>, ClojureMap<K, V>> toClojureMap(
+            Function<? super T, ? extends K> keyMapper,
+            Function<? super T, ? extends V> valueMapper,
+            int expectedSize
     ) {
         return new Collector<T, TransientMap<K, V>, ClojureMap<K, V>>() {
             @Override
             public Supplier<TransientMap<K, V>> supplier() {
-                return TransientMap::new;
+                return () -> new TransientMap<>(expectedSize);
             }
 
             @Override
@@ -155,7 +361,7 @@ public class Collider {
             @Override
             public BinaryOperator<TransientMap<K, V>> combiner() {
                 return (x, y) -> {
-                    x.putAll(y.toPersistent());
+                    x.absorb(y);
                     return x;
                 };
             }
@@ -189,11 +395,36 @@ public class Collider {
             Function<? super T, ? extends K> keyMapper,
             Function<? super T, ? extends V> valueMapper,
             BinaryOperator<V> mergeFunction
+    ) {
+        return toStrictClojureMap(keyMapper, valueMapper, mergeFunction, 0);
+    }
+
+    /**
+     * Returns a {@link Collector} that efficiently accumulates values into a ClojureMap that is
+     * expected to contain about {@code expectedSize} entries, while detecting collisions. If
+     * multiple mappings are produced for the same key, the {@code mergeFunction} will be invoked to
+     * determine which value to use.
+     *
+     * @param keyMapper     a function from the input type to keys
+     * @param valueMapper   a function from the input type to values
+     * @param mergeFunction a function used to resolve collisions between values associated with the
+     *                      same key
+     * @param expectedSize  the expected number of entries in the returned map; see {@link
+     *                      #transientMap(int)}
+     * @param <T>           the type of the input element in the stream
+     * @param <K>           the key type for the map that will be returned
+     * @param <V>           the value type for the map that will be returned
+     */
+    public static <T, K, V> Collector<T, TransientMap<K, V>, ClojureMap<K, V>> toStrictClojureMap(
+            Function<? super T, ? extends K> keyMapper,
+            Function<? super T, ? extends V> valueMapper,
+            BinaryOperator<V> mergeFunction,
+            int expectedSize
     ) {
         return new Collector<T, TransientMap<K, V>, ClojureMap<K, V>>() {
             @Override
             public Supplier<TransientMap<K, V>> supplier() {
-                return TransientMap::new;
+                return () -> new TransientMap<>(expectedSize);
             }
 
             @Override
@@ -204,19 +435,13 @@ public class Collider {
             @Override
             public BinaryOperator<TransientMap<K, V>> combiner() {
                 return (x, y) -> {
-                    ClojureMap<K, V> source = y.toPersistent();
-                    for (Entry<K, V> entry : source.entrySet()) {
-                        putUnique(x, entry.getKey(), entry.getValue());
-                    }
+                    x.absorb(y, (oldValue, newValue) -> mergeFunction.apply(newValue, oldValue));
                     return x;
                 };
             }
 
             private void putUnique(TransientMap<K, V> map, K key, V value) {
-                if (map.contains(key)) {
-                    value = mergeFunction.apply(value, map.get(key));
-                }
-                map.put(key, value);
+                map.merge(key, value, (oldValue, newValue) -> mergeFunction.apply(newValue, oldValue));
             }
 
             @Override
@@ -251,7 +476,7 @@ public class Collider {
             @Override
             public BinaryOperator<TransientList<T>> combiner() {
                 return (a, b) -> {
-                    a.appendAll(b.toPersistent());
+                    a.absorb(b);
                     return a;
                 };
             }
@@ -288,7 +513,7 @@ public class Collider {
             @Override
             public BinaryOperator<TransientSet<T>> combiner() {
                 return (a, b) -> {
-                    a.addAll(b.toPersistent());
+                    a.absorb(b);
                     return a;
                 };
             }
@@ -304,4 +529,124 @@ public class Collider {
             }
         };
     }
+
+    /**
+     * Returns a {@link Collector} that groups the input elements by {@code classifier} into a
+     * ClojureMap from each key to a ClojureList of the elements that produced it, in encounter
+     * order.
+     *
+     * @param classifier a function from the input type to keys
+     * @param <T>        the type of the input element in the stream
+     * @param <K>        the key type for the map that will be returned
+     */
+    public static <T, K> Collector<T, TransientMap<K, TransientList<T>>, ClojureMap<K, ClojureList<T>>> groupingToClojureMap(
+            Function<? super T, ? extends K> classifier
+    ) {
+        return groupingToClojureMap(classifier, toClojureList());
+    }
+
+    /**
+     * Returns a {@link Collector} that groups the input elements by {@code classifier} and reduces
+     * each group with {@code downstream}, producing a ClojureMap from each key to the result of
+     * that reduction. For example, {@code groupingToClojureMap(f, toClojureSet())} produces a map
+     * whose values are ClojureSets.
+     * <p/>
+     * Groups are accumulated into a single transient map, and the downstream finisher is applied to
+     * every group in one pass at the end. When a parallel stream is collected, groups with the same
+     * key are merged with the downstream combiner; for {@link #toClojureList()} and {@link
+     * #toClojureSet()}, this merges the underlying tries rather than re-adding each element.
+     *
+     * @param classifier a function from the input type to keys
+     * @param downstream a collector that reduces the elements of each group
+     * @param <T>        the type of the input element in the stream
+     * @param <K>        the key type for the map that will be returned
+     * @param <A>        the intermediate accumulation type of the downstream collector
+     * @param <D>        the value type for the map that will be returned
+     */
+    public static <T, K, A, D> Collector<T, TransientMap<K, A>, ClojureMap<K, D>> groupingToClojureMap(
+            Function<? super T, ? extends K> classifier,
+            Collector<? super T, A, D> downstream
+    ) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        Function<K, A> newGroup = key -> downstreamSupplier.get();
+
+        return new Collector<T, TransientMap<K, A>, ClojureMap<K, D>>() {
+            @Override
+            public Supplier<TransientMap<K, A>> supplier() {
+                return TransientMap::new;
+            }
+
+            @Override
+            public BiConsumer<TransientMap<K, A>, T> accumulator() {
+                return (map, t) -> downstreamAccumulator.accept(map.computeIfAbsent(classifier.apply(t), newGroup), t);
+            }
+
+            @Override
+            public BinaryOperator<TransientMap<K, A>> combiner() {
+                return (x, y) -> {
+                    x.absorb(y, downstreamCombiner);
+                    return x;
+                };
+            }
+
+            @Override
+            public Function<TransientMap<K, A>, ClojureMap<K, D>> finisher() {
+                return map -> map.toPersistent().mapValues(downstreamFinisher);
+            }
+
+            @Override
+            public Set<Characteristics> characteristics() {
+                if (downstream.characteristics().contains(UNORDERED)) return EnumSet.of(UNORDERED);
+                return Collections.emptySet();
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Collector} that efficiently accumulates values into a ClojureLongMap without
+     * boxing their keys. If multiple mappings are produced for the same key, the last mapping
+     * produced will be the one in the returned map.
+     *
+     * @param keyMapper   a function from the input type to keys
+     * @param valueMapper a function from the input type to values
+     * @param <T>         the type of the input element in the stream
+     * @param <V>         the value type for the map that will be returned
+     */
+    public static <T, V> Collector<T, TransientLongMap<V>, ClojureLongMap<V>> toClojureLongMap(
+            ToLongFunction<? super T> keyMapper,
+            Function<? super T, ? extends V> valueMapper
+    ) {
+        return new Collector<T, TransientLongMap<V>, ClojureLongMap<V>>() {
+            @Override
+            public Supplier<TransientLongMap<V>> supplier() {
+                return Collider::transientLongMap;
+            }
+
+            @Override
+            public BiConsumer<TransientLongMap<V>, T> accumulator() {
+                return (map, t) -> map.put(keyMapper.applyAsLong(t), valueMapper.apply(t));
+            }
+
+            @Override
+            public BinaryOperator<TransientLongMap<V>> combiner() {
+                return (x, y) -> {
+                    x.absorb(y);
+                    return x;
+                };
+            }
+
+            @Override
+            public Function<TransientLongMap<V>, ClojureLongMap<V>> finisher() {
+                return TransientLongMap::toPersistent;
+            }
+
+            @Override
+            public Set<Characteristics> characteristics() {
+                return EnumSet.of(UNORDERED);
+            }
+        };
+    }
 }
@@ -0,0 +1,113 @@
+package com.github.rschmitt.collider;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.rschmitt.collider.Metrics.Operation;
+
+/**
+ * Records the instrumented operations listed in {@link Operation}, when the {@code
+ * collider.events} system property is set to {@code true}. Every call site is guarded by {@link
+ * #ENABLED}, which the JIT treats as a constant, so instrumentation costs nothing when it is off:
+ * <pre>{@code
+ * Events.Span span = Events.ENABLED ? Events.begin(Operation.MAP_MERGE, "ClojureMap.merge") : null;
+ * ...
+ * if (Events.ENABLED) span.end(inputSize, outputSize);
+ * }</pre>
+ */
+final class Events {
+    static final String PROPERTY = "collider.events";
+
+    static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final int OPERATIONS = Operation.values().length;
+    private static final LongAdder[] COUNTS = adders();
+    private static final LongAdder[] ELEMENTS = adders();
+    private static final LongAdder[] NANOS = adders();
+
+    private Events() {
+    }
+
+    /**
+     * Starts timing {@code operation}, which was performed by {@code method}.
+     */
+    static Span begin(Operation operation, String method) {
+        Recorder recorder = FlightRecorder.RECORDER;
+        Object event = recorder != null ? recorder.begin(operation, method) : null;
+        return new Span(operation, event);
+    }
+
+    static Metrics snapshot() {
+        long[] counts = new long[OPERATIONS];
+        long[] elements = new long[OPERATIONS];
+        long[] nanos = new long[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            counts[i] = COUNTS[i].sum();
+            elements[i] = ELEMENTS[i].sum();
+            nanos[i] = NANOS[i].sum();
+        }
+        return new Metrics(ENABLED, counts, elements, nanos);
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] ret = new LongAdder[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            ret[i] = new LongAdder();
+        }
+        return ret;
+    }
+
+    /**
+     * Emits the events of one kind of profiler. The only implementation is {@link
+     * FlightRecorderEvents}, which is loaded reflectively, so that this class still compiles and
+     * runs where {@code jdk.jfr} is missing.
+     */
+    interface Recorder {
+        /**
+         * Returns a new event for {@code operation} that has already begun, or {@code null} if it
+         * is not being recorded.
+         */
+        Object begin(Operation operation, String method);
+
+        void commit(Object event, long inputSize, long outputSize);
+    }
+
+    private static final class FlightRecorder {
+        // Older Java 8 runtimes have no jdk.jfr, and Java 8 builds leave out FlightRecorderEvents;
+        // in either case, only the counters are kept.
+        static final Recorder RECORDER = load("com.github.rschmitt.collider.FlightRecorderEvents");
+
+        private static Recorder load(String className) {
+            try {
+                return (Recorder) Class.forName(className).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A single timed operation.
+     */
+    static final class Span {
+        private final Operation operation;
+        private final Object event;
+        private final long start = System.nanoTime();
+
+        private Span(Operation operation, Object event) {
+            this.operation = operation;
+            this.event = event;
+        }
+
+        /**
+         * Stops timing, adds this operation to the counters, and commits its Flight Recorder event
+         * if one is being recorded.
+         */
+        void end(long inputSize, long outputSize) {
+            int i = operation.ordinal();
+            COUNTS[i].increment();
+            ELEMENTS[i].add(inputSize);
+            NANOS[i].add(System.nanoTime() - start);
+            if (event != null) FlightRecorder.RECORDER.commit(event, inputSize, outputSize);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.rschmitt.collider;
+
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JDK Flight Recorder events for each {@link Operation}. This is the only class that refers
+ * to {@code jdk.jfr}. {@link Events} loads it by name, and passes its events around as plain
+ * objects. Builds on Java 8 leave it out; see the {@code java8} profile in the pom.
+ */
+final class FlightRecorderEvents implements Events.Recorder {
+    FlightRecorderEvents() {
+    }
+
+    @Override
+    public Object begin(Operation operation, String method) {
+        ColliderEvent event = create(operation);
+        if (!event.isEnabled()) return null;
+        event.method = method;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commit(Object event, long inputSize, long outputSize) {
+        ColliderEvent ret = (ColliderEvent) event;
+        ret.end();
+        if (!ret.shouldCommit()) return;
+        ret.inputSize = inputSize;
+        ret.outputSize = outputSize;
+        ret.commit();
+    }
+
+    private static ColliderEvent create(Operation operation) {
+        switch (operation) {
+            case COLLECTOR_COMBINE:
+                return new CollectorCombine();
+            case MAP_MERGE:
+                return new MapMerge();
+            case BULK_REBUILD:
+                return new BulkRebuild();
+            case TRANSIENT_PERSIST:
+                return new TransientPersist();
+            default:
+                throw new AssertionError(operation);
+        }
+    }
+
+    @Category("Collider")
+    abstract static class ColliderEvent extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Input Size")
+        long inputSize;
+
+        @Label("Output Size")
+        long outputSize;
+    }
+
+    @Name("com.github.rschmitt.collider.CollectorCombine")
+    @Label("Collector Combine")
+    @Description("Two partial results of a parallel stream were combined by a Collider collector")
+    static final class CollectorCombine extends ColliderEvent {
+    }
+
+    @Name("com.github.rschmitt.collider.MapMerge")
+    @Label("Map Merge")
+    @Description("ClojureMaps were merged")
+    static final class MapMerge extends ColliderEvent {
+    }
+
+    @Name("com.github.rschmitt.collider.BulkRebuild")
+    @Label("Bulk Rebuild")
+    @Description("A collection was rebuilt from every element of another one, as by filter or map")
+    static final class BulkRebuild extends ColliderEvent {
+    }
+
+    @Name("com.github.rschmitt.collider.TransientPersist")
+    @Label("Transient Persist")
+    @Description("A transient collection was converted to a persistent one")
+    static final class TransientPersist extends ColliderEvent {
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.rschmitt.collider;
+
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * A fork/join task behind the {@code fold} methods of {@link ClojureList}, {@link ClojureSet} and
+ * {@link ClojureMap}, modeled on Clojure's {@code clojure.core.reducers/fold}. The collection's
+ * spliterator is split until its pieces are no larger than the threshold, each piece is reduced
+ * sequentially, and the results are combined pairwise on the way back up.
+ * <p/>
+ * Since the spliterators split along the structure of the underlying trie, the tree of splits
+ * depends only on the collection and the threshold, and the prefix produced by each split is
+ * always combined on the left. The result is therefore the same on every run, whatever the
+ * scheduling, provided that the combining function is associative.
+ */
+final class Fold<T, R> extends RecursiveTask<R> {
+    private static final long serialVersionUID = 1L;
+
+    private final Spliterator<T> spliterator;
+    private final Function<Spliterator<T>, R> reducer;
+    private final BinaryOperator<R> combiner;
+    private final long threshold;
+
+    private Fold(Spliterator<T> spliterator, Function<Spliterator<T>, R> reducer, BinaryOperator<R> combiner, long threshold) {
+        this.spliterator = spliterator;
+        this.reducer = reducer;
+        this.combiner = combiner;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Folds the elements of {@code spliterator} in {@code pool}. {@code reducer} reduces a single
+     * piece of the input sequentially, and {@code combiner} combines the results of two adjacent
+     * pieces.
+     *
+     * @throws IllegalArgumentException if {@code threshold} is not positive
+     */
+    static <T, R> R fold(Spliterator<T> spliterator,
+                         Function<Spliterator<T>, R> reducer,
+                         BinaryOperator<R> combiner,
+                         int threshold,
+                         ForkJoinPool pool) {
+        if (threshold < 1) throw new IllegalArgumentException("Parallelism threshold must be positive: " + threshold);
+        if (spliterator.estimateSize() <= threshold) return reducer.apply(spliterator);
+        return pool.invoke(new Fold<>(spliterator, reducer, combiner, threshold));
+    }
+
+    /**
+     * Returns a function that reduces a piece of the input sequentially with {@code reduceFn},
+     * starting from {@code identity}.
+     */
+    static <T, R> Function<Spliterator<T>, R> reducing(R identity, BiFunction<R, ? super T, R> reduceFn) {
+        return spliterator -> {
+            Object[] acc = {identity};
+            spliterator.forEachRemaining(x -> acc[0] = reduceFn.apply(Fold.<R>cast(acc[0]), x));
+            return cast(acc[0]);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> R cast(Object o) {
+        return (R) o;
+    }
+
+    @Override
+    protected R compute() {
+        if (spliterator.estimateSize() <= threshold) return reducer.apply(spliterator);
+        Spliterator<T> prefix = spliterator.trySplit();
+        if (prefix == null) return reducer.apply(spliterator);
+        Fold<T, R> left = new Fold<>(prefix, reducer, combiner, threshold);
+        left.fork();
+        R right = new Fold<>(spliterator, reducer, combiner, threshold).compute();
+        return combiner.apply(left.join(), right);
+    }
+}
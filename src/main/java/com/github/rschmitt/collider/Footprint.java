@@ -0,0 +1,209 @@
+package com.github.rschmitt.collider;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+
+import clojure.lang.TrieNodes;
+
+/**
+ * An estimate of the memory taken up by the structure of one or more persistent collections, and
+ * of how much of it they share, as returned by {@link Collider#footprint(ClojureMap[])}. This is
+ * useful for sizing heaps and retention policies when many versions of the same collection are
+ * kept alive: the exclusive bytes of a version are what would be freed if it were dropped, while
+ * the shared bytes stay alive as long as any version that uses them does.
+ * <p/>
+ * The structure of a collection consists of the collection object, the nodes of its trie, and
+ * the arrays inside those nodes; the keys, values and elements stored in it are not included.
+ * Sizes are shallow sizes estimated for a 64-bit HotSpot JVM with compressed references, as used
+ * for heaps smaller than 32 GB: a 12-byte object header, a 16-byte array header, 4-byte
+ * references, and 8-byte alignment.
+ */
+@Immutable
+public final class Footprint {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private static final Integer SHARED = -1;
+
+    private static final ClassValue<Long> INSTANCE_SIZE = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long ret = OBJECT_HEADER;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) ret += size(field.getType());
+                }
+            }
+            return align(ret);
+        }
+    };
+
+    private final long[] exclusiveNodes;
+    private final long[] exclusiveBytes;
+    private final long sharedNodes;
+    private final long sharedBytes;
+
+    private Footprint(Tally tally) {
+        this.exclusiveNodes = tally.exclusiveNodes;
+        this.exclusiveBytes = tally.exclusiveBytes;
+        this.sharedNodes = tally.sharedNodes;
+        this.sharedBytes = tally.sharedBytes;
+    }
+
+    /**
+     * Measures {@code collections}, each of which must be an unwrapped persistent collection.
+     *
+     * @throws IllegalArgumentException if the structure of one of {@code collections} cannot be
+     *                                  walked
+     */
+    static Footprint of(List<?> collections) {
+        for (Object coll : collections) {
+            if (!TrieNodes.isSupported(coll)) throw new IllegalArgumentException("Unsupported collection: " + coll.getClass().getName());
+        }
+        Tally tally = new Tally(collections.size());
+        for (int i = 0; i < collections.size(); i++) {
+            int owner = i;
+            TrieNodes.walk(collections.get(i), object -> tally.visit(object, owner));
+        }
+        return new Footprint(tally);
+    }
+
+    private static long shallowSize(Object object) {
+        Class<?> type = object.getClass();
+        if (!type.isArray()) return INSTANCE_SIZE.get(type);
+        return align(ARRAY_HEADER + (long) Array.getLength(object) * size(type.getComponentType()));
+    }
+
+    private static int size(Class<?> type) {
+        if (!type.isPrimitive()) return REFERENCE;
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Returns the number of collections that were measured.
+     */
+    public int collections() {
+        return exclusiveNodes.length;
+    }
+
+    /**
+     * Returns the number of distinct nodes, including collection objects, in the structure of all
+     * of the collections. Arrays are not counted as separate nodes.
+     */
+    public long nodes() {
+        long ret = sharedNodes;
+        for (long n : exclusiveNodes) ret += n;
+        return ret;
+    }
+
+    /**
+     * Returns the estimated size in bytes of the structure of all of the collections, counting
+     * each object once no matter how many of them it is shared by.
+     */
+    public long bytes() {
+        long ret = sharedBytes;
+        for (long n : exclusiveBytes) ret += n;
+        return ret;
+    }
+
+    /**
+     * Returns the number of nodes that are reachable from more than one of the collections.
+     */
+    public long sharedNodes() {
+        return sharedNodes;
+    }
+
+    /**
+     * Returns the estimated size in bytes of the objects that are reachable from more than one of
+     * the collections.
+     */
+    public long sharedBytes() {
+        return sharedBytes;
+    }
+
+    /**
+     * Returns the number of nodes that are only reachable from the collection at {@code index}.
+     */
+    public long exclusiveNodes(int index) {
+        return exclusiveNodes[index];
+    }
+
+    /**
+     * Returns the estimated size in bytes of the objects that are only reachable from the
+     * collection at {@code index}; this is how much memory would be freed if it were no longer
+     * retained, and the others were.
+     */
+    public long exclusiveBytes(int index) {
+        return exclusiveBytes[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder ret = new StringBuilder("Footprint{nodes=").append(nodes())
+                .append(", bytes=").append(bytes())
+                .append(", sharedNodes=").append(sharedNodes)
+                .append(", sharedBytes=").append(sharedBytes)
+                .append(", exclusiveBytes=[");
+        for (int i = 0; i < exclusiveBytes.length; i++) {
+            if (i > 0) ret.append(", ");
+            ret.append(exclusiveBytes[i]);
+        }
+        return ret.append("]}").toString();
+    }
+
+    /**
+     * Records which collections each object has been reached from, and keeps count as the walk
+     * proceeds.
+     */
+    private static final class Tally {
+        private final Map<Object, Integer> owners = new IdentityHashMap<>();
+        private final long[] exclusiveNodes;
+        private final long[] exclusiveBytes;
+        private long sharedNodes;
+        private long sharedBytes;
+
+        Tally(int collections) {
+            exclusiveNodes = new long[collections];
+            exclusiveBytes = new long[collections];
+        }
+
+        /**
+         * Counts {@code object}, which is reachable from collection {@code owner}, and returns
+         * whether the objects beneath it need to be visited too. They do if it has not been
+         * visited before, and also if it has only been visited from another collection; in that
+         * case, it and every object beneath it move from that collection's exclusive share to the
+         * shared share.
+         */
+        boolean visit(Object object, int owner) {
+            Integer previous = owners.putIfAbsent(object, owner);
+            int nodes = object.getClass().isArray() ? 0 : 1;
+            long bytes = shallowSize(object);
+            if (previous == null) {
+                exclusiveNodes[owner] += nodes;
+                exclusiveBytes[owner] += bytes;
+                return true;
+            }
+            if (previous == owner || previous.equals(SHARED)) return false;
+            owners.put(object, SHARED);
+            exclusiveNodes[previous] -= nodes;
+            exclusiveBytes[previous] -= bytes;
+            sharedNodes += nodes;
+            sharedBytes += bytes;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.rschmitt.collider;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+
+import javax.annotation.concurrent.Immutable;
+
+import clojure.lang.IMapEntry;
+
+/**
+ * A read-only {@link NavigableSet} of the keys of a {@link SortedView}. Every operation, including
+ * the creation of range views, is delegated to the map.
+ */
+@Immutable
+final class KeyView<K> extends AbstractSet<K> implements NavigableSet<K> {
+    private final SortedView<K, ?> map;
+
+    KeyView(SortedView<K, ?> map) {
+        this.map = map;
+    }
+
+    private static <K> NavigableSet<K> keys(NavigableMap<K, ?> view) {
+        return ((SortedView<K, ?>) view).navigableKeySet();
+    }
+
+    @Override
+    public K lower(K k) {
+        return map.lowerKey(k);
+    }
+
+    @Override
+    public K floor(K k) {
+        return map.floorKey(k);
+    }
+
+    @Override
+    public K ceiling(K k) {
+        return map.ceilingKey(k);
+    }
+
+    @Override
+    public K higher(K k) {
+        return map.higherKey(k);
+    }
+
+    @Override
+    public K first() {
+        return map.firstKey();
+    }
+
+    @Override
+    public K last() {
+        return map.lastKey();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return map.comparator();
+    }
+
+    @Override
+    public NavigableSet<K> descendingSet() {
+        return keys(map.descendingMap());
+    }
+
+    @Override
+    public Iterator<K> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+        return keys(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+    }
+
+    @Override
+    public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+        return keys(map.headMap(toElement, inclusive));
+    }
+
+    @Override
+    public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+        return keys(map.tailMap(fromElement, inclusive));
+    }
+
+    @Override
+    public SortedSet<K> subSet(K fromElement, K toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> headSet(K toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> tailSet(K fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        Iterator<IMapEntry> entries = map.entries();
+        return new Iterator<K>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public K next() {
+                return (K) entries.next().key();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return map.containsKey(o);
+    }
+
+    @Override
+    public K pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public K pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean add(K k) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends K> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+}
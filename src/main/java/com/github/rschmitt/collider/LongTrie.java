@@ -0,0 +1,264 @@
+package com.github.rschmitt.collider;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * A big-endian Patricia trie keyed by primitive longs, as described by Okasaki and Gill in "Fast
+ * Mergeable Integer Maps". This is the structure behind {@link ClojureLongMap} and {@link
+ * TransientLongMap}.
+ * <p/>
+ * Keys are stored with their sign bit flipped, so that the unsigned order of the stored keys,
+ * which is the order of the trie, is the signed order of the original keys.
+ * <p/>
+ * Nodes created by a transient carry that transient's edit token, and the transient may modify
+ * them in place; every other node is treated as immutable. This is the same scheme that Clojure
+ * uses for its own transients.
+ */
+final class LongTrie {
+    private LongTrie() {
+    }
+
+    static abstract class Node {
+    }
+
+    static final class Leaf extends Node {
+        final long key;
+        final Object value;
+
+        Leaf(long key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    static final class Branch extends Node {
+        final long prefix;
+        final int bit;
+        final Object edit;
+        Node left;
+        Node right;
+        int size;
+
+        Branch(long prefix, int bit, Node left, Node right, Object edit) {
+            this.prefix = prefix;
+            this.bit = bit;
+            this.left = left;
+            this.right = right;
+            this.edit = edit;
+            this.size = size(left) + size(right);
+        }
+    }
+
+    /**
+     * Records whether an operation changed the number of entries in the trie.
+     */
+    static final class Delta {
+        int size;
+    }
+
+    static long toTrieKey(long key) {
+        return key ^ Long.MIN_VALUE;
+    }
+
+    static long fromTrieKey(long trieKey) {
+        return trieKey ^ Long.MIN_VALUE;
+    }
+
+    private static boolean zero(long key, int bit) {
+        return (key & (1L << bit)) == 0;
+    }
+
+    /**
+     * Returns the bits of {@code key} above {@code bit}.
+     */
+    private static long prefix(long key, int bit) {
+        return bit == 63 ? 0 : key & (-1L << (bit + 1));
+    }
+
+    private static boolean matches(long key, Branch branch) {
+        return prefix(key, branch.bit) == branch.prefix;
+    }
+
+    /**
+     * Returns the value bound to {@code key}, which has already been converted with {@link
+     * #toTrieKey}, or {@code notFound} if there is none. This allocates nothing.
+     */
+    static Object get(Node node, long key, Object notFound) {
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            if (!matches(key, branch)) return notFound;
+            node = zero(key, branch.bit) ? branch.left : branch.right;
+        }
+        if (node != null && ((Leaf) node).key == key) return ((Leaf) node).value;
+        return notFound;
+    }
+
+    /**
+     * Combines two disjoint subtries whose keys begin with {@code prefix0} and {@code prefix1}.
+     */
+    private static Branch join(long prefix0, Node node0, long prefix1, Node node1, Object edit) {
+        int bit = 63 - Long.numberOfLeadingZeros(prefix0 ^ prefix1);
+        if (zero(prefix0, bit)) return new Branch(prefix(prefix0, bit), bit, node0, node1, edit);
+        return new Branch(prefix(prefix0, bit), bit, node1, node0, edit);
+    }
+
+    /**
+     * Binds {@code key} to {@code value}. If {@code key} is already bound and {@code f} is not
+     * null, it is instead bound to the result of applying {@code f} to its current value and
+     * {@code value}. Branches owned by {@code edit} are modified in place; if {@code edit} is null,
+     * the operation is fully persistent.
+     */
+    static Node assoc(Node node, long key, Object value, BiFunction<Object, Object, Object> f, Object edit, Delta delta) {
+        if (node == null) {
+            delta.size++;
+            return new Leaf(key, value);
+        }
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            if (leaf.key == key) {
+                Object newValue = f == null ? value : f.apply(leaf.value, value);
+                return newValue == leaf.value ? leaf : new Leaf(key, newValue);
+            }
+            delta.size++;
+            return join(key, new Leaf(key, value), leaf.key, leaf, edit);
+        }
+
+        Branch branch = (Branch) node;
+        if (!matches(key, branch)) {
+            delta.size++;
+            return join(key, new Leaf(key, value), branch.prefix, branch, edit);
+        }
+        if (zero(key, branch.bit)) {
+            Node left = assoc(branch.left, key, value, f, edit, delta);
+            return withChildren(branch, left, branch.right, edit);
+        }
+        Node right = assoc(branch.right, key, value, f, edit, delta);
+        return withChildren(branch, branch.left, right, edit);
+    }
+
+    /**
+     * Removes the binding for {@code key}, if there is one. Branches owned by {@code edit} are
+     * modified in place; if {@code edit} is null, the operation is fully persistent.
+     */
+    static Node without(Node node, long key, Object edit, Delta delta) {
+        if (node == null) return null;
+        if (node instanceof Leaf) {
+            if (((Leaf) node).key != key) return node;
+            delta.size--;
+            return null;
+        }
+
+        Branch branch = (Branch) node;
+        if (!matches(key, branch)) return branch;
+        if (zero(key, branch.bit)) {
+            Node left = without(branch.left, key, edit, delta);
+            if (left == null) return branch.right;
+            return withChildren(branch, left, branch.right, edit);
+        }
+        Node right = without(branch.right, key, edit, delta);
+        if (right == null) return branch.left;
+        return withChildren(branch, branch.left, right, edit);
+    }
+
+    /**
+     * Returns {@code branch} with the given children, modifying it in place if it is owned by
+     * {@code edit}. An owned branch is always updated, since its size may have changed even if its
+     * children are the same; an unowned branch can only have unowned descendants, which are never
+     * modified.
+     */
+    private static Node withChildren(Branch branch, Node left, Node right, Object edit) {
+        if (edit != null && branch.edit == edit) {
+            branch.left = left;
+            branch.right = right;
+            branch.size = size(left) + size(right);
+            return branch;
+        }
+        if (left == branch.left && right == branch.right) return branch;
+        return new Branch(branch.prefix, branch.bit, left, right, edit);
+    }
+
+    /**
+     * Returns a trie containing every entry of {@code a} and {@code b}, persistently. If a key is
+     * bound in both, the entry from {@code b} is kept. Subtries that only exist on one side are
+     * shared with the result, and {@code delta} is decremented once for every key that is bound in
+     * both tries.
+     * <p/>
+     * Neither input may contain nodes that are still owned by a live transient, since the result
+     * may place them under unowned branches.
+     */
+    static Node merge(Node a, Node b, Delta delta) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a == b) {
+            delta.size -= size(a);
+            return a;
+        }
+        if (a instanceof Leaf) {
+            Leaf leaf = (Leaf) a;
+            Delta ignored = new Delta();
+            Node ret = assoc(b, leaf.key, leaf.value, (existing, value) -> existing, null, ignored);
+            if (ignored.size == 0) delta.size--;
+            return ret;
+        }
+        if (b instanceof Leaf) {
+            Leaf leaf = (Leaf) b;
+            Delta ignored = new Delta();
+            Node ret = assoc(a, leaf.key, leaf.value, null, null, ignored);
+            if (ignored.size == 0) delta.size--;
+            return ret;
+        }
+
+        Branch s = (Branch) a;
+        Branch t = (Branch) b;
+        if (s.bit == t.bit && s.prefix == t.prefix) {
+            return withChildren(s, merge(s.left, t.left, delta), merge(s.right, t.right, delta), null);
+        }
+        if (s.bit > t.bit && matches(t.prefix, s)) {
+            if (zero(t.prefix, s.bit)) return withChildren(s, merge(s.left, t, delta), s.right, null);
+            return withChildren(s, s.left, merge(s.right, t, delta), null);
+        }
+        if (t.bit > s.bit && matches(s.prefix, t)) {
+            if (zero(s.prefix, t.bit)) return withChildren(t, merge(s, t.left, delta), t.right, null);
+            return withChildren(t, t.left, merge(s, t.right, delta), null);
+        }
+        return join(s.prefix, s, t.prefix, t, null);
+    }
+
+    static int size(Node node) {
+        if (node == null) return 0;
+        if (node instanceof Leaf) return 1;
+        return ((Branch) node).size;
+    }
+
+    /**
+     * Iterates over the leaves of a trie in ascending order of their original keys.
+     */
+    static final class LeafIterator implements Iterator<Leaf> {
+        private final Deque<Node> stack = new ArrayDeque<>();
+
+        LeafIterator(Node root) {
+            if (root != null) stack.push(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Leaf next() {
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            Node node = stack.pop();
+            while (node instanceof Branch) {
+                Branch branch = (Branch) node;
+                stack.push(branch.right);
+                node = branch.left;
+            }
+            return (Leaf) node;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.rschmitt.collider;
+
+/**
+ * A function that folds one mapping of a map into an accumulated result; see {@link
+ * ClojureMap#reduce}.
+ *
+ * @param <R> the type of the result
+ * @param <K> the type of the map's keys
+ * @param <V> the type of the map's values
+ */
+@FunctionalInterface
+public interface MapReducer<R, K, V> {
+    /**
+     * Returns the result of folding the mapping from {@code key} to {@code value} into {@code
+     * acc}.
+     */
+    R apply(R acc, K key, V value);
+}
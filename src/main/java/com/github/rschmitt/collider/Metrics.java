@@ -0,0 +1,100 @@
+package com.github.rschmitt.collider;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A snapshot of the cumulative counters that Collider keeps for its most expensive bulk
+ * operations, as returned by {@link Collider#metrics()}.
+ * <p/>
+ * Counters are only kept when the {@code collider.events} system property is set to {@code true}
+ * at startup; otherwise they are all zero. The same property enables the JDK Flight Recorder
+ * events described in {@link Operation}, which are recorded whenever a recording that includes
+ * them is running.
+ */
+@Immutable
+public final class Metrics {
+    /**
+     * An instrumented operation. Each one is also a Flight Recorder event, named {@code
+     * com.github.rschmitt.collider.} followed by the name given below, that records the method
+     * that was called and the sizes of its input and output.
+     */
+    public enum Operation {
+        /**
+         * {@code CollectorCombine}: the combiner of one of the collectors in {@link Collider}
+         * merged two partial results of a parallel stream. The input size is the size of the
+         * right-hand result.
+         */
+        COLLECTOR_COMBINE,
+
+        /**
+         * {@code MapMerge}: {@link ClojureMap#merge} or {@link ClojureMap#mergeWith}. The input
+         * size is the total size of the maps that were merged into the receiver.
+         */
+        MAP_MERGE,
+
+        /**
+         * {@code BulkRebuild}: a method such as {@link ClojureMap#filterKeys} or {@link
+         * ClojureList#map} that builds a new collection from every element of an existing one.
+         * The input size is the size of the existing collection.
+         */
+        BULK_REBUILD,
+
+        /**
+         * {@code TransientPersist}: a transient collection was converted to a persistent one, as
+         * in {@link TransientMap#toPersistent}. The input size is the size of the collection.
+         */
+        TRANSIENT_PERSIST
+    }
+
+    private final boolean enabled;
+    private final long[] counts;
+    private final long[] elements;
+    private final long[] nanos;
+
+    Metrics(boolean enabled, long[] counts, long[] elements, long[] nanos) {
+        this.enabled = enabled;
+        this.counts = counts;
+        this.elements = elements;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns whether counters are being kept.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the number of times that {@code operation} has completed.
+     */
+    public long count(Operation operation) {
+        return counts[operation.ordinal()];
+    }
+
+    /**
+     * Returns the total input size of every completed {@code operation}.
+     */
+    public long elements(Operation operation) {
+        return elements[operation.ordinal()];
+    }
+
+    /**
+     * Returns the total time spent in {@code operation}, in nanoseconds.
+     */
+    public long nanos(Operation operation) {
+        return nanos[operation.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        Map<Operation, String> ret = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            ret.put(operation, "{count=" + count(operation) + ", elements=" + elements(operation) + ", nanos=" + nanos(operation) + "}");
+        }
+        return ret.toString();
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.rschmitt.collider;
+
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.concurrent.Immutable;
+
+import clojure.lang.HashTries;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentSet;
+
+/**
+ * A lazy sequence of transformations over the elements of a Collider collection, in the style of
+ * Clojure's transducers. Methods such as {@link #map} and {@link #filter} only describe a stage
+ * and return a new pipeline; nothing is computed until a terminal method such as {@link #toList}
+ * is called. At that point, every stage is fused into a single pass over the source, and the
+ * results are written straight into one transient collection, so no intermediate collection is
+ * ever built. That collection comes from the same {@link Backend} as the source.
+ * <p/>
+ * {@link #take} and {@link #takeWhile} end the traversal early, without reading the rest of the
+ * source. A pipeline can be made to run in parallel with {@link #parallel}, in which case the
+ * source is split along the boundaries of its underlying trie, as in {@link ClojureList#fold};
+ * since taking a prefix of the input is inherently sequential, a pipeline that contains either of
+ * these stages always runs sequentially.
+ * <p/>
+ * Pipelines are immutable and may be run any number of times; each run reads the source afresh.
+ */
+@Immutable
+public final class Pipeline<T> {
+    private static final int PARALLELISM_THRESHOLD = 512;
+
+    /**
+     * A stage of a pipeline, which receives one element at a time and returns false once it does
+     * not want to receive any more.
+     */
+    @FunctionalInterface
+    private interface Sink<T> {
+        boolean accept(T t);
+    }
+
+    private final Supplier<Spliterator<?>> source;
+    private final Backend backend;
+    private final Function<Sink<? super T>, Sink<Object>> stages;
+    private final boolean shortCircuiting;
+    private final boolean parallel;
+
+    private Pipeline(Supplier<Spliterator<?>> source,
+                     Backend backend,
+                     Function<Sink<? super T>, Sink<Object>> stages,
+                     boolean shortCircuiting,
+                     boolean parallel) {
+        this.source = source;
+        this.backend = backend;
+        this.stages = stages;
+        this.shortCircuiting = shortCircuiting;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns a pipeline over the elements of {@code source}, whose terminal methods build
+     * collections with {@code backend}.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Pipeline<T> of(Supplier<? extends Spliterator<? extends T>> source, Backend backend) {
+        return new Pipeline<>(source::get, backend, sink -> (Sink<Object>) sink, false, false);
+    }
+
+    private <R> Pipeline<R> then(Function<Sink<? super R>, Sink<T>> stage, boolean shortCircuiting) {
+        return new Pipeline<>(source, backend, sink -> stages.apply(stage.apply(sink)), this.shortCircuiting || shortCircuiting, parallel);
+    }
+
+    /**
+     * Returns a pipeline that applies {@code f} to each element.
+     */
+    public <R> Pipeline<R> map(Function<? super T, ? extends R> f) {
+        return then(sink -> t -> sink.accept(f.apply(t)), false);
+    }
+
+    /**
+     * Returns a pipeline that only passes on the elements matching {@code p}.
+     */
+    public Pipeline<T> filter(Predicate<? super T> p) {
+        return then(sink -> t -> !p.test(t) || sink.accept(t), false);
+    }
+
+    /**
+     * Returns a pipeline that passes on none of the elements matching {@code p}.
+     */
+    public Pipeline<T> exclude(Predicate<? super T> p) {
+        return filter(p.negate());
+    }
+
+    /**
+     * Returns a pipeline that passes on at most the first {@code n} elements, and then stops.
+     *
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public Pipeline<T> take(long n) {
+        if (n < 0) throw new IllegalArgumentException("Negative count: " + n);
+        return then(sink -> {
+            long[] remaining = {n};
+            return t -> remaining[0] > 0 && sink.accept(t) && --remaining[0] > 0;
+        }, true);
+    }
+
+    /**
+     * Returns a pipeline that passes on elements for as long as they match {@code p}, and stops at
+     * the first one that does not.
+     */
+    public Pipeline<T> takeWhile(Predicate<? super T> p) {
+        return then(sink -> t -> p.test(t) && sink.accept(t), true);
+    }
+
+    /**
+     * Returns an equivalent pipeline that runs in parallel, unless it contains a {@link #take} or
+     * {@link #takeWhile} stage.
+     */
+    public Pipeline<T> parallel() {
+        return new Pipeline<>(source, backend, stages, shortCircuiting, true);
+    }
+
+    /**
+     * Runs this pipeline, returning a list of its output in encounter order.
+     */
+    public ClojureList<T> toList() {
+        return run(() -> new TransientList<T>(backend), TransientList::append, TransientList::toPersistent, ClojureList::concat);
+    }
+
+    /**
+     * Runs this pipeline, returning a set of its output.
+     */
+    public ClojureSet<T> toSet() {
+        return run(() -> new TransientSet<T>(backend), TransientSet::add, TransientSet::toPersistent,
+                (left, right) -> ClojureSet.wrap(HashTries.union((IPersistentSet) left.unwrap(), (IPersistentSet) right.unwrap())));
+    }
+
+    /**
+     * Runs this pipeline, returning a map from {@code keyMapper} to {@code valueMapper} of each
+     * output element. If two elements produce the same key, the later one takes precedence.
+     */
+    public <K, V> ClojureMap<K, V> toMap(Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valueMapper) {
+        return run(() -> new TransientMap<K, V>(backend, 0), (tr, t) -> tr.put(keyMapper.apply(t), valueMapper.apply(t)), TransientMap::toPersistent,
+                (left, right) -> ClojureMap.wrap(HashTries.merge((IPersistentMap) left.unwrap(), (IPersistentMap) right.unwrap())));
+    }
+
+    /**
+     * Runs this pipeline, returning the number of elements it outputs.
+     */
+    public long count() {
+        return run(() -> new long[1], (n, t) -> n[0]++, n -> n[0], Long::sum);
+    }
+
+    @FunctionalInterface
+    private interface Accumulator<A, T> {
+        void add(A acc, T t);
+    }
+
+    private <A, R> R run(Supplier<A> supplier, Accumulator<A, ? super T> accumulator, Function<A, R> finisher, BinaryOperator<R> combiner) {
+        Function<Spliterator<Object>, R> reducer = spliterator -> {
+            A acc = supplier.get();
+            Sink<Object> sink = stages.apply(t -> {
+                accumulator.add(acc, t);
+                return true;
+            });
+            if (shortCircuiting) {
+                boolean[] more = {true};
+                while (more[0] && spliterator.tryAdvance(t -> more[0] = sink.accept(t))) continue;
+            } else {
+                spliterator.forEachRemaining(sink::accept);
+            }
+            return finisher.apply(acc);
+        };
+        Spliterator<Object> spliterator = Fold.cast(source.get());
+        if (!parallel || shortCircuiting) return reducer.apply(spliterator);
+        return Fold.fold(spliterator, reducer, combiner, PARALLELISM_THRESHOLD, ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.rschmitt.collider;
+
+import java.util.Spliterator;
+import java.util.function.IntFunction;
+
+/**
+ * A persistent vector trie with the same shape as Clojure's {@link clojure.lang.PersistentVector}:
+ * 32-way branching internal nodes, plus a tail that holds the last partial leaf. The difference is
+ * that leaves are primitive arrays (an {@code int[]}, {@code long[]} or {@code double[]} of length
+ * 32), so elements are stored unboxed. This is the structure behind {@link ClojureIntList}, {@link
+ * ClojureLongList} and {@link ClojureDoubleList}.
+ * <p/>
+ * This class only knows how to allocate and copy leaves; it never reads or writes an element. An
+ * operation that adds or replaces an element returns a structure in which the array containing the
+ * target slot is freshly copied (or owned by the transient), and the caller stores the element
+ * into that array before publishing the result.
+ */
+final class PrimitiveVector {
+    static final class Node {
+        final Object edit;
+        final Object array;
+
+        Node(Object edit, Object array) {
+            this.edit = edit;
+            this.array = array;
+        }
+    }
+
+    final IntFunction<Object> newArray;
+    final int count;
+    final int shift;
+    final Node root;
+    final Object tail;
+
+    private PrimitiveVector(IntFunction<Object> newArray, int count, int shift, Node root, Object tail) {
+        this.newArray = newArray;
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    static PrimitiveVector empty(IntFunction<Object> newArray) {
+        return new PrimitiveVector(newArray, 0, 5, new Node(null, new Object[32]), newArray.apply(0));
+    }
+
+    private static int tailoff(int count) {
+        return count < 32 ? 0 : ((count - 1) >>> 5) << 5;
+    }
+
+    /**
+     * Returns the leaf (or tail) holding the element at {@code index}; the element itself is at
+     * position {@code index & 31} of the returned array.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds
+     */
+    Object arrayFor(int index) {
+        return arrayFor(index, count, shift, root, tail);
+    }
+
+    private static Object arrayFor(int index, int count, int shift, Node root, Object tail) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        if (index >= tailoff(count)) return tail;
+        Node node = root;
+        for (int level = shift; level > 0; level -= 5) {
+            node = (Node) ((Object[]) node.array)[(index >>> level) & 31];
+        }
+        return node.array;
+    }
+
+    /**
+     * Returns a copy of this vector with one more element. The new element's slot, at position
+     * {@code count & 31} of the returned vector's tail, is zeroed and must be filled in by the
+     * caller.
+     */
+    PrimitiveVector grow() {
+        int tailLength = count - tailoff(count);
+        if (tailLength < 32) {
+            Object newTail = newArray.apply(tailLength + 1);
+            System.arraycopy(tail, 0, newTail, 0, tailLength);
+            return new PrimitiveVector(newArray, count + 1, shift, root, newTail);
+        }
+        Node tailNode = new Node(null, tail);
+        if ((count >>> 5) > (1 << shift)) {
+            Object[] array = new Object[32];
+            array[0] = root;
+            array[1] = newPath(null, shift, tailNode);
+            return new PrimitiveVector(newArray, count + 1, shift + 5, new Node(null, array), newArray.apply(1));
+        }
+        Node newRoot = pushTail(null, count, shift, root, tailNode);
+        return new PrimitiveVector(newArray, count + 1, shift, newRoot, newArray.apply(1));
+    }
+
+    /**
+     * Returns a copy of this vector in which the array holding {@code index} has been copied, so
+     * that the caller can overwrite that element.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds
+     */
+    PrimitiveVector copyPath(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        int tailoff = tailoff(count);
+        if (index >= tailoff) {
+            Object newTail = newArray.apply(count - tailoff);
+            System.arraycopy(tail, 0, newTail, 0, count - tailoff);
+            return new PrimitiveVector(newArray, count, shift, root, newTail);
+        }
+        return new PrimitiveVector(newArray, count, shift, editPath(null, shift, root, index), tail);
+    }
+
+    /**
+     * Appends a full leaf to the trie rooted at {@code parent}, which holds {@code count} elements
+     * including the ones in {@code tailNode}.
+     */
+    private static Node pushTail(Object edit, int count, int level, Node parent, Node tailNode) {
+        Node ret = editable(edit, parent, level, null);
+        Object[] array = (Object[]) ret.array;
+        int subidx = ((count - 1) >>> level) & 31;
+        if (level == 5) {
+            array[subidx] = tailNode;
+        } else {
+            Node child = (Node) array[subidx];
+            array[subidx] = child != null
+                    ? pushTail(edit, count, level - 5, child, tailNode)
+                    : newPath(edit, level - 5, tailNode);
+        }
+        return ret;
+    }
+
+    private static Node newPath(Object edit, int level, Node node) {
+        if (level == 0) return node;
+        Object[] array = new Object[32];
+        array[0] = newPath(edit, level - 5, node);
+        return new Node(edit, array);
+    }
+
+    /**
+     * Returns the path from {@code node} down to the leaf holding {@code index}, copying every node
+     * on it that is not owned by {@code edit}.
+     */
+    private static Node editPath(Object edit, int level, Node node, int index, IntFunction<Object> newArray) {
+        Node ret = editable(edit, node, level, newArray);
+        if (level > 0) {
+            Object[] array = (Object[]) ret.array;
+            int subidx = (index >>> level) & 31;
+            array[subidx] = editPath(edit, level - 5, (Node) array[subidx], index, newArray);
+        }
+        return ret;
+    }
+
+    private Node editPath(Object edit, int level, Node node, int index) {
+        return editPath(edit, level, node, index, newArray);
+    }
+
+    private static Node editable(Object edit, Node node, int level, IntFunction<Object> newArray) {
+        if (edit != null && node.edit == edit) return node;
+        if (level > 0) return new Node(edit, ((Object[]) node.array).clone());
+        Object array = newArray.apply(32);
+        System.arraycopy(node.array, 0, array, 0, 32);
+        return new Node(edit, array);
+    }
+
+    /**
+     * The mutable counterpart of {@link PrimitiveVector}. Nodes created or copied by a transient
+     * carry its edit token and are modified in place from then on; the tail is always a full
+     * 32-element array, which is trimmed when the transient is made persistent.
+     */
+    static final class Transient {
+        private final IntFunction<Object> newArray;
+        private Object edit = new Object();
+        private int count;
+        private int shift;
+        private Node root;
+        private Object tail;
+
+        Transient(PrimitiveVector vector) {
+            this.newArray = vector.newArray;
+            this.count = vector.count;
+            this.shift = vector.shift;
+            this.root = new Node(edit, ((Object[]) vector.root.array).clone());
+            this.tail = newArray.apply(32);
+            System.arraycopy(vector.tail, 0, tail, 0, vector.count - tailoff(vector.count));
+        }
+
+        int size() {
+            ensureEditable();
+            return count;
+        }
+
+        /**
+         * Returns the array holding the element at {@code index}, for reading only.
+         */
+        Object arrayFor(int index) {
+            ensureEditable();
+            return PrimitiveVector.arrayFor(index, count, shift, root, tail);
+        }
+
+        /**
+         * Returns the array holding the element at {@code index}, taking ownership of it first so
+         * that the caller can overwrite that element in place.
+         */
+        Object editableArrayFor(int index) {
+            ensureEditable();
+            if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            if (index >= tailoff(count)) return tail;
+            root = editPath(edit, shift, root, index, newArray);
+            return PrimitiveVector.arrayFor(index, count, shift, root, tail);
+        }
+
+        /**
+         * Adds one element to the end of this vector and returns the tail, in which the caller must
+         * store it at position {@code (size() - 1) & 31}.
+         */
+        Object grow() {
+            ensureEditable();
+            if (count - tailoff(count) < 32) {
+                count++;
+                return tail;
+            }
+            Node tailNode = new Node(edit, tail);
+            tail = newArray.apply(32);
+            if ((count >>> 5) > (1 << shift)) {
+                Object[] array = new Object[32];
+                array[0] = root;
+                array[1] = newPath(edit, shift, tailNode);
+                root = new Node(edit, array);
+                shift += 5;
+            } else {
+                root = pushTail(edit, count, shift, root, tailNode);
+            }
+            count++;
+            return tail;
+        }
+
+        PrimitiveVector persistent() {
+            ensureEditable();
+            edit = null;
+            int tailLength = count - tailoff(count);
+            Object trimmedTail = newArray.apply(tailLength);
+            System.arraycopy(tail, 0, trimmedTail, 0, tailLength);
+            return new PrimitiveVector(newArray, count, shift, root, trimmedTail);
+        }
+
+        private void ensureEditable() {
+            if (edit == null) throw new IllegalAccessError("Transient used after persistent! call");
+        }
+    }
+
+    /**
+     * A spliterator over a range of indices of a vector, which reads a whole leaf at a time and
+     * splits on leaf boundaries.
+     */
+    static abstract class RangeSpliterator {
+        final PrimitiveVector vector;
+        int index;
+        final int end;
+
+        RangeSpliterator(PrimitiveVector vector, int index, int end) {
+            this.vector = vector;
+            this.index = index;
+            this.end = end;
+        }
+
+        /**
+         * Returns the index at which to split off the first half of the remaining range, or -1 if
+         * the range is too small to split.
+         */
+        final int splitPoint() {
+            int mid = ((index + end) >>> 1) & ~31;
+            return mid <= index ? -1 : mid;
+        }
+
+        public final long estimateSize() {
+            return end - index;
+        }
+
+        public final int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.github.rschmitt.collider;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import clojure.lang.IMapEntry;
+import clojure.lang.ISeq;
+import clojure.lang.PersistentTreeMap;
+import clojure.lang.TreeMaps;
+
+/**
+ * A read-only {@link NavigableMap} over a range of a {@link PersistentTreeMap}, in either
+ * direction. This backs {@link ClojureSortedMap} and {@link ClojureSortedSet}, and it is also the
+ * type of their range views. Since the underlying tree is immutable, views are never invalidated,
+ * and creating one takes constant time regardless of how many entries it covers. Navigation
+ * methods take O(log n) time; {@link #size} takes time proportional to the size of the range, and
+ * is computed once.
+ * <p/>
+ * The bounds logic mirrors that of {@link java.util.TreeMap}'s own submaps: every operation is
+ * first expressed in terms of the underlying ascending order, and descending views swap the
+ * roles of the low and high ends.
+ */
+@Immutable
+final class SortedView<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    final PersistentTreeMap tree;
+    private final Comparator<Object> comp;
+    private final Comparator<? super K> comparator;
+    private final boolean fromStart, loInclusive;
+    private final K lo;
+    private final boolean toEnd, hiInclusive;
+    private final K hi;
+    private final boolean descending;
+    private int size = -1;
+
+    SortedView(PersistentTreeMap tree, Comparator<? super K> comparator) {
+        this(tree, comparator, true, null, true, true, null, true, false);
+    }
+
+    private SortedView(PersistentTreeMap tree, Comparator<? super K> comparator,
+                       boolean fromStart, K lo, boolean loInclusive,
+                       boolean toEnd, K hi, boolean hiInclusive,
+                       boolean descending) {
+        if (!fromStart && !toEnd && TreeMaps.comparator(tree).compare(lo, hi) > 0) throw new IllegalArgumentException("fromKey > toKey");
+        this.tree = tree;
+        this.comp = TreeMaps.comparator(tree);
+        this.comparator = comparator;
+        this.fromStart = fromStart;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.toEnd = toEnd;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    private boolean isUnbounded() {
+        return fromStart && toEnd;
+    }
+
+    ////////////////////////////////
+    // Range checks, in ascending order
+    ////////////////////////////////
+
+    private boolean tooLow(Object key) {
+        if (fromStart) return false;
+        int c = comp.compare(key, lo);
+        return c < 0 || (c == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(Object key) {
+        if (toEnd) return false;
+        int c = comp.compare(key, hi);
+        return c > 0 || (c == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(Object key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    private boolean inClosedRange(Object key) {
+        return (fromStart || comp.compare(key, lo) >= 0) && (toEnd || comp.compare(hi, key) >= 0);
+    }
+
+    private boolean inRange(Object key, boolean inclusive) {
+        return inclusive ? inRange(key) : inClosedRange(key);
+    }
+
+    ////////////////////////////////
+    // Navigation, in ascending order
+    ////////////////////////////////
+
+    private IMapEntry absLowest() {
+        IMapEntry e = fromStart ? TreeMaps.first(tree) : TreeMaps.ceiling(tree, lo, loInclusive);
+        return e == null || tooHigh(e.key()) ? null : e;
+    }
+
+    private IMapEntry absHighest() {
+        IMapEntry e = toEnd ? TreeMaps.last(tree) : TreeMaps.floor(tree, hi, hiInclusive);
+        return e == null || tooLow(e.key()) ? null : e;
+    }
+
+    private IMapEntry absCeiling(Object key, boolean inclusive) {
+        if (tooLow(key)) return absLowest();
+        IMapEntry e = TreeMaps.ceiling(tree, key, inclusive);
+        return e == null || tooHigh(e.key()) ? null : e;
+    }
+
+    private IMapEntry absFloor(Object key, boolean inclusive) {
+        if (tooHigh(key)) return absHighest();
+        IMapEntry e = TreeMaps.floor(tree, key, inclusive);
+        return e == null || tooLow(e.key()) ? null : e;
+    }
+
+    ////////////////////////////////
+    // Navigation, in this view's order
+    ////////////////////////////////
+
+    private IMapEntry lowest() {
+        return descending ? absHighest() : absLowest();
+    }
+
+    private IMapEntry highest() {
+        return descending ? absLowest() : absHighest();
+    }
+
+    private IMapEntry ceiling(Object key, boolean inclusive) {
+        return descending ? absFloor(key, inclusive) : absCeiling(key, inclusive);
+    }
+
+    private IMapEntry floor(Object key, boolean inclusive) {
+        return descending ? absCeiling(key, inclusive) : absFloor(key, inclusive);
+    }
+
+    /**
+     * Copies a tree node into a {@link SimpleImmutableEntry}, as {@link java.util.TreeMap} does.
+     * The nodes themselves are Clojure map entries, which compare and hash as two-element vectors
+     * rather than following the contract of {@link Entry}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Entry<K, V> entry(IMapEntry e) {
+        return e == null ? null : new SimpleImmutableEntry<>((K) e.key(), (V) e.val());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K key(IMapEntry e) {
+        return e == null ? null : (K) e.key();
+    }
+
+    private static <K> K keyOrThrow(IMapEntry e) {
+        if (e == null) throw new NoSuchElementException();
+        return key(e);
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return entry(floor(key, false));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return key(floor(key, false));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return entry(floor(key, true));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return key(floor(key, true));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return entry(ceiling(key, true));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return key(ceiling(key, true));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return entry(ceiling(key, false));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return key(ceiling(key, false));
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return entry(lowest());
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return entry(highest());
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOrThrow(lowest());
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOrThrow(highest());
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        if (!descending) return comparator;
+        return comparator == null ? Collections.reverseOrder() : Collections.reverseOrder(comparator);
+    }
+
+    ////////////////////////////////
+    // Views
+    ////////////////////////////////
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new SortedView<>(tree, comparator, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (!inRange(fromKey, fromInclusive)) throw new IllegalArgumentException("fromKey out of range");
+        if (!inRange(toKey, toInclusive)) throw new IllegalArgumentException("toKey out of range");
+        if (descending) return new SortedView<>(tree, comparator, false, toKey, toInclusive, false, fromKey, fromInclusive, true);
+        return new SortedView<>(tree, comparator, false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        if (!inRange(toKey, inclusive)) throw new IllegalArgumentException("toKey out of range");
+        if (descending) return new SortedView<>(tree, comparator, false, toKey, inclusive, toEnd, hi, hiInclusive, true);
+        return new SortedView<>(tree, comparator, fromStart, lo, loInclusive, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        if (!inRange(fromKey, inclusive)) throw new IllegalArgumentException("fromKey out of range");
+        if (descending) return new SortedView<>(tree, comparator, fromStart, lo, loInclusive, false, fromKey, inclusive, true);
+        return new SortedView<>(tree, comparator, false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeyView<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    ////////////////////////////////
+    // Map methods
+    ////////////////////////////////
+
+    @Override
+    public int size() {
+        if (isUnbounded()) return tree.count();
+        int size = this.size;
+        if (size < 0) {
+            size = 0;
+            for (Iterator<IMapEntry> it = entries(); it.hasNext(); it.next()) size++;
+            this.size = size;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lowest() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return inRange(key) && tree.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return inRange(key) ? (V) tree.valAt(key) : null;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                Iterator<IMapEntry> entries = entries();
+                return new Iterator<Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        return entry(entries.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SortedView.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return SortedView.this.isEmpty();
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over the entries of this view, in this view's order. The walk starts
+     * from a seq positioned at the first entry in range, found in O(log n) time, and stops at the
+     * first entry past the other end of the range.
+     */
+    Iterator<IMapEntry> entries() {
+        IMapEntry first = lowest();
+        ISeq seq = first == null ? null : tree.seqFrom(first.key(), !descending);
+        return new Iterator<IMapEntry>() {
+            private ISeq next = seq;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) return false;
+                Object key = ((IMapEntry) next.first()).key();
+                if (descending ? tooLow(key) : tooHigh(key)) next = null;
+                return next != null;
+            }
+
+            @Override
+            public IMapEntry next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                IMapEntry ret = (IMapEntry) next.first();
+                next = next.next();
+                return ret;
+            }
+        };
+    }
+
+    ////////////////////////////////
+    // Unsupported operations
+    ////////////////////////////////
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.rschmitt.collider;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A list of primitive {@code int}s that can be modified in-place and then converted to a {@link
+ * ClojureIntList} in O(1) time.
+ * <p/>
+ * Instances of this class are not thread-safe; it is recommended that this class be used in a
+ * thread-local fashion. It is permitted to use this class from multiple threads, and this is safe
+ * as long as access is correctly synchronized.
+ */
+@NotThreadSafe
+public class TransientIntList {
+    private final PrimitiveVector.Transient delegate;
+
+    TransientIntList(PrimitiveVector.Transient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Add {@code value} to the end of this list.
+     */
+    public void append(int value) {
+        int[] tail = (int[]) delegate.grow();
+        tail[(delegate.size() - 1) & 31] = value;
+    }
+
+    /**
+     * Add all elements in {@code values} to the end of this list, in order.
+     */
+    public void appendAll(int... values) {
+        for (int value : values) {
+            append(value);
+        }
+    }
+
+    /**
+     * Replaces the element currently at position {@code index} in this list with {@code value}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public void set(int index, int value) {
+        ((int[]) delegate.editableArrayFor(index))[index & 31] = value;
+    }
+
+    /**
+     * Returns the element currently at position {@code index} in this list.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public int get(int index) {
+        return ((int[]) delegate.arrayFor(index))[index & 31];
+    }
+
+    /**
+     * Returns the number of elements currently in this list.
+     */
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * Returns a persistent immutable version of this TransientIntList. This operation is performed
+     * in constant time. Note that after this method is called, this transient instance will no
+     * longer be usable and attempts to modify it will fail.
+     */
+    public ClojureIntList toPersistent() {
+        return new ClojureIntList(delegate.persistent());
+    }
+}
@@ -4,10 +4,14 @@ import java.util.Collection;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import clojure.lang.IEditableCollection;
 import clojure.lang.IPersistentCollection;
 import clojure.lang.IPersistentVector;
 import clojure.lang.ITransientVector;
 import clojure.lang.PersistentVector;
+import clojure.lang.VectorTries;
 
 /**
  * A list that can be modified in-place and then converted to a {@link ClojureList} in O(1) time.
@@ -23,7 +27,11 @@ public class TransientList<T> {
     private volatile ITransientVector delegate;
 
     TransientList() {
-        this.delegate = PersistentVector.EMPTY.asTransient();
+        this(Backend.defaultBackend());
+    }
+
+    TransientList(Backend backend) {
+        this.delegate = (ITransientVector) ((IEditableCollection) backend.emptyList()).asTransient();
     }
 
     TransientList(ITransientVector delegate) {
@@ -47,6 +55,36 @@ public class TransientList<T> {
         }
     }
 
+    /**
+     * Appends all elements of {@code other} to the end of this list. If both lists are backed by
+     * {@link PersistentVector}s, the two underlying vector tries are concatenated rather than
+     * appending each element individually. Afterwards, {@code other} is no longer usable.
+     */
+    void absorb(TransientList<? extends T> other) {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.COLLECTOR_COMBINE, "TransientList.absorb") : null;
+        IPersistentCollection right = other.delegate.persistent();
+        concat(right);
+        if (Events.ENABLED) span.end(right.count(), delegate.count());
+    }
+
+    private void concat(IPersistentCollection right) {
+        if (!(right instanceof PersistentVector)) {
+            for (Object t : (Iterable<?>) right) {
+                delegate = (ITransientVector) delegate.conj(t);
+            }
+            return;
+        }
+        IPersistentCollection left = delegate.persistent();
+        if (left instanceof PersistentVector) {
+            delegate = (ITransientVector) ((IEditableCollection) VectorTries.concat((PersistentVector) left, (PersistentVector) right)).asTransient();
+            return;
+        }
+        delegate = (ITransientVector) ((IEditableCollection) left).asTransient();
+        for (Object t : (Iterable<?>) right) {
+            delegate = (ITransientVector) delegate.conj(t);
+        }
+    }
+
     /**
      * Returns the element currently at position {@code index} in this list.
      *
@@ -78,8 +116,10 @@ public class TransientList<T> {
      * be usable and attempts to modify it will fail.
      */
     public ClojureList<T> toPersistent() {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.TRANSIENT_PERSIST, "TransientList.toPersistent") : null;
         IPersistentCollection persistent = delegate.persistent();
         IPersistentVector asVector = (IPersistentVector) persistent;
+        if (Events.ENABLED) span.end(asVector.count(), asVector.count());
         return ClojureList.wrap(asVector);
     }
 }
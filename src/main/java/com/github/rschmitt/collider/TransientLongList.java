@@ -0,0 +1,71 @@
+package com.github.rschmitt.collider;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A list of primitive {@code long}s that can be modified in-place and then converted to a {@link
+ * ClojureLongList} in O(1) time.
+ * <p/>
+ * Instances of this class are not thread-safe; it is recommended that this class be used in a
+ * thread-local fashion. It is permitted to use this class from multiple threads, and this is safe
+ * as long as access is correctly synchronized.
+ */
+@NotThreadSafe
+public class TransientLongList {
+    private final PrimitiveVector.Transient delegate;
+
+    TransientLongList(PrimitiveVector.Transient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Add {@code value} to the end of this list.
+     */
+    public void append(long value) {
+        long[] tail = (long[]) delegate.grow();
+        tail[(delegate.size() - 1) & 31] = value;
+    }
+
+    /**
+     * Add all elements in {@code values} to the end of this list, in order.
+     */
+    public void appendAll(long... values) {
+        for (long value : values) {
+            append(value);
+        }
+    }
+
+    /**
+     * Replaces the element currently at position {@code index} in this list with {@code value}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public void set(int index, long value) {
+        ((long[]) delegate.editableArrayFor(index))[index & 31] = value;
+    }
+
+    /**
+     * Returns the element currently at position {@code index} in this list.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds (<tt>index &lt; 0 || index &gt;= size()</tt>)
+     */
+    public long get(int index) {
+        return ((long[]) delegate.arrayFor(index))[index & 31];
+    }
+
+    /**
+     * Returns the number of elements currently in this list.
+     */
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * Returns a persistent immutable version of this TransientLongList. This operation is performed
+     * in constant time. Note that after this method is called, this transient instance will no
+     * longer be usable and attempts to modify it will fail.
+     */
+    public ClojureLongList toPersistent() {
+        return new ClojureLongList(delegate.persistent());
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.rschmitt.collider;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.github.rschmitt.collider.LongTrie.Delta;
+import com.github.rschmitt.collider.LongTrie.Node;
+import com.github.rschmitt.collider.Metrics.Operation;
+
+/**
+ * A long-keyed map that can be modified in-place and then converted to a {@link ClojureLongMap} in
+ * O(1) time.
+ * <p/>
+ * Instances of this class are not thread-safe; it is recommended that this class be used in a
+ * thread-local fashion. It is permitted to use this class from multiple threads, and this is safe
+ * as long as access is correctly synchronized.
+ */
+@NotThreadSafe
+public class TransientLongMap<V> {
+    private static final Object NOT_FOUND = new Object();
+
+    private final Delta delta = new Delta();
+    private volatile Object edit = new Object();
+    private volatile Node root;
+
+    TransientLongMap(Node root, int count) {
+        this.root = root;
+        this.delta.size = count;
+    }
+
+    /**
+     * Add a binding from {@code key} to {@code value} to this map, overwriting any existing
+     * binding for {@code key}.
+     */
+    public void put(long key, V value) {
+        root = LongTrie.assoc(root, LongTrie.toTrieKey(key), value, null, ensureEditable(), delta);
+    }
+
+    /**
+     * Removes {@code key} from this map. If {@code key} is not present, this operation does nothing.
+     */
+    public void remove(long key) {
+        root = LongTrie.without(root, LongTrie.toTrieKey(key), ensureEditable(), delta);
+    }
+
+    /**
+     * Copies all bindings from {@code other} into this map, overwriting existing bindings, by
+     * merging the two underlying tries rather than inserting each entry individually. Afterwards,
+     * {@code other} is no longer usable.
+     */
+    void absorb(TransientLongMap<? extends V> other) {
+        ensureEditable();
+        other.ensureEditable();
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.COLLECTOR_COMBINE, "TransientLongMap.absorb") : null;
+        int absorbed = other.delta.size;
+        delta.size += other.delta.size;
+        root = LongTrie.merge(root, other.root, delta);
+        // The merged trie may hold nodes owned by either transient under unowned branches, so
+        // neither of them can be allowed to modify those nodes in place again.
+        edit = new Object();
+        other.edit = null;
+        if (Events.ENABLED) span.end(absorbed, delta.size);
+    }
+
+    /**
+     * Returns the value currently associated with {@code key} in this map, or {@code null} if none
+     * exists.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        ensureEditable();
+        return (V) LongTrie.get(root, LongTrie.toTrieKey(key), null);
+    }
+
+    /**
+     * Returns whether there is currently an entry for {@code key} in this map.
+     */
+    public boolean contains(long key) {
+        ensureEditable();
+        return LongTrie.get(root, LongTrie.toTrieKey(key), NOT_FOUND) != NOT_FOUND;
+    }
+
+    /**
+     * Returns the number of entries currently in this map.
+     */
+    public int size() {
+        ensureEditable();
+        return delta.size;
+    }
+
+    /**
+     * Returns a persistent immutable version of this TransientLongMap. This operation is performed
+     * in constant time. Note that after this method is called, this transient instance will no
+     * longer be usable and attempts to modify it will fail.
+     */
+    public ClojureLongMap<V> toPersistent() {
+        ensureEditable();
+        edit = null;
+        if (Events.ENABLED) Events.begin(Operation.TRANSIENT_PERSIST, "TransientLongMap.toPersistent").end(delta.size, delta.size);
+        return new ClojureLongMap<>(root, delta.size);
+    }
+
+    private Object ensureEditable() {
+        Object edit = this.edit;
+        if (edit == null) throw new IllegalAccessError("Transient used after persistent! call");
+        return edit;
+    }
+}
@@ -1,11 +1,20 @@
 package com.github.rschmitt.collider;
 
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import clojure.lang.Box;
+import clojure.lang.HashTries;
+import clojure.lang.IEditableCollection;
+import clojure.lang.IPersistentMap;
 import clojure.lang.ITransientMap;
-import clojure.lang.PersistentArrayMap;
+import clojure.lang.TransientMaps;
 
 /**
  * A map that can be modified in-place and then converted to a {@link ClojureMap} in O(1) time.
@@ -18,10 +27,21 @@ import clojure.lang.PersistentArrayMap;
  */
 @NotThreadSafe
 public class TransientMap<K, V> {
+    private static final Object NOT_FOUND = new Object();
+
     private volatile ITransientMap delegate;
+    private final Box updated = new Box(null);
 
     TransientMap() {
-        this.delegate = PersistentArrayMap.EMPTY.asTransient();
+        this(0);
+    }
+
+    TransientMap(int expectedSize) {
+        this(Backend.defaultBackend(), expectedSize);
+    }
+
+    TransientMap(Backend backend, int expectedSize) {
+        this.delegate = (ITransientMap) ((IEditableCollection) backend.emptyMap(expectedSize)).asTransient();
     }
 
     TransientMap(ITransientMap delegate) {
@@ -45,6 +65,79 @@ public class TransientMap<K, V> {
         }
     }
 
+    /**
+     * If {@code key} is not present in this map, binds it to {@code value}; otherwise, binds it to
+     * the result of applying {@code f} to its current value and {@code value}. Returns the new
+     * value.
+     * <p/>
+     * Unlike {@link Map#merge}, a null result from {@code f} is stored like any other value rather
+     * than removing the binding. The key is looked up only once; {@code f} must not modify this
+     * map.
+     */
+    @SuppressWarnings("unchecked")
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> f) {
+        return update(key, old -> old == NOT_FOUND ? value : f.apply((V) old, value));
+    }
+
+    /**
+     * Binds {@code key} to the result of applying {@code f} to {@code key} and its current value,
+     * or {@code null} if there is none. Returns the new value.
+     * <p/>
+     * Unlike {@link Map#compute}, a null result from {@code f} is stored like any other value
+     * rather than removing the binding. The key is looked up only once; {@code f} must not modify
+     * this map.
+     */
+    @SuppressWarnings("unchecked")
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+        return update(key, old -> f.apply(key, old == NOT_FOUND ? null : (V) old));
+    }
+
+    /**
+     * If {@code key} is not present in this map, binds it to the result of applying {@code f} to
+     * {@code key}. Returns the value that {@code key} is bound to afterwards.
+     * <p/>
+     * Unlike {@link Map#computeIfAbsent}, a key bound to {@code null} is considered present, and a
+     * null result from {@code f} is stored like any other value. The key is looked up only once;
+     * {@code f} must not modify this map.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> f) {
+        return update(key, old -> old == NOT_FOUND ? f.apply(key) : old);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V update(K key, UnaryOperator<Object> f) {
+        delegate = TransientMaps.update(delegate, key, NOT_FOUND, f, updated);
+        V ret = (V) updated.val;
+        updated.val = null;
+        return ret;
+    }
+
+    /**
+     * Copies all bindings from {@code other} into this map, overwriting existing bindings, by
+     * merging the two underlying hash tries node by node rather than inserting each entry
+     * individually. Afterwards, {@code other} is no longer usable.
+     */
+    void absorb(TransientMap<? extends K, ? extends V> other) {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.COLLECTOR_COMBINE, "TransientMap.absorb") : null;
+        IPersistentMap right = other.delegate.persistent();
+        IPersistentMap merged = HashTries.merge(delegate.persistent(), right);
+        delegate = (ITransientMap) ((IEditableCollection) merged).asTransient();
+        if (Events.ENABLED) span.end(right.count(), merged.count());
+    }
+
+    /**
+     * Like {@link #absorb(TransientMap)}, but a key that is bound in both maps is bound to the
+     * result of applying {@code resolver} to its value in this map and its value in {@code other}.
+     */
+    @SuppressWarnings("unchecked")
+    void absorb(TransientMap<? extends K, ? extends V> other, BiFunction<? super V, ? super V, ? extends V> resolver) {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.COLLECTOR_COMBINE, "TransientMap.absorb") : null;
+        IPersistentMap right = other.delegate.persistent();
+        IPersistentMap merged = HashTries.merge(delegate.persistent(), right, (a, b) -> resolver.apply((V) a, (V) b));
+        delegate = (ITransientMap) ((IEditableCollection) merged).asTransient();
+        if (Events.ENABLED) span.end(right.count(), merged.count());
+    }
+
     /**
      * Removes {@code key} from this map. If {@code key} is not present, this operation does nothing.
      */
@@ -65,7 +158,6 @@ public class TransientMap<K, V> {
      * Returns whether there is currently an entry for {@code key} in this map.
      */
     public boolean contains(K key) {
-        Object NOT_FOUND = new Object();
         return delegate.valAt(key, NOT_FOUND) != NOT_FOUND;
     }
 
@@ -82,6 +174,9 @@ public class TransientMap<K, V> {
      * be usable and attempts to modify it will fail.
      */
     public ClojureMap<K, V> toPersistent() {
-        return ClojureMap.wrap(delegate.persistent());
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.TRANSIENT_PERSIST, "TransientMap.toPersistent") : null;
+        IPersistentMap ret = delegate.persistent();
+        if (Events.ENABLED) span.end(ret.count(), ret.count());
+        return ClojureMap.wrap(ret);
     }
 }
@@ -4,10 +4,13 @@ import java.util.Collection;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import clojure.lang.HashTries;
+import clojure.lang.IEditableCollection;
 import clojure.lang.IPersistentCollection;
 import clojure.lang.IPersistentSet;
 import clojure.lang.ITransientSet;
-import clojure.lang.PersistentHashSet;
 
 /**
  * A set that can be modified in-place and then converted to a {@link ClojureSet} in O(1) time.
@@ -23,7 +26,11 @@ public class TransientSet<T> {
     private volatile ITransientSet delegate;
 
     TransientSet() {
-        this.delegate = (ITransientSet) PersistentHashSet.EMPTY.asTransient();
+        this(Backend.defaultBackend());
+    }
+
+    TransientSet(Backend backend) {
+        this.delegate = (ITransientSet) ((IEditableCollection) backend.emptySet()).asTransient();
     }
 
     TransientSet(ITransientSet delegate) {
@@ -46,6 +53,19 @@ public class TransientSet<T> {
         }
     }
 
+    /**
+     * Adds all members of {@code other} to this set by merging the two underlying hash tries node
+     * by node rather than inserting each member individually. Afterwards, {@code other} is no
+     * longer usable.
+     */
+    void absorb(TransientSet<? extends T> other) {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.COLLECTOR_COMBINE, "TransientSet.absorb") : null;
+        IPersistentSet right = (IPersistentSet) other.delegate.persistent();
+        IPersistentSet merged = HashTries.union((IPersistentSet) delegate.persistent(), right);
+        delegate = (ITransientSet) ((IEditableCollection) merged).asTransient();
+        if (Events.ENABLED) span.end(right.count(), merged.count());
+    }
+
     /**
      * Returns whether {@code t} is currently a member of this set.
      */
@@ -73,8 +93,10 @@ public class TransientSet<T> {
      * be usable and attempts to modify it will fail.
      */
     public ClojureSet<T> toPersistent() {
+        Events.Span span = Events.ENABLED ? Events.begin(Operation.TRANSIENT_PERSIST, "TransientSet.toPersistent") : null;
         IPersistentCollection persistent = delegate.persistent();
         IPersistentSet asSet = (IPersistentSet) persistent;
+        if (Events.ENABLED) span.end(asSet.count(), asSet.count());
         return ClojureSet.wrap(asSet);
     }
 }
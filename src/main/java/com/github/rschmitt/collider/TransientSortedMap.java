@@ -0,0 +1,147 @@
+package com.github.rschmitt.collider;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import clojure.lang.PersistentTreeMap;
+import clojure.lang.TreeMaps;
+
+/**
+ * A sorted map that can be built up in-place and then converted to a {@link ClojureSortedMap}.
+ * <p/>
+ * Clojure's sorted maps do not support transients, so this class has a fast path for the most
+ * common way of building one: if it starts out empty and keys are put in ascending order, entries
+ * are simply appended to a buffer, and {@link #toPersistent} builds a balanced tree from that
+ * buffer in O(n) time. As soon as a key is put out of order, or a key is removed, the buffer is
+ * converted to a tree, and each subsequent change is applied to that tree in O(log n) time.
+ * <p/>
+ * Instances of this class are not thread-safe; it is recommended that this class be used in a
+ * thread-local fashion. It is permitted to use this class from multiple threads, and this is safe
+ * as long as access is correctly synchronized.
+ */
+@NotThreadSafe
+public class TransientSortedMap<K, V> {
+    private final Comparator<? super K> comparator;
+    private final Comparator<Object> comp;
+    private volatile PersistentTreeMap tree;
+    private Object[] keys;
+    private Object[] vals;
+    private int count;
+    private boolean persisted;
+
+    TransientSortedMap(PersistentTreeMap base, Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        this.comp = TreeMaps.comparator(base);
+        if (base.count() == 0) {
+            keys = new Object[16];
+            vals = new Object[16];
+        } else {
+            tree = base;
+        }
+    }
+
+    /**
+     * Add a binding from {@code key} to {@code value} to this map, overwriting any existing
+     * binding for {@code key}.
+     */
+    public void put(K key, V value) {
+        ensureEditable();
+        if (tree == null) {
+            int c = count == 0 ? -1 : comp.compare(keys[count - 1], key);
+            if (c < 0) {
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                    vals = Arrays.copyOf(vals, count * 2);
+                }
+                keys[count] = key;
+                vals[count] = value;
+                count++;
+                return;
+            }
+            if (c == 0) {
+                vals[count - 1] = value;
+                return;
+            }
+            flush();
+        }
+        tree = tree.assoc(key, value);
+    }
+
+    /**
+     * Copy all bindings from {@code map} into this map, overwriting existing bindings. If {@code
+     * map} is sorted by the same comparator as this map and this map is still empty, its entries
+     * are loaded in O(n) time.
+     */
+    public void putAll(Map<? extends K, ? extends V> map) {
+        map.forEach(this::put);
+    }
+
+    /**
+     * Removes {@code key} from this map. If {@code key} is not present, this operation does nothing.
+     */
+    public void remove(K key) {
+        ensureEditable();
+        flush();
+        tree = tree.without(key);
+    }
+
+    /**
+     * Returns the value currently associated with {@code key} in this map, or {@code null} if none
+     * exists.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        ensureEditable();
+        if (tree != null) return (V) tree.valAt(key);
+        int index = Arrays.binarySearch(keys, 0, count, key, comp);
+        return index < 0 ? null : (V) vals[index];
+    }
+
+    /**
+     * Returns whether there is currently an entry for {@code key} in this map.
+     */
+    public boolean contains(K key) {
+        ensureEditable();
+        if (tree != null) return tree.containsKey(key);
+        return Arrays.binarySearch(keys, 0, count, key, comp) >= 0;
+    }
+
+    /**
+     * Returns the number of entries currently in this map.
+     */
+    public int size() {
+        ensureEditable();
+        return tree != null ? tree.count() : count;
+    }
+
+    /**
+     * Returns a persistent immutable version of this TransientSortedMap. If every key was put in
+     * ascending order, this takes O(n) time; otherwise, it takes constant time. Note that after
+     * this method is called, this transient instance will no longer be usable and attempts to
+     * modify it will fail.
+     */
+    public ClojureSortedMap<K, V> toPersistent() {
+        return new ClojureSortedMap<>(persistentTree(), comparator);
+    }
+
+    PersistentTreeMap persistentTree() {
+        ensureEditable();
+        flush();
+        persisted = true;
+        return tree;
+    }
+
+    private void flush() {
+        if (tree != null) return;
+        tree = TreeMaps.fromSorted(comp, keys, vals, count);
+        keys = null;
+        vals = null;
+    }
+
+    private void ensureEditable() {
+        if (persisted) throw new IllegalAccessError("Transient used after persistent! call");
+    }
+}
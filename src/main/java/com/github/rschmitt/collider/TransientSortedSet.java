@@ -0,0 +1,76 @@
+package com.github.rschmitt.collider;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import clojure.lang.PersistentTreeMap;
+import clojure.lang.TreeMaps;
+
+/**
+ * A sorted set that can be built up in-place and then converted to a {@link ClojureSortedSet}. As
+ * with {@link TransientSortedMap}, elements that are added in ascending order to an initially
+ * empty set are buffered and then loaded in O(n) time.
+ * <p/>
+ * Instances of this class are not thread-safe; it is recommended that this class be used in a
+ * thread-local fashion. It is permitted to use this class from multiple threads, and this is safe
+ * as long as access is correctly synchronized.
+ */
+@NotThreadSafe
+public class TransientSortedSet<T> {
+    private final TransientSortedMap<T, T> delegate;
+    private final Comparator<? super T> comparator;
+
+    TransientSortedSet(PersistentTreeMap base, Comparator<? super T> comparator) {
+        this.delegate = new TransientSortedMap<>(base, comparator);
+        this.comparator = comparator;
+    }
+
+    /**
+     * Idempotently adds {@code t} to this set.
+     */
+    public void add(T t) {
+        delegate.put(t, t);
+    }
+
+    /**
+     * Adds all members of {@code collection} to this set.
+     */
+    public void addAll(Collection<? extends T> collection) {
+        for (T t : collection) {
+            add(t);
+        }
+    }
+
+    /**
+     * Returns whether {@code t} is currently a member of this set.
+     */
+    public boolean contains(T t) {
+        return delegate.contains(t);
+    }
+
+    /**
+     * Removes {@code t} from this set.
+     */
+    public void remove(T t) {
+        delegate.remove(t);
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     */
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * Returns a persistent immutable version of this TransientSortedSet. If every element was
+     * added in ascending order, this takes O(n) time; otherwise, it takes constant time. Note that
+     * after this method is called, this transient instance will no longer be usable and attempts
+     * to modify it will fail.
+     */
+    public ClojureSortedSet<T> toPersistent() {
+        return new ClojureSortedSet<>(TreeMaps.asSet(delegate.persistentTree()), comparator);
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.rschmitt.collider;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import clojure.lang.PersistentHashMap;
+import clojure.lang.SeqIterator;
+
+import static com.github.rschmitt.collider.Collider.transientList;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+final class Assumptions {
+    private static final boolean SHAREABLE_TRANSIENTS = shareableTransients();
+
+    private Assumptions() {
+    }
+
+    /**
+     * Skips the current test unless transients can be handed off between threads, as they are
+     * during parallel stream collection. This is true of Clojure 1.7.0-RC1 and later.
+     */
+    static void assumeShareableTransients() {
+        assumeTrue(SHAREABLE_TRANSIENTS, "Transients are confined to their owning thread");
+    }
+
+    /**
+     * Skips the current test unless the hash collections can be iterated without going through a
+     * seq, which touches {@code clojure.lang.RT}. This is true of Clojure 1.7.0 and later.
+     */
+    static void assumeDirectIterators() {
+        assumeTrue(!(PersistentHashMap.EMPTY.iterator() instanceof SeqIterator), "Hash collections are iterated through seqs");
+    }
+
+    private static boolean shareableTransients() {
+        TransientList<Object> tr = transientList();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(tr::toPersistent).get();
+            return true;
+        } catch (ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
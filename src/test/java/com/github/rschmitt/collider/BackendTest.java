@@ -0,0 +1,334 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import clojure.lang.ChampMap;
+import clojure.lang.ChampSet;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentSet;
+import clojure.lang.IPersistentVector;
+import clojure.lang.PersistentHashMap;
+import clojure.lang.PersistentVector;
+
+import static com.github.rschmitt.collider.Backend.champ;
+import static com.github.rschmitt.collider.Backend.clojure;
+import static com.github.rschmitt.collider.ClojureMapTest.traverse;
+import static com.github.rschmitt.collider.CompactTest.roundTrip;
+import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.clojureSet;
+import static com.github.rschmitt.collider.Collider.emptyClojureList;
+import static com.github.rschmitt.collider.Collider.emptyClojureMap;
+import static com.github.rschmitt.collider.Collider.emptyClojureSet;
+import static com.github.rschmitt.collider.Collider.transientList;
+import static com.github.rschmitt.collider.Collider.transientMap;
+import static com.github.rschmitt.collider.Collider.transientSet;
+import static com.github.rschmitt.collider.Ranges.range;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BackendTest {
+    @Test
+    public void factories() throws Exception {
+        assertTrue(emptyClojureMap(champ()).unwrap() instanceof ChampMap);
+        assertTrue(emptyClojureSet(champ()).unwrap() instanceof ChampSet);
+        assertTrue(emptyClojureList(champ()).unwrap() instanceof PersistentVector);
+        assertTrue(emptyClojureMap(clojure()).unwrap() instanceof PersistentHashMap);
+
+        ClojureMap<String, Integer> small = emptyClojureMap(champ());
+        assertTrue(small.assoc("a", 1).dissoc("b").filterKeys(k -> true).unwrap() instanceof ChampMap);
+        assertTrue(transientMap(champ(), 100).toPersistent().unwrap() instanceof ChampMap);
+        assertTrue(transientSet(champ()).toPersistent().unwrap() instanceof ChampSet);
+        assertEquals(transientList(champ()).toPersistent(), emptyClojureList(clojure()));
+
+        // Collections derived from a CHAMP collection stay with the CHAMP backend.
+        TransientMap<Integer, Integer> tr = transientMap(champ());
+        for (int i = 0; i < 100; i++) tr.put(i, i);
+        ClojureMap<Integer, Integer> map = tr.toPersistent();
+        assertTrue(map.selectKeys(clojureSet(1, 2, 3)).unwrap() instanceof ChampMap);
+        assertTrue(map.mapKeys(k -> -k).unwrap() instanceof ChampMap);
+        assertEquals(map.mapKeys(k -> -k).get(-5), (Integer) 5);
+        ClojureMap<Integer, Object> nested = map.<Object>mapValues(v -> v).assocIn(asList(-1, "a"), 1);
+        assertTrue(((ClojureMap<?, ?>) nested.get(-1)).unwrap() instanceof ChampMap);
+        assertTrue(map.pipeline().toMap(Map.Entry::getValue, Map.Entry::getKey).unwrap() instanceof ChampMap);
+        assertTrue(map.pipeline().map(Map.Entry::getKey).toSet().unwrap() instanceof ChampSet);
+
+        ClojureSet<String> set = Collider.<String>emptyClojureSet(champ()).with("a").with("b");
+        assertTrue(set.map(String::toUpperCase).unwrap() instanceof ChampSet);
+        assertTrue(set.pipeline().toSet().unwrap() instanceof ChampSet);
+        assertTrue(set.pipeline().parallel().toSet().unwrap() instanceof ChampSet);
+
+        // So do merges with a larger collection from the other backend.
+        ClojureMap<Integer, Integer> big = range(1_000);
+        ClojureMap<Integer, Integer> one = Collider.<Integer, Integer>emptyClojureMap(champ()).assoc(-1, -1);
+        assertTrue(one.merge(big).unwrap() instanceof ChampMap);
+        assertTrue(one.mergeWith(Integer::sum, big).unwrap() instanceof ChampMap);
+        assertTrue(one.assocAll(big).unwrap() instanceof ChampMap);
+        assertTrue(Collider.<Integer, Integer>emptyClojureMap(champ()).merge(big).unwrap() instanceof ChampMap);
+        assertEquals(one.merge(big), big.assoc(-1, -1));
+        assertEquals(one.assocAll(big), big.assoc(-1, -1));
+        TransientSet<Integer> members = transientSet(champ());
+        members.add(-1);
+        TransientSet<Integer> keys = transientSet(clojure());
+        keys.addAll(big.keySet());
+        members.absorb(keys);
+        ClojureSet<Integer> union = members.toPersistent();
+        assertTrue(union.unwrap() instanceof ChampSet);
+        assertEquals(union.size(), 1_001);
+
+        ClojureList<Integer> list = Collider.<Integer>emptyClojureList(champ()).append(1).append(2).append(3);
+        assertEquals(list.subList(1, 3).concat(list), asList(2, 3, 1, 2, 3));
+        assertTrue(list.subList(1, 3).concat(list).unwrap() instanceof PersistentVector);
+        assertTrue(list.pipeline().toList().unwrap() instanceof PersistentVector);
+    }
+
+    @Test
+    public void champMap() throws Exception {
+        ClojureMap<Object, Integer> map = emptyClojureMap(champ());
+        map = map.assoc("a", 1).assoc("b", 2).assoc(null, 3).assoc(1L, 4);
+
+        assertEquals(map, clojureMap("a", 1, "b", 2, null, 3, 1L, 4));
+        assertEquals(clojureMap("a", 1, "b", 2, null, 3, 1L, 4), map);
+        assertEquals(map.hashCode(), new HashMap<>(map).hashCode());
+        assertEquals(map.get(1), (Integer) 4);
+        assertEquals(map.get(null), (Integer) 3);
+        assertTrue(map.containsKey(null));
+        assertSame(map.assoc("a", 1).unwrap(), map.unwrap());
+        assertSame(map.dissoc("z"), map);
+        assertEquals(map.dissoc(null).dissoc("a").keySet(), clojureSet("b", 1L));
+        assertEquals(new HashSet<>(map.values()), clojureSet(1, 2, 3, 4));
+        assertEquals(map.mapValues(v -> v * 10).get("b"), (Integer) 20);
+        assertEquals(map.merge(clojureMap("c", 5)).size(), 5);
+        assertEquals(map.reduce(0, (acc, k, v) -> acc + v), (Integer) 10);
+    }
+
+    @Test
+    public void champMatchesHashMap() throws Exception {
+        Random random = new Random(42);
+        ClojureMap<Object, Integer> map = emptyClojureMap(champ());
+        Map<Object, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            Object key = random.nextBoolean() ? random.nextInt(2_000) : new CollidingKey(random.nextInt(2_000));
+            if (random.nextInt(3) == 0) {
+                map = map.dissoc(key);
+                expected.remove(key);
+            } else {
+                map = map.assoc(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(map, expected);
+        assertEquals(map.size(), expected.size());
+
+        TransientMap<Object, Integer> tr = map.asTransient();
+        for (int i = 0; i < 20_000; i++) {
+            Object key = random.nextBoolean() ? random.nextInt(2_000) : new CollidingKey(random.nextInt(2_000));
+            if (random.nextInt(3) == 0) {
+                tr.remove(key);
+                expected.remove(key);
+            } else {
+                tr.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        ClojureMap<Object, Integer> edited = tr.toPersistent();
+        assertEquals(edited, expected);
+        assertEquals(edited.size(), expected.size());
+        assertThrows(IllegalAccessError.class, () -> tr.put(1, 1));
+    }
+
+    @Test
+    public void champTransientsDoNotModifyPersistentMaps() throws Exception {
+        ClojureMap<Integer, Integer> original = Collider.<Integer, Integer>emptyClojureMap(champ()).assocAll(range(1_000));
+        Map<Integer, Integer> copy = new HashMap<>(original);
+
+        TransientMap<Integer, Integer> tr = original.asTransient();
+        for (int i = 0; i < 2_000; i++) {
+            if (i % 2 == 0) tr.remove(i);
+            else tr.put(i, -i);
+        }
+        tr.toPersistent();
+
+        assertEquals(original, copy);
+    }
+
+    /**
+     * Removing entries leaves the trie in the same shape as if they had never been added, so the
+     * iteration order depends only on the contents of the map.
+     */
+    @Test
+    public void champIsCanonical() throws Exception {
+        ClojureMap<Object, Integer> map = emptyClojureMap(champ());
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) keys.add(i % 2 == 0 ? i : new CollidingKey(i));
+        for (Object key : keys) map = map.assoc(key, 0);
+
+        ClojureMap<Object, Integer> shrunk = map;
+        for (Object key : keys.subList(100, keys.size())) shrunk = shrunk.dissoc(key);
+        ClojureMap<Object, Integer> direct = emptyClojureMap(champ());
+        for (Object key : keys.subList(0, 100)) direct = direct.assoc(key, 0);
+
+        assertEquals(new ArrayList<>(shrunk.keySet()), new ArrayList<>(direct.keySet()));
+        for (Object key : keys) shrunk = shrunk.dissoc(key);
+        assertEquals(shrunk, clojureMap());
+    }
+
+    @Test
+    public void champMerge() throws Exception {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            TransientMap<Object, Integer> left = transientMap(champ());
+            TransientMap<Object, Integer> right = transientMap(champ());
+            for (int i = 0; i < 2_000; i++) {
+                Object key = random.nextBoolean() ? random.nextInt(3_000) : new CollidingKey(random.nextInt(3_000));
+                if (random.nextInt(10) == 0) key = null;
+                (random.nextBoolean() ? left : right).put(key, i);
+            }
+            ClojureMap<Object, Integer> a = left.toPersistent();
+            ClojureMap<Object, Integer> b = right.toPersistent();
+            Map<Object, Integer> expected = new HashMap<>(a);
+            expected.putAll(b);
+            Map<Object, Integer> summed = new HashMap<>(a);
+            b.forEach((k, v) -> summed.merge(k, v, Integer::sum));
+
+            ClojureMap<Object, Integer> merged = a.merge(b);
+            assertTrue(merged.unwrap() instanceof ChampMap);
+            assertEquals(merged, expected);
+            assertEquals(merged.size(), expected.size());
+            assertEquals(b.merge(a).size(), expected.size());
+            assertEquals(a.mergeWith(Integer::sum, b), summed);
+            assertEquals(a.mergeWith(Integer::sum, b).size(), summed.size());
+
+            // The merged trie has the same canonical shape as one built by adding each entry.
+            ClojureMap<Object, Integer> direct = emptyClojureMap(champ());
+            for (Object key : merged.keySet()) direct = direct.assoc(key, 0);
+            assertEquals(new ArrayList<>(merged.keySet()), new ArrayList<>(direct.keySet()));
+        }
+
+        ClojureMap<Integer, Integer> map = Collider.<Integer, Integer>emptyClojureMap(champ()).assocAll(range(10_000));
+        assertSame(map.merge(map.filterKeys(k -> k % 2 == 0)), map);
+        assertSame(map.merge(map), map);
+        assertSame(map.mergeWith((x, y) -> x, map.dissoc(1)), map);
+
+        TransientSet<Integer> members = Collider.<Integer>emptyClojureSet(champ()).with(1).with(2).asTransient();
+        members.absorb(Collider.<Integer>emptyClojureSet(champ()).with(2).with(3).asTransient());
+        ClojureSet<Integer> union = members.toPersistent();
+        assertTrue(union.unwrap() instanceof ChampSet);
+        assertEquals(union, clojureSet(1, 2, 3));
+    }
+
+    @Test
+    public void champSpliterators() throws Exception {
+        ClojureMap<Object, Integer> map = emptyClojureMap(champ());
+        map = map.assocAll(range(10_000));
+        for (int i = 0; i < 100; i++) map = map.assoc(new CollidingKey(i), -1);
+
+        Set<Object> keys = new HashSet<>();
+        traverse(map.keySet().spliterator(), k -> assertTrue(keys.add(k)));
+        assertEquals(keys, map.keySet());
+        assertEquals(map.entrySet().parallelStream().count(), 10_100L);
+        assertEquals(map.fold(0L, Long::sum, (acc, k, v) -> acc + v, 100), 10_000L * 9_999 / 2 - 100);
+
+        ClojureSet<Object> set = map.keySet().stream().collect(() -> transientSet(champ()), TransientSet::add, (a, b) -> b.toPersistent().forEach(a::add)).toPersistent();
+        Set<Object> members = new HashSet<>();
+        traverse(set.spliterator(), m -> assertTrue(members.add(m)));
+        assertEquals(members, keys);
+    }
+
+    @Test
+    public void champSet() throws Exception {
+        ClojureSet<Object> set = emptyClojureSet(champ());
+        set = set.with("a").with("b").with(null).with(1L);
+
+        assertEquals(set, clojureSet("a", "b", null, 1L));
+        assertEquals(clojureSet("a", "b", null, 1L), set);
+        assertEquals(set.hashCode(), new HashSet<>(set).hashCode());
+        assertTrue(set.contains(1));
+        assertSame(set.with("a").unwrap(), set.unwrap());
+        assertSame(set.without("z").unwrap(), set.unwrap());
+        assertEquals(set.without(null).without("a"), clojureSet("b", 1L));
+        assertEquals(set.filter(x -> x instanceof String), clojureSet("a", "b"));
+        assertEquals(set.toArray().length, 4);
+
+        IPersistentSet unwrapped = (IPersistentSet) set.unwrap();
+        assertEquals(unwrapped.count(), 4);
+        assertNull(((IPersistentSet) emptyClojureSet(champ()).unwrap()).seq());
+    }
+
+    @Test
+    public void champSerialization() throws Exception {
+        ClojureMap<Object, Integer> map = emptyClojureMap(champ());
+        map = map.assocAll(range(1_000)).assoc(null, -1);
+        for (int i = 0; i < 100; i++) map = map.assoc(new CollidingKey(i), -1);
+
+        IPersistentMap copy = (IPersistentMap) roundTrip(map.unwrap());
+        assertTrue(copy instanceof ChampMap);
+        assertEquals(copy, map);
+        ClojureMap<Object, Integer> wrapped = ClojureMap.wrap(copy);
+        assertEquals(wrapped.assoc(1_000, 1_000).dissoc(0).size(), map.size());
+
+        TransientMap<Object, Integer> tr = wrapped.asTransient();
+        for (int i = 0; i < 1_000; i++) tr.remove(i);
+        assertEquals(tr.toPersistent().size(), 101);
+        assertEquals(wrapped, map);
+
+        ClojureSet<Object> set = emptyClojureSet(champ());
+        set = set.with("a").with(null).with(new CollidingKey(1)).with(new CollidingKey(2));
+        Object setCopy = roundTrip(set.unwrap());
+        assertTrue(setCopy instanceof ChampSet);
+        assertEquals(setCopy, set);
+    }
+
+    @Test
+    public void loadBackend() throws Exception {
+        assertSame(Backends.load("clojure"), clojure());
+        assertSame(Backends.load("champ"), champ());
+        assertTrue(Backends.load(VectorOnlyBackend.class.getName()) instanceof VectorOnlyBackend);
+        assertThrows(IllegalArgumentException.class, () -> Backends.load("nonexistent"));
+        assertThrows(IllegalArgumentException.class, () -> Backends.load(String.class.getName()));
+        assertSame(Backends.load("Champ"), champ());
+        assertSame(Backends.load("CLOJURE"), clojure());
+    }
+
+    @Test
+    public void invalidDefaultBackend() throws Exception {
+        assertSame(Backends.select("champ").get(), champ());
+
+        Supplier<Backend> invalid = Backends.select("nonexistent");
+        for (int i = 0; i < 2; i++) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, invalid::get);
+            assertTrue(e.getMessage().contains("collider.backend"), e.getMessage());
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    public static class VectorOnlyBackend implements Backend {
+        @Override
+        public IPersistentMap emptyMap() {
+            return clojure().emptyMap();
+        }
+
+        @Override
+        public IPersistentSet emptySet() {
+            return clojure().emptySet();
+        }
+
+        @Override
+        public IPersistentVector emptyList() {
+            return PersistentVector.EMPTY;
+        }
+    }
+}
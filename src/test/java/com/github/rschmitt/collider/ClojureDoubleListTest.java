@@ -0,0 +1,61 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.DoubleStream;
+
+import static com.github.rschmitt.collider.Collider.clojureDoubleList;
+import static com.github.rschmitt.collider.Collider.transientDoubleList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ClojureDoubleListTest {
+    @Test
+    public void compensatedSum() {
+        TransientDoubleList tr = transientDoubleList();
+        tr.append(1e100);
+        for (int i = 0; i < 10_000; i++) {
+            tr.append(1.0);
+        }
+        tr.append(-1e100);
+        ClojureDoubleList list = tr.toPersistent();
+
+        assertEquals(list.sum(), DoubleStream.of(list.toDoubleArray()).sum());
+        assertEquals(list.doubleStream().sum(), list.sum());
+    }
+
+    @Test
+    public void illConditionedSums() {
+        double[][] inputs = {
+                {-15.84375, -9.778887033462524E-8, 1.0402789740737717E-13, -7.60337570682168E-10, -52.9375},
+                {-5.3551048040390015E-8, 3.8191672047105385E-13, 6.6875, -0.123046875, 1.4424324035644531E-5, 9.007199254740992E15},
+        };
+        for (double[] input : inputs) {
+            assertEquals(clojureDoubleList(input).sum(), DoubleStream.of(input).sum());
+        }
+    }
+
+    @Test
+    public void nonFiniteSums() {
+        assertEquals(clojureDoubleList(1, Double.POSITIVE_INFINITY).sum(), Double.POSITIVE_INFINITY);
+        assertEquals(clojureDoubleList(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY).sum(), Double.POSITIVE_INFINITY);
+        assertEquals(clojureDoubleList(1, Double.NaN).sum(), Double.NaN);
+    }
+
+    @Test
+    public void streams() {
+        double[] values = DoubleStream.iterate(0.5, x -> x * 1.01).limit(3_000).toArray();
+        ClojureDoubleList list = clojureDoubleList(values);
+
+        assertArrayEquals(list.doubleStream().toArray(), values);
+        assertArrayEquals(list.doubleStream().parallel().toArray(), values);
+        assertEquals(list.append(2.0).getDouble(3_000), 2.0);
+    }
+
+    @Test
+    public void equality() {
+        assertEquals(clojureDoubleList(Double.NaN), clojureDoubleList(Double.NaN));
+        assertNotEquals(clojureDoubleList(0.0), clojureDoubleList(-0.0));
+    }
+}
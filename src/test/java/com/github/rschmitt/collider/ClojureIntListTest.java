@@ -0,0 +1,108 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.rschmitt.collider.Collider.clojureIntList;
+import static com.github.rschmitt.collider.Collider.transientIntList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClojureIntListTest {
+    @Test
+    public void append() {
+        ClojureIntList list = clojureIntList();
+        List<Integer> expected = new ArrayList<>();
+        List<ClojureIntList> snapshots = new ArrayList<>();
+
+        // Cross the boundaries where the tail is first pushed into the trie and where the root
+        // overflows into a new level.
+        for (int i = 0; i < 33_000; i++) {
+            if (Integer.bitCount(i) == 1) snapshots.add(list);
+            list = list.append(i * 3);
+            expected.add(i * 3);
+        }
+
+        assertEquals(list.size(), expected.size());
+        assertEquals(list, expected);
+        for (ClojureIntList snapshot : snapshots) {
+            assertEquals(snapshot, expected.subList(0, snapshot.size()));
+        }
+    }
+
+    @Test
+    public void assoc() {
+        ClojureIntList original = range(0, 2_000).collect(Collider::transientIntList, TransientIntList::append, (x, y) -> {
+            throw new AssertionError();
+        }).toPersistent();
+
+        ClojureIntList modified = original.assoc(0, -1).assoc(1_000, -2).assoc(1_999, -3);
+
+        assertEquals(modified.getInt(0), -1);
+        assertEquals(modified.getInt(1_000), -2);
+        assertEquals(modified.getInt(1_999), -3);
+        assertEquals(modified.getInt(1), 1);
+        assertEquals(original, range(0, 2_000).boxed().collect(toList()));
+        assertThrows(IndexOutOfBoundsException.class, () -> original.assoc(2_000, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> original.getInt(-1));
+    }
+
+    @Test
+    public void transientSetAndPersistence() {
+        Random random = new Random(0);
+        ClojureIntList original = clojureIntList(range(0, 5_000).toArray());
+        int[] expected = original.toIntArray();
+
+        TransientIntList tr = original.asTransient();
+        for (int i = 0; i < 10_000; i++) {
+            int index = random.nextInt(expected.length);
+            tr.set(index, i);
+            expected[index] = i;
+        }
+        for (int i = 0; i < 100; i++) {
+            tr.append(-i);
+        }
+        ClojureIntList modified = tr.toPersistent();
+
+        assertArrayEquals(original.toIntArray(), range(0, 5_000).toArray());
+        assertEquals(modified.size(), 5_100);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(modified.getInt(i), expected[i]);
+        }
+        assertEquals(modified.getInt(5_099), -99);
+    }
+
+    @Test
+    public void reuseFails() {
+        TransientIntList tr = transientIntList();
+        tr.toPersistent();
+        assertThrows(IllegalAccessError.class, () -> tr.append(1));
+    }
+
+    @Test
+    public void streamsAndSums() {
+        int[] values = range(-3_000, 7_000).toArray();
+        ClojureIntList list = clojureIntList(values);
+
+        assertEquals(list.sum(), range(-3_000, 7_000).sum());
+        assertArrayEquals(list.intStream().toArray(), values);
+        assertEquals(list.intStream().parallel().sum(), list.sum());
+        assertEquals(list.stream().collect(toList()), list);
+        assertEquals(clojureIntList().sum(), 0);
+    }
+
+    @Test
+    public void equality() {
+        ClojureIntList list = clojureIntList(1, 2, 3);
+
+        assertEquals(list, clojureIntList(1, 2, 3));
+        assertEquals(list, Collider.clojureList(1, 2, 3));
+        assertEquals(list.hashCode(), Collider.clojureList(1, 2, 3).hashCode());
+    }
+}
@@ -3,11 +3,15 @@ package com.github.rschmitt.collider;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 
+import static com.github.rschmitt.collider.Assumptions.assumeShareableTransients;
 import static com.github.rschmitt.collider.Collider.clojureList;
 import static com.github.rschmitt.collider.Collider.toClojureList;
 import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ClojureListTest {
@@ -40,6 +44,61 @@ public class ClojureListTest {
         for (int i = 0; i < 100; i++) assertEquals(singles.get(i).intValue(), i);
     }
 
+    @Test
+    public void parallelCollector() {
+        assumeShareableTransients();
+
+        ClojureList<Integer> collect = range(0, 100_000).parallel().boxed().collect(toClojureList());
+
+        assertEquals(collect.size(), 100_000);
+        for (int i = 0; i < 100_000; i++) assertEquals(collect.get(i).intValue(), i);
+    }
+
+    @Test
+    public void concat() {
+        int[] sizes = {0, 1, 31, 32, 33, 1024, 1025, 1056, 40_000};
+        for (int left : sizes) {
+            for (int right : sizes) {
+                ClojureList<Integer> a = range(0, left).boxed().collect(toClojureList());
+                ClojureList<Integer> b = range(left, left + right).boxed().collect(toClojureList());
+
+                ClojureList<Integer> concat = a.concat(b).append(left + right);
+
+                assertEquals(concat, range(0, left + right + 1).boxed().collect(toClojureList()));
+                assertEquals(a.size(), left);
+                assertEquals(b.size(), right);
+            }
+        }
+    }
+
+    @Test
+    public void spliterator() throws Exception {
+        ClojureList<Integer> list = range(0, 100_000).boxed().collect(toClojureList());
+
+        Spliterator<Integer> spliterator = list.spliterator();
+        assertEquals(spliterator.characteristics() & Spliterator.SUBSIZED, Spliterator.SUBSIZED);
+        assertEquals(spliterator.getExactSizeIfKnown(), 100_000L);
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(prefix.estimateSize() % 32, 0L);
+        assertEquals(prefix.estimateSize() + spliterator.estimateSize(), 100_000L);
+
+        Spliterator<Integer> leaf = clojureList(1, 2, 3).spliterator();
+        assertNull(leaf.trySplit());
+
+        assertEquals(list.parallelStream().mapToLong(x -> x).sum(), 100_000L * 99_999 / 2);
+    }
+
+    @Test
+    public void parallelStream() throws Exception {
+        assumeShareableTransients();
+
+        ClojureList<Integer> list = range(0, 100_000).boxed().collect(toClojureList());
+
+        assertEquals(list.parallelStream().collect(toClojureList()), list);
+        assertEquals(list.subList(1_000, 50_001).parallelStream().collect(toClojureList()),
+                range(1_000, 50_001).boxed().collect(toClojureList()));
+    }
+
     @Test
     public void map() throws Exception {
         ClojureList<Integer> initial = range(0, 100).boxed().collect(toClojureList());
@@ -104,4 +163,22 @@ public class ClojureListTest {
         assertThrows(UnsupportedOperationException.class, () -> list.replaceAll(x -> x * 2));
         assertThrows(UnsupportedOperationException.class, () -> list.retainAll(clojureList(14)));
     }
+
+    @Test
+    public void fold() throws Exception {
+        ClojureList<Integer> list = range(0, 100_000).boxed().collect(toClojureList());
+
+        assertEquals(list.fold(0L, Long::sum, (acc, x) -> acc + x, 1_000), (Long) (100_000L * 99_999 / 2));
+        assertEquals(clojureList(1, 2, 3).fold(0, Integer::sum, Integer::sum, 1_000), (Integer) 6);
+
+        ClojureList<String> strings = range(0, 5_000).mapToObj(Integer::toString).collect(toClojureList());
+        String expected = String.join("", strings);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(strings.fold("", String::concat, String::concat, 64, pool), expected);
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> list.fold(0, Integer::sum, Integer::sum, 0));
+    }
 }
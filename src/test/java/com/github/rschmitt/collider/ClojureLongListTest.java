@@ -0,0 +1,119 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static com.github.rschmitt.collider.Collider.clojureLongList;
+import static com.github.rschmitt.collider.Collider.transientLongList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClojureLongListTest {
+    @Test
+    public void append() {
+        ClojureLongList list = clojureLongList();
+        List<Long> expected = new ArrayList<>();
+        List<ClojureLongList> snapshots = new ArrayList<>();
+
+        // Cross the boundaries where the tail is first pushed into the trie and where the root
+        // overflows into a new level.
+        for (int i = 0; i < 33_000; i++) {
+            if (Integer.bitCount(i) == 1) snapshots.add(list);
+            list = list.append(i * 3_000_000_000L);
+            expected.add(i * 3_000_000_000L);
+        }
+
+        assertEquals(list.size(), expected.size());
+        assertEquals(list, expected);
+        for (ClojureLongList snapshot : snapshots) {
+            assertEquals(snapshot, expected.subList(0, snapshot.size()));
+        }
+    }
+
+    @Test
+    public void assoc() {
+        TransientLongList tr = transientLongList();
+        tr.appendAll(LongStream.range(0, 2_000).toArray());
+        ClojureLongList original = tr.toPersistent();
+
+        ClojureLongList modified = original.assoc(0, -1).assoc(1_000, Long.MIN_VALUE).assoc(1_999, Long.MAX_VALUE);
+
+        assertEquals(modified.getLong(0), -1L);
+        assertEquals(modified.getLong(1_000), Long.MIN_VALUE);
+        assertEquals(modified.getLong(1_999), Long.MAX_VALUE);
+        assertEquals(modified.getLong(1), 1L);
+        assertEquals(original, LongStream.range(0, 2_000).boxed().collect(toList()));
+        assertThrows(IndexOutOfBoundsException.class, () -> original.assoc(2_000, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> original.getLong(-1));
+    }
+
+    @Test
+    public void transientSetAndPersistence() {
+        Random random = new Random(0);
+        ClojureLongList original = clojureLongList(LongStream.range(0, 5_000).toArray());
+        long[] expected = original.toLongArray();
+
+        TransientLongList tr = original.asTransient();
+        for (int i = 0; i < 10_000; i++) {
+            int index = random.nextInt(expected.length);
+            long value = random.nextLong();
+            tr.set(index, value);
+            expected[index] = value;
+        }
+        for (int i = 0; i < 100; i++) {
+            tr.append(-i);
+        }
+        assertEquals(tr.get(5_099), -99L);
+        ClojureLongList modified = tr.toPersistent();
+
+        assertArrayEquals(original.toLongArray(), LongStream.range(0, 5_000).toArray());
+        assertEquals(modified.size(), 5_100);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(modified.getLong(i), expected[i]);
+        }
+        assertEquals(modified.getLong(5_099), -99L);
+    }
+
+    @Test
+    public void reuseFails() {
+        TransientLongList tr = transientLongList();
+        tr.toPersistent();
+        assertThrows(IllegalAccessError.class, () -> tr.append(1));
+    }
+
+    @Test
+    public void streamsAndSums() {
+        long[] values = LongStream.range(-3_000, 7_000).map(x -> x * 1_000_000_007L).toArray();
+        ClojureLongList list = clojureLongList(values);
+
+        assertEquals(list.sum(), LongStream.of(values).sum());
+        assertArrayEquals(list.longStream().toArray(), values);
+        assertEquals(list.longStream().parallel().sum(), list.sum());
+        assertEquals(list.stream().collect(toList()), list);
+        assertEquals(clojureLongList().sum(), 0L);
+    }
+
+    @Test
+    public void sumOverflows() {
+        ClojureLongList list = clojureLongList(Long.MAX_VALUE, 1, Long.MAX_VALUE);
+
+        assertEquals(list.sum(), LongStream.of(Long.MAX_VALUE, 1, Long.MAX_VALUE).sum());
+        assertEquals(list.sum(), Long.MAX_VALUE + 1 + Long.MAX_VALUE);
+        assertEquals(list.longStream().sum(), list.sum());
+    }
+
+    @Test
+    public void equality() {
+        ClojureLongList list = clojureLongList(1, 2, 3);
+
+        assertEquals(list, clojureLongList(1, 2, 3));
+        assertEquals(list, Collider.clojureList(1L, 2L, 3L));
+        assertEquals(list.hashCode(), Collider.clojureList(1L, 2L, 3L).hashCode());
+    }
+}
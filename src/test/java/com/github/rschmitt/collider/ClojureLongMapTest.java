@@ -0,0 +1,145 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.github.rschmitt.collider.Collider.clojureLongMap;
+import static com.github.rschmitt.collider.Collider.toClojureLongMap;
+import static java.util.stream.LongStream.range;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClojureLongMapTest {
+    @Test
+    public void assocAndDissoc() {
+        ClojureLongMap<String> empty = clojureLongMap();
+        ClojureLongMap<String> map = empty.assoc(1, "a").assoc(-1, "b").assoc(Long.MIN_VALUE, "c").assoc(Long.MAX_VALUE, "d");
+
+        assertEquals(map.size(), 4);
+        assertEquals(map.get(1), "a");
+        assertEquals(map.get(-1), "b");
+        assertEquals(map.get(Long.MIN_VALUE), "c");
+        assertEquals(map.get(Long.MAX_VALUE), "d");
+        assertNull(map.get(0));
+        assertEquals(map.getOrDefault(0, "z"), "z");
+        assertTrue(map.containsKey(-1));
+        assertFalse(map.containsKey(2));
+
+        assertEquals(map.assoc(1, "e").get(1), "e");
+        assertEquals(map.assoc(1, "e").size(), 4);
+        assertEquals(map.dissoc(-1).size(), 3);
+        assertFalse(map.dissoc(-1).containsKey(-1));
+        assertSame(map.dissoc(2), map);
+        assertEquals(empty.size(), 0);
+    }
+
+    @Test
+    public void nullValues() {
+        ClojureLongMap<String> map = Collider.<String>clojureLongMap().assoc(5, null);
+
+        assertEquals(map.size(), 1);
+        assertTrue(map.containsKey(5));
+        assertNull(map.get(5));
+        assertEquals(map.getOrDefault(5, "x"), null);
+    }
+
+    @Test
+    public void ascendingOrder() {
+        ClojureLongMap<Long> map = clojureLongMap();
+        for (long key : new long[]{3, -7, Long.MAX_VALUE, 0, Long.MIN_VALUE, -1, 42}) {
+            map = map.assoc(key, key);
+        }
+
+        assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(new TreeMap<>(map).keySet()));
+        assertEquals(map.keySet().iterator().next(), (Long) Long.MIN_VALUE);
+    }
+
+    @Test
+    public void equalsHashMap() {
+        Map<Long, Long> expected = new HashMap<>();
+        ClojureLongMap<Long> map = clojureLongMap();
+        for (long i = -500; i < 500; i++) {
+            expected.put(i * 31, i);
+            map = map.assoc(i * 31, i);
+        }
+
+        assertEquals(map, expected);
+        assertEquals(expected, map);
+        assertEquals(map.hashCode(), expected.hashCode());
+        assertEquals(map.get((Object) 31L), (Long) 1L);
+        assertNull(map.get((Object) 31));
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(0);
+        Map<Long, Integer> expected = new HashMap<>();
+        ClojureLongMap<Integer> map = clojureLongMap();
+        List<ClojureLongMap<Integer>> snapshots = new ArrayList<>();
+        List<Map<Long, Integer>> expectedSnapshots = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextBoolean() ? random.nextInt(2_000) - 1_000 : random.nextLong();
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.dissoc(key);
+            } else {
+                expected.put(key, i);
+                map = map.assoc(key, i);
+            }
+            if (i % 1_000 == 0) {
+                snapshots.add(map);
+                expectedSnapshots.add(new HashMap<>(expected));
+            }
+        }
+
+        assertEquals(map.size(), expected.size());
+        assertEquals(map, expected);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(snapshots.get(i), expectedSnapshots.get(i));
+        }
+    }
+
+    @Test
+    public void collector() {
+        ClojureLongMap<Long> actual = range(0, 1_000).boxed().collect(toClojureLongMap(x -> x % 100 - 50, x -> x));
+
+        assertEquals(actual.size(), 100);
+        assertEquals(actual.get(-50), (Long) 900L);
+        assertEquals(actual.get(49), (Long) 999L);
+    }
+
+    @Test
+    public void parallelCollector() {
+        Map<Long, Long> expected = new HashMap<>();
+        for (long i = 0; i < 50_000; i++) expected.put(i * 7919 - 100_000, i * 2);
+
+        ClojureLongMap<Long> actual = range(0, 200_000)
+                .parallel()
+                .boxed()
+                .collect(toClojureLongMap(x -> x % 50_000 * 7919 - 100_000, x -> x % 50_000 * 2));
+
+        assertEquals(actual.size(), 50_000);
+        assertEquals(actual, expected);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void mutationFails() {
+        ClojureLongMap<String> map = Collider.<String>clojureLongMap().assoc(1, "a");
+
+        assertThrows(UnsupportedOperationException.class, () -> map.put(2L, "b"));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove(1L));
+        assertThrows(UnsupportedOperationException.class, map::clear);
+    }
+}
@@ -2,14 +2,39 @@ package com.github.rschmitt.collider;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import clojure.lang.IPersistentMap;
+import clojure.lang.PersistentTreeMap;
+
+import static com.github.rschmitt.collider.Assumptions.assumeShareableTransients;
 import static com.github.rschmitt.collider.ClojureMap.create;
+import static com.github.rschmitt.collider.Collider.clojureList;
 import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.clojureSet;
+import static com.github.rschmitt.collider.Collider.groupingToClojureMap;
+import static com.github.rschmitt.collider.Collider.intoClojureMap;
 import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
 import static com.github.rschmitt.collider.Collider.toStrictClojureMap;
+import static java.util.Arrays.asList;
 import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -60,6 +85,63 @@ public class ClojureMapTest {
         assertEquals(excludedVals, clojureMap("two", 3));
     }
 
+    @Test
+    public void structuralMapValues() {
+        Map<Object, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) expected.put(i % 2 == 0 ? i : new CollidingKey(i), i * 2);
+        expected.put(null, -2);
+        ClojureMap<Object, Integer> map = expected.entrySet().stream().collect(toClojureMap(Entry::getKey, e -> e.getValue() / 2));
+        ClojureMap<Object, Integer> small = clojureMap(null, 1, "a", 2);
+
+        assertEquals(map.mapValues(x -> x * 2), expected);
+        assertEquals(small.mapValues(x -> x * 2), clojureMap(null, 2, "a", 4));
+        assertSame(map.mapValues(identity()), map);
+        assertSame(small.mapValues(identity()), small);
+    }
+
+    @Test
+    public void sortedMapValues() {
+        ClojureMap<String, Integer> sorted = intoClojureMap(sortedMap("b", 2, "a", 1));
+
+        ClojureMap<String, Integer> doubled = sorted.mapValues(x -> x * 2);
+        assertEquals(doubled, clojureMap("a", 2, "b", 4));
+        assertTrue(doubled.unwrap() instanceof PersistentTreeMap);
+        assertSame(sorted.mapValues(identity()), sorted);
+    }
+
+    @Test
+    public void sortedFilter() {
+        ClojureMap<String, Integer> sorted = intoClojureMap(sortedMap("c", 3, "b", 2, "a", 1));
+
+        assertEquals(sorted.filterKeys(k -> !k.equals("b")), clojureMap("a", 1, "c", 3));
+        assertEquals(sorted.filterValues(v -> v > 1), clojureMap("b", 2, "c", 3));
+        assertEquals(sorted.excludeKeys(k -> k.equals("a")), clojureMap("b", 2, "c", 3));
+        assertTrue(sorted.filterValues(v -> v > 1).unwrap() instanceof PersistentTreeMap);
+        assertSame(sorted.filterKeys(k -> true), sorted);
+    }
+
+    @Test
+    public void structuralFilter() {
+        Map<Object, Integer> source = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) source.put(i % 2 == 0 ? i : new CollidingKey(i), i);
+        source.put(null, -1);
+        ClojureMap<Object, Integer> map = source.entrySet().stream().collect(toClojureMap(Entry::getKey, Entry::getValue));
+
+        for (int modulus : new int[]{1, 2, 7, 1_000, 100_000}) {
+            Map<Object, Integer> expected = new HashMap<>(source);
+            expected.values().removeIf(v -> v % modulus == 0);
+
+            ClojureMap<Object, Integer> filtered = map.excludeValues(v -> v % modulus == 0);
+
+            assertEquals(filtered, expected);
+            assertEquals(filtered.size(), expected.size());
+            assertEquals(filtered.assoc("extra", 0).dissoc("extra"), expected);
+        }
+        assertSame(map.filterKeys(k -> true), map);
+        assertSame(map.filterValues(v -> true), map);
+        assertEquals(map.filterKeys(k -> false), clojureMap());
+    }
+
     @Test
     public void factoryMethods() {
         ClojureMap<String, Integer> expected = clojureMap();
@@ -91,6 +173,38 @@ public class ClojureMapTest {
         assertEquals(collect, clojureMap(3, 6));
     }
 
+    @Test
+    public void parallelCollector() {
+        assumeShareableTransients();
+
+        Map<Integer, Integer> expected = range(0, 50_000).boxed().collect(toMap(identity(), x -> x * 2));
+
+        ClojureMap<Integer, Integer> actual = range(0, 200_000)
+                .parallel()
+                .boxed()
+                .collect(toClojureMap(x -> x % 50_000, x -> x % 50_000 * 2));
+
+        assertEquals(actual.size(), 50_000);
+        assertEquals(actual, expected);
+    }
+
+    @Test
+    public void parallelCollectorWithHashCollisions() {
+        assumeShareableTransients();
+
+        Map<CollidingKey, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) expected.put(new CollidingKey(i), i);
+        expected.put(null, -1);
+
+        ClojureMap<CollidingKey, Integer> actual = range(-1, 20_000)
+                .parallel()
+                .boxed()
+                .collect(toClojureMap(x -> x < 0 ? null : new CollidingKey(x), identity()));
+
+        assertEquals(actual.size(), expected.size());
+        assertEquals(actual, expected);
+    }
+
     @Test
     public void merge() throws Exception {
         ClojureMap<String, Integer> actual = clojureMap("a", 1)
@@ -111,6 +225,96 @@ public class ClojureMapTest {
         assertSame(map, empty.merge(map));
     }
 
+    @Test
+    public void structuralMerge() throws Exception {
+        ClojureMap<Object, Integer> base = range(0, 50_000).boxed().collect(toClojureMap(i -> i % 2 == 0 ? i : new CollidingKey(i), identity()));
+        ClojureMap<Object, Integer> next = base.filterValues(v -> v % 100 != 0).assoc("new", -1).assoc(null, -2);
+        Map<Object, Integer> expected = new HashMap<>(base);
+        expected.putAll(next);
+
+        assertEquals(base.merge(next), expected);
+        assertEquals(next.merge(base).size(), expected.size());
+        assertSame(base.merge(base.filterValues(v -> v % 2 == 0)), base);
+    }
+
+    @Test
+    public void mergeWith() throws Exception {
+        ClojureMap<Object, Integer> base = range(0, 50_000).boxed().collect(toClojureMap(i -> i % 2 == 0 ? i : new CollidingKey(i), identity()));
+        ClojureMap<Object, Integer> next = base.filterValues(v -> v % 100 != 0).assoc("new", -1);
+        Map<Object, Integer> expected = new HashMap<>(base);
+        next.forEach((k, v) -> expected.merge(k, v, Integer::sum));
+
+        assertEquals(base.mergeWith(Integer::sum, next), expected);
+        assertEquals(base.mergeWith(Integer::sum, base), base.mapValues(v -> v * 2));
+        assertEquals(clojureMap("a", 1, "b", 2).mergeWith(Integer::sum, clojureMap("a", 3), clojureMap("a", 5, "c", 0)), clojureMap("a", 9, "b", 2, "c", 0));
+
+        ClojureMap<String, Integer> sorted = intoClojureMap(sortedMap("b", 2, "a", 1));
+        ClojureMap<String, Integer> merged = sorted.mergeWith(Integer::sum, clojureMap("a", 3, "c", 0));
+        assertEquals(merged, clojureMap("a", 4, "b", 2, "c", 0));
+        assertTrue(merged.unwrap() instanceof PersistentTreeMap);
+    }
+
+    @Test
+    public void bulkOps() throws Exception {
+        ClojureMap<String, Integer> map = clojureMap("a", 1, "b", 2, "c", 3);
+        Map<String, Integer> changes = new HashMap<>();
+        changes.put("a", 10);
+        changes.put("d", 4);
+
+        assertEquals(map.assocAll(changes), clojureMap("a", 10, "b", 2, "c", 3, "d", 4));
+        assertEquals(map.assocAll(clojureMap("e", 5)), clojureMap("a", 1, "b", 2, "c", 3, "e", 5));
+        assertEquals(map.dissocAll(asList("a", "c", "z")), clojureMap("b", 2));
+        assertEquals(map.selectKeys(new HashSet<>(asList("a", "c", "z"))), clojureMap("a", 1, "c", 3));
+        assertEquals(map.selectKeys(new HashSet<>(asList("b", "w", "x", "y", "z"))), clojureMap("b", 2));
+
+        assertSame(map.assocAll(new HashMap<>()), map);
+        assertSame(map.dissocAll(asList("x", "y")), map);
+        assertSame(map.selectKeys(new HashSet<>(asList("a", "b", "c", "d"))), map);
+
+        ClojureMap<String, Integer> sorted = intoClojureMap(sortedMap("c", 3, "b", 2, "a", 1));
+        assertEquals(sorted.assocAll(changes), clojureMap("a", 10, "b", 2, "c", 3, "d", 4));
+        assertEquals(sorted.assocAll(clojureMap("e", 5)), clojureMap("a", 1, "b", 2, "c", 3, "e", 5));
+        assertEquals(sorted.dissocAll(asList("a", "c", "z")), clojureMap("b", 2));
+        assertTrue(sorted.dissocAll(asList("a")).unwrap() instanceof PersistentTreeMap);
+        assertSame(sorted.dissocAll(asList("x", "y")), sorted);
+    }
+
+    @Test
+    public void nestedOps() throws Exception {
+        ClojureMap<String, Object> config = clojureMap("db", clojureMap("host", "localhost", "port", 5432), "name", "app");
+
+        ClojureMap<String, Object> moved = config.assocIn(asList("db", "host"), "db.internal");
+        ClojureMap<String, Object> created = config.assocIn(asList("cache", "ttl"), 60);
+        ClojureMap<String, Object> bumped = config.updateIn(asList("db", "port"), port -> (Integer) port + 1);
+
+        assertEquals(moved, clojureMap("db", clojureMap("host", "db.internal", "port", 5432), "name", "app"));
+        assertEquals(created, clojureMap("db", config.get("db"), "name", "app", "cache", clojureMap("ttl", 60)));
+        assertEquals(bumped.get("db"), clojureMap("host", "localhost", "port", 5433));
+        assertSame(moved.get("name"), config.get("name"));
+        assertSame(config.updateIn(asList("db", "host"), identity()), config);
+
+        assertThrows(IllegalArgumentException.class, () -> config.assocIn(asList(), 1));
+        assertThrows(IllegalArgumentException.class, () -> config.assocIn(asList("name", "first"), 1));
+    }
+
+    @Test
+    public void batchedNestedOps() throws Exception {
+        ClojureMap<String, Object> config = clojureMap("db", clojureMap("host", "localhost", "port", 5432), "name", "app");
+        Map<List<String>, Object> edits = new LinkedHashMap<>();
+        edits.put(asList("db", "host"), "db.internal");
+        edits.put(asList("db", "pool", "size"), 10);
+        edits.put(asList("db", "pool", "timeout"), 30);
+        edits.put(asList("name"), "service");
+
+        ClojureMap<String, Object> expected = config;
+        for (Entry<List<String>, Object> edit : edits.entrySet()) {
+            expected = expected.assocIn(edit.getKey(), edit.getValue());
+        }
+
+        assertEquals(config.assocInAll(edits), expected);
+        assertEquals(expected.get("db"), clojureMap("host", "db.internal", "port", 5432, "pool", clojureMap("size", 10, "timeout", 30)));
+    }
+
     @Test
     @SuppressWarnings("deprecation")
     public void destructiveUpdatesFail() {
@@ -131,4 +335,118 @@ public class ClojureMapTest {
         assertThrows(UnsupportedOperationException.class, () -> map.computeIfAbsent("b", String::length));
         assertThrows(UnsupportedOperationException.class, () -> map.computeIfPresent("a", String::codePointAt));
     }
+
+    @Test
+    public void grouping() {
+        ClojureMap<Integer, ClojureList<String>> byLength = Stream.of("a", "bb", "c", "dd", "eee").collect(groupingToClojureMap(String::length));
+        ClojureMap<Character, ClojureSet<Integer>> lengthsByInitial = Stream.of("apple", "avocado", "banana", "apricot", "blueberry")
+                .collect(groupingToClojureMap(s -> s.charAt(0), mapping(String::length, toClojureSet())));
+
+        assertEquals(byLength, clojureMap(1, clojureList("a", "c"), 2, clojureList("bb", "dd"), 3, clojureList("eee")));
+        assertEquals(lengthsByInitial, clojureMap('a', clojureSet(5, 7), 'b', clojureSet(6, 9)));
+    }
+
+    @Test
+    public void parallelGrouping() {
+        assumeShareableTransients();
+
+        ClojureMap<Integer, ClojureList<Integer>> lists = range(0, 100_000).parallel().boxed().collect(groupingToClojureMap(x -> x % 1_000));
+        ClojureMap<Integer, ClojureSet<Integer>> sets = range(0, 100_000).parallel().boxed().collect(groupingToClojureMap(x -> x % 1_000, mapping(x -> x / 1_000, toClojureSet())));
+
+        assertEquals(lists, range(0, 100_000).boxed().collect(groupingBy(x -> x % 1_000, toList())));
+        assertEquals(sets, range(0, 100_000).boxed().collect(groupingBy(x -> x % 1_000, mapping(x -> x / 1_000, toSet()))));
+    }
+
+    @Test
+    public void spliterators() throws Exception {
+        Map<Object, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) expected.put(i, i);
+        for (int i = 0; i < 100; i++) expected.put(new CollidingKey(i), -i);
+        expected.put(null, 0);
+        ClojureMap<Object, Integer> map = clojureMap();
+        map = map.assocAll(expected);
+
+        Spliterator<Entry<Object, Integer>> spliterator = map.entrySet().spliterator();
+        assertEquals(spliterator.getExactSizeIfKnown(), (long) expected.size());
+        Spliterator<Entry<Object, Integer>> suffix = spliterator.trySplit();
+        assertEquals(suffix.estimateSize() + spliterator.estimateSize(), (long) expected.size());
+
+        Map<Object, Integer> entries = new HashMap<>();
+        traverse(map.entrySet().spliterator(), e -> assertNull(entries.put(e.getKey(), e.getValue())));
+        assertEquals(entries, expected);
+
+        Set<Object> keys = new HashSet<>();
+        traverse(map.keySet().spliterator(), k -> assertTrue(keys.add(k)));
+        assertEquals(keys, expected.keySet());
+
+        List<Integer> values = new ArrayList<>();
+        traverse(map.values().spliterator(), values::add);
+        assertEquals(new HashSet<>(values), new HashSet<>(expected.values()));
+        assertEquals(values.size(), expected.size());
+
+        assertEquals(map.values().parallelStream().mapToLong(x -> x).sum(), 10_000L * 9_999 / 2 - 100 * 99 / 2);
+        assertEquals(map.keySet().parallelStream().filter(k -> k instanceof Integer).count(), 10_000L);
+        assertEquals(clojureMap("a", 1).entrySet().stream().collect(toList()), clojureMap("a", 1).unwrap().entrySet().stream().collect(toList()));
+    }
+
+    @Test
+    public void reduce() throws Exception {
+        ClojureMap<Integer, Integer> small = clojureMap(1, 10, 2, 20);
+        ClojureMap<Integer, Integer> large = range(0, 10_000).boxed().collect(toClojureMap(x -> x, x -> 2 * x));
+        ClojureMap<Integer, Integer> withNull = large.assoc(null, 1);
+
+        assertEquals(small.reduce(0L, (acc, k, v) -> acc + k + v), (Long) 33L);
+        assertEquals(large.reduce(0L, (acc, k, v) -> acc + k + v), (Long) (3L * 10_000 * 9_999 / 2));
+        assertEquals(withNull.reduce(0, (acc, k, v) -> k == null ? acc + v : acc), (Integer) 1);
+        assertEquals(clojureMap().reduce("init", (acc, k, v) -> "changed"), "init");
+
+        Map<Integer, Integer> copy = new HashMap<>();
+        withNull.forEach(copy::put);
+        assertEquals(copy, withNull);
+    }
+
+    @Test
+    public void cachedViews() throws Exception {
+        ClojureMap<String, Integer> map = clojureMap("a", 1, "b", 2);
+
+        assertSame(map.keySet(), map.keySet());
+        assertSame(map.values(), map.values());
+        assertSame(map.entrySet(), map.entrySet());
+        assertEquals(map.keySet(), new HashSet<>(asList("a", "b")));
+        assertEquals(map.entrySet(), new HashMap<>(map).entrySet());
+    }
+
+    /**
+     * Splits {@code spliterator} recursively, then traverses the pieces alternately one element at
+     * a time and in bulk.
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> Map<K, V> sortedMap(Object... init) {
+        IPersistentMap ret = PersistentTreeMap.EMPTY;
+        for (int i = 0; i < init.length; i += 2) ret = ret.assoc(init[i], init[i + 1]);
+        return (Map<K, V>) ret;
+    }
+
+    static <T> void traverse(Spliterator<T> spliterator, Consumer<? super T> action) {
+        Spliterator<T> suffix = spliterator.trySplit();
+        if (suffix != null) traverse(suffix, action);
+        if (spliterator.tryAdvance(action)) {
+            spliterator.forEachRemaining(action);
+        }
+        assertEquals(spliterator.estimateSize(), 0L);
+    }
+
+    @Test
+    public void fold() throws Exception {
+        ClojureMap<Integer, Integer> map = range(0, 100_000).boxed().collect(toClojureMap(x -> x, x -> 2 * x));
+        ClojureMap<Integer, Integer> withNull = map.assoc(null, 7);
+
+        assertEquals(map.fold(0L, Long::sum, (acc, k, v) -> acc + k + v, 1_000), (Long) (3L * 100_000 * 99_999 / 2));
+        assertEquals(withNull.fold(0, Integer::sum, (acc, k, v) -> k == null ? acc + v : acc, 1_000), (Integer) 7);
+        assertEquals(clojureMap("a", 1).fold(0, Integer::sum, (acc, k, v) -> acc + v, 1), (Integer) 1);
+
+        String first = map.fold("", String::concat, (acc, k, v) -> acc + k + ",", 100);
+        assertEquals(map.fold("", String::concat, (acc, k, v) -> acc + k + ",", 100), first);
+        assertEquals(first.split(",").length, 100_000);
+    }
 }
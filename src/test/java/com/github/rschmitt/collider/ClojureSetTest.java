@@ -2,13 +2,21 @@ package com.github.rschmitt.collider;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
 import java.util.Set;
+import java.util.Spliterator;
 
+import clojure.lang.IPersistentCollection;
+import clojure.lang.PersistentTreeSet;
+
+import static com.github.rschmitt.collider.Assumptions.assumeShareableTransients;
 import static com.github.rschmitt.collider.Collider.clojureSet;
+import static com.github.rschmitt.collider.Collider.intoClojureSet;
 import static com.github.rschmitt.collider.Collider.toClojureSet;
 import static java.util.Collections.emptySet;
 import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -31,6 +39,29 @@ public class ClojureSetTest {
         for (int i = 0; i < 10_000; i++) assertTrue(collect.contains(i));
     }
 
+    @Test
+    public void parallelCollector() {
+        assumeShareableTransients();
+
+        ClojureSet<Integer> collect = range(0, 200_000).parallel().map(x -> x % 50_000).boxed().collect(toClojureSet());
+
+        assertEquals(collect.size(), 50_000);
+        assertEquals(collect, range(0, 50_000).boxed().collect(toClojureSet()));
+    }
+
+    @Test
+    public void parallelCollectorWithHashCollisions() {
+        assumeShareableTransients();
+
+        Set<CollidingKey> expected = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) expected.add(new CollidingKey(i));
+
+        ClojureSet<CollidingKey> collect = range(0, 40_000).parallel().mapToObj(x -> new CollidingKey(x % 20_000)).collect(toClojureSet());
+
+        assertEquals(collect.size(), 20_000);
+        assertEquals(collect, expected);
+    }
+
     @Test
     public void transients() {
         ClojureSet<String> before = clojureSet("asdf");
@@ -95,6 +126,32 @@ public class ClojureSetTest {
         assertEquals(filtered, range(0, 50).boxed().collect(toClojureSet()));
     }
 
+    @Test
+    public void structuralFilter() throws Exception {
+        ClojureSet<CollidingKey> initial = range(0, 20_000).mapToObj(CollidingKey::new).collect(toClojureSet());
+        Set<CollidingKey> expected = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) if (i % 3 != 0) expected.add(new CollidingKey(i));
+
+        ClojureSet<CollidingKey> filtered = initial.filter(expected::contains);
+
+        assertEquals(filtered, expected);
+        assertEquals(filtered.size(), expected.size());
+        assertSame(initial.filter(k -> true), initial);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sortedFilter() throws Exception {
+        IPersistentCollection tree = PersistentTreeSet.EMPTY;
+        for (int i = 0; i < 10; i++) tree = tree.cons(i);
+        ClojureSet<Integer> sorted = intoClojureSet((Set<Integer>) tree);
+
+        assertEquals(sorted.filter(x -> x < 3), clojureSet(0, 1, 2));
+        assertEquals(sorted.exclude(x -> x >= 2), clojureSet(0, 1));
+        assertTrue(sorted.filter(x -> x < 3).unwrap() instanceof PersistentTreeSet);
+        assertSame(sorted.filter(x -> true), sorted);
+    }
+
     @Test
     @SuppressWarnings("deprecation")
     public void destructiveUpdatesFail() {
@@ -106,4 +163,33 @@ public class ClojureSetTest {
         assertThrows(UnsupportedOperationException.class, () -> set.removeAll(clojureSet(4)));
         assertThrows(UnsupportedOperationException.class, () -> set.retainAll(clojureSet()));
     }
+
+    @Test
+    public void spliterator() throws Exception {
+        ClojureSet<Integer> set = range(0, 10_000).boxed().collect(toClojureSet());
+
+        Spliterator<Integer> spliterator = set.spliterator();
+        assertEquals(spliterator.getExactSizeIfKnown(), 10_000L);
+        assertEquals(spliterator.characteristics() & Spliterator.DISTINCT, Spliterator.DISTINCT);
+        Spliterator<Integer> suffix = spliterator.trySplit();
+        assertEquals(suffix.estimateSize() + spliterator.estimateSize(), 10_000L);
+
+        Set<Integer> members = new HashSet<>();
+        ClojureMapTest.traverse(set.spliterator(), x -> assertTrue(members.add(x)));
+        assertEquals(members, set);
+
+        assertEquals(set.parallelStream().mapToLong(x -> x).sum(), 10_000L * 9_999 / 2);
+        assertEquals(clojureSet(1, 2, 3).stream().count(), 3L);
+    }
+
+    @Test
+    public void fold() throws Exception {
+        ClojureSet<Integer> set = range(0, 100_000).boxed().collect(toClojureSet());
+
+        assertEquals(set.fold(0L, Long::sum, (acc, x) -> acc + x, 1_000), (Long) (100_000L * 99_999 / 2));
+
+        String first = set.fold("", String::concat, (acc, x) -> acc + x + ",", 100);
+        assertEquals(set.fold("", String::concat, (acc, x) -> acc + x + ",", 100), first);
+        assertEquals(first.split(",").length, 100_000);
+    }
 }
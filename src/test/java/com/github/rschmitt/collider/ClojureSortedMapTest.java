@@ -0,0 +1,134 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.github.rschmitt.collider.Collider.clojureSortedMap;
+import static com.github.rschmitt.collider.Collider.transientSortedMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClojureSortedMapTest {
+    private static ClojureSortedMap<Integer, String> evens(int count) {
+        TransientSortedMap<Integer, String> tr = transientSortedMap();
+        for (int i = 0; i < count; i++) tr.put(i * 2, "v" + i * 2);
+        return tr.toPersistent();
+    }
+
+    @Test
+    public void navigation() {
+        ClojureSortedMap<Integer, String> map = evens(100);
+
+        assertEquals(map.size(), 100);
+        assertEquals(map.firstKey(), (Integer) 0);
+        assertEquals(map.lastKey(), (Integer) 198);
+        assertEquals(map.floorKey(7), (Integer) 6);
+        assertEquals(map.floorKey(8), (Integer) 8);
+        assertEquals(map.lowerKey(8), (Integer) 6);
+        assertEquals(map.ceilingKey(7), (Integer) 8);
+        assertEquals(map.higherKey(8), (Integer) 10);
+        assertNull(map.lowerKey(0));
+        assertNull(map.higherKey(198));
+        assertEquals(map.floorEntry(9), new TreeMap<>(map).floorEntry(9));
+        assertEquals(map.get(42), "v42");
+        assertNull(map.get(43));
+    }
+
+    @Test
+    public void rangeViews() {
+        ClojureSortedMap<Integer, String> map = evens(100);
+        TreeMap<Integer, String> expected = new TreeMap<>(map);
+
+        assertEquals(map.subMap(10, 20), expected.subMap(10, 20));
+        assertEquals(map.subMap(11, true, 21, true), expected.subMap(11, true, 21, true));
+        assertEquals(map.headMap(7), expected.headMap(7));
+        assertEquals(map.tailMap(190, false), expected.tailMap(190, false));
+        assertEquals(new ArrayList<>(map.subMap(10, 20).keySet()), Arrays.asList(10, 12, 14, 16, 18));
+        assertEquals(map.subMap(10, 20).size(), 5);
+
+        NavigableMap<Integer, String> view = map.subMap(10, true, 30, false);
+        assertEquals(view.firstKey(), (Integer) 10);
+        assertEquals(view.lastKey(), (Integer) 28);
+        assertNull(view.floorKey(8));
+        assertEquals(view.floorKey(100), (Integer) 28);
+        assertNull(view.get(30));
+        assertEquals(view.tailMap(20), expected.subMap(20, 30));
+        assertThrows(IllegalArgumentException.class, () -> view.headMap(40));
+        assertThrows(IllegalArgumentException.class, () -> map.subMap(20, 10));
+    }
+
+    @Test
+    public void descendingViews() {
+        ClojureSortedMap<Integer, String> map = evens(50);
+        TreeMap<Integer, String> expected = new TreeMap<>(map);
+
+        NavigableMap<Integer, String> descending = map.descendingMap();
+        assertEquals(new ArrayList<>(descending.keySet()), new ArrayList<>(expected.descendingKeySet()));
+        assertEquals(descending.firstKey(), (Integer) 98);
+        assertEquals(descending.ceilingKey(51), (Integer) 50);
+        assertEquals(descending.higherKey(50), (Integer) 48);
+        assertEquals(new ArrayList<>(descending.subMap(20, 10).keySet()), Arrays.asList(20, 18, 16, 14, 12));
+        assertEquals(descending.headMap(90), expected.tailMap(90, false));
+        assertEquals(descending.descendingMap(), expected);
+    }
+
+    @Test
+    public void persistence() {
+        ClojureSortedMap<Integer, String> original = evens(10);
+        ClojureSortedMap<Integer, String> modified = original.assoc(5, "five").dissoc(0);
+
+        assertEquals(original.size(), 10);
+        assertEquals(original.firstKey(), (Integer) 0);
+        assertEquals(modified.firstKey(), (Integer) 2);
+        assertEquals(modified.ceilingEntry(5).getValue(), "five");
+        assertSame(original.dissoc(7), original);
+    }
+
+    @Test
+    public void transientBuilder() {
+        Random random = new Random(0);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        TransientSortedMap<Integer, Integer> sorted = transientSortedMap();
+        for (int i = 0; i < 5_000; i++) {
+            sorted.put(i, i);
+            expected.put(i, i);
+        }
+        sorted.put(4_999, -1);
+        expected.put(4_999, -1);
+        assertEquals(sorted.get(2_500), (Integer) 2_500);
+        assertEquals(sorted.toPersistent(), expected);
+
+        expected.clear();
+        TransientSortedMap<Integer, Integer> unsorted = Collider.<Integer, Integer>clojureSortedMap().asTransient();
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(1_000);
+            unsorted.put(key, i);
+            expected.put(key, i);
+        }
+        unsorted.remove(0);
+        expected.remove(0);
+        assertEquals(unsorted.size(), expected.size());
+        assertEquals(unsorted.toPersistent(), expected);
+        assertThrows(IllegalAccessError.class, () -> unsorted.put(1, 1));
+    }
+
+    @Test
+    public void customComparator() {
+        ClojureSortedMap<String, Integer> map = Collider.<String, Integer>clojureSortedMap(Comparator.reverseOrder())
+                .assoc("a", 1)
+                .assoc("c", 3)
+                .assoc("b", 2);
+
+        assertEquals(new ArrayList<>(map.keySet()), Arrays.asList("c", "b", "a"));
+        assertEquals(map.headMap("b").keySet(), Collider.clojureSet("c"));
+        assertEquals(map.comparator(), Comparator.reverseOrder());
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import static com.github.rschmitt.collider.Collider.clojureSortedSet;
+import static com.github.rschmitt.collider.Collider.transientSortedSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClojureSortedSetTest {
+    @Test
+    public void navigation() {
+        ClojureSortedSet<Integer> set = clojureSortedSet(5, 1, 9, 3, 7);
+
+        assertEquals(new ArrayList<>(set), Arrays.asList(1, 3, 5, 7, 9));
+        assertEquals(set.first(), (Integer) 1);
+        assertEquals(set.last(), (Integer) 9);
+        assertEquals(set.floor(4), (Integer) 3);
+        assertEquals(set.ceiling(4), (Integer) 5);
+        assertEquals(set.lower(1), null);
+        assertEquals(set.higher(9), null);
+        assertTrue(set.contains(7));
+        assertFalse(set.contains(8));
+    }
+
+    @Test
+    public void rangeViews() {
+        ClojureSortedSet<Integer> set = clojureSortedSet(5, 1, 9, 3, 7);
+        TreeSet<Integer> expected = new TreeSet<>(set);
+
+        assertEquals(set.subSet(3, 8), expected.subSet(3, 8));
+        assertEquals(set.headSet(5, true), expected.headSet(5, true));
+        assertEquals(set.tailSet(5, false), expected.tailSet(5, false));
+        assertEquals(new ArrayList<>(set.descendingSet()), Arrays.asList(9, 7, 5, 3, 1));
+
+        NavigableSet<Integer> view = set.subSet(2, true, 8, true);
+        assertEquals(view.size(), 3);
+        assertNull(view.higher(7));
+        assertEquals(new ArrayList<>(view.descendingSet().headSet(5)), Arrays.asList(7));
+    }
+
+    @Test
+    public void withAndWithout() {
+        ClojureSortedSet<String> set = clojureSortedSet("b", "c");
+
+        assertEquals(new ArrayList<>(set.with("a")), Arrays.asList("a", "b", "c"));
+        assertEquals(new ArrayList<>(set.without("b")), Arrays.asList("c"));
+        assertSame(set.without("z"), set);
+        assertEquals(set.size(), 2);
+    }
+
+    @Test
+    public void transientBuilder() {
+        TransientSortedSet<Integer> tr = transientSortedSet();
+        for (int i = 0; i < 1_000; i++) tr.add(i);
+        tr.add(500);
+        assertEquals(tr.size(), 1_000);
+        tr.add(-1);
+        tr.remove(10);
+        ClojureSortedSet<Integer> set = tr.toPersistent();
+
+        assertEquals(set.size(), 1_000);
+        assertEquals(set.first(), (Integer) (-1));
+        assertFalse(set.contains(10));
+        assertThrows(IllegalAccessError.class, () -> tr.add(5));
+    }
+}
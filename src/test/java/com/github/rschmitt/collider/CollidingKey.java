@@ -0,0 +1,31 @@
+package com.github.rschmitt.collider;
+
+import java.io.Serializable;
+
+/**
+ * A key whose hash code is shared with a few other keys, for exercising hash collision handling.
+ */
+final class CollidingKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+
+    CollidingKey(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id / 4;
+    }
+
+    @Override
+    public String toString() {
+        return "CollidingKey(" + id + ")";
+    }
+}
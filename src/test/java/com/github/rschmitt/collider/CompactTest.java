@@ -0,0 +1,223 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import clojure.lang.ChampMap;
+import clojure.lang.ChampSet;
+import clojure.lang.CompactMap;
+import clojure.lang.CompactSet;
+import clojure.lang.IObj;
+import clojure.lang.IPersistentMap;
+import clojure.lang.PersistentArrayMap;
+import clojure.lang.PersistentTreeMap;
+
+import static com.github.rschmitt.collider.Backend.champ;
+import static com.github.rschmitt.collider.ClojureMapTest.traverse;
+import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.clojureSet;
+import static com.github.rschmitt.collider.Collider.footprint;
+import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
+import static com.github.rschmitt.collider.Collider.transientMap;
+import static com.github.rschmitt.collider.Ranges.range;
+import static com.github.rschmitt.collider.Collider.transientSet;
+import static java.util.function.Function.identity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactTest {
+    @Test
+    public void reads() throws Exception {
+        Random random = new Random(42);
+        Map<Object, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            Object key = random.nextBoolean() ? random.nextInt(10_000) : new CollidingKey(random.nextInt(10_000));
+            expected.put(key, i);
+        }
+        expected.put(null, -1);
+        TransientMap<Object, Integer> tr = Collider.transientMap();
+        tr.putAll(expected);
+        ClojureMap<Object, Integer> map = tr.toPersistent();
+        ClojureMap<Object, Integer> compact = map.compact();
+
+        assertTrue(compact.unwrap() instanceof CompactMap);
+        assertEquals(compact, expected);
+        assertEquals(map, compact);
+        assertEquals(compact.hashCode(), map.hashCode());
+        assertEquals(compact.size(), expected.size());
+        for (Map.Entry<Object, Integer> entry : expected.entrySet()) {
+            assertEquals(compact.get(entry.getKey()), entry.getValue());
+        }
+        assertNull(compact.get(new CollidingKey(-1)));
+        assertFalse(compact.containsKey(-1));
+        assertEquals(compact.get(1L), expected.get(1));
+        assertEquals(compact.get(null), (Integer) (-1));
+        assertEquals(new HashSet<>(compact.keySet()), expected.keySet());
+        assertEquals(new ArrayList<>(compact.values()).size(), expected.size());
+        assertEquals(compact.toString().length(), map.toString().length());
+        assertSame(compact.compact(), compact);
+    }
+
+    @Test
+    public void modifications() throws Exception {
+        ClojureMap<Integer, Integer> map = range(1_000);
+        ClojureMap<Integer, Integer> compact = map.compact();
+
+        assertSame(compact.assoc(1, 1).unwrap(), compact.unwrap());
+        assertSame(compact.dissoc(-1), compact);
+        assertEquals(compact.assoc(1, 2).unwrap().getClass(), map.unwrap().getClass());
+        assertEquals(compact.assoc(1, 2), map.assoc(1, 2));
+        assertEquals(compact.dissoc(1), map.dissoc(1));
+        assertEquals(compact.assoc(null, 0).get(null), (Integer) 0);
+        assertEquals(compact.mapValues(v -> -v), map.mapValues(v -> -v));
+        assertEquals(compact.filterKeys(k -> k % 2 == 0), map.filterKeys(k -> k % 2 == 0));
+        assertSame(compact.filterKeys(k -> true), compact);
+        assertEquals(compact.merge(clojureMap(-1, -1)), map.assoc(-1, -1));
+
+        TransientMap<Integer, Integer> tr = compact.asTransient();
+        tr.put(-1, -1);
+        assertEquals(tr.toPersistent(), map.assoc(-1, -1));
+        assertEquals(compact, map);
+
+        TransientMap<Integer, Integer> champ = transientMap(champ());
+        champ.putAll(map);
+        assertTrue(champ.toPersistent().compact().assoc(-1, -1).unwrap() instanceof ChampMap);
+    }
+
+    @Test
+    public void modificationsShareOneCopy() throws Exception {
+        ClojureMap<Integer, Integer> map = range(10_000).compact();
+        Footprint maps = footprint(map.assoc(1, -1), map.dissoc(2), map.asTransient().toPersistent());
+        assertTrue(maps.sharedBytes() > maps.bytes() / 2, maps.toString());
+
+        ClojureSet<Integer> set = IntStream.range(0, 10_000).boxed().collect(toClojureSet()).compact();
+        Footprint sets = footprint(set.with(-1), set.without(2), set.asTransient().toPersistent());
+        assertTrue(sets.sharedBytes() > sets.bytes() / 2, sets.toString());
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        ClojureMap<Integer, Integer> map = range(1_000).compact();
+        map.assoc(-1, -1);
+        Object copy = roundTrip(map.unwrap());
+        assertTrue(copy instanceof CompactMap);
+        assertEquals(copy, map);
+
+        ClojureSet<Integer> set = IntStream.range(0, 1_000).boxed().collect(toClojureSet()).compact();
+        set.with(-1);
+        copy = roundTrip(set.unwrap());
+        assertTrue(copy instanceof CompactSet);
+        assertEquals(copy, set);
+    }
+
+    static Object roundTrip(Object o) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+    @Test
+    public void metadata() throws Exception {
+        IPersistentMap meta = (IPersistentMap) clojureMap("tag", "value").unwrap();
+        IPersistentMap map = (IPersistentMap) ((IObj) range(100).unwrap()).withMeta(meta);
+        CompactMap compact = CompactMap.create(map);
+
+        assertSame(compact.meta(), meta);
+        assertSame(((IObj) compact.assoc(-1, -1)).meta(), meta);
+        assertSame(((IObj) compact.empty()).meta(), meta);
+        assertNull(compact.withMeta(null).meta());
+        assertNull(((IObj) compact.withMeta(null).assoc(-1, -1)).meta());
+        assertEquals(compact.withMeta(null), compact);
+    }
+
+    @Test
+    public void traversal() throws Exception {
+        ClojureMap<Integer, Integer> map = IntStream.range(0, 100_000).boxed().collect(toClojureMap(x -> x, x -> 2 * x));
+        ClojureMap<Integer, Integer> compact = map.assoc(null, 7).compact();
+
+        List<Integer> keys = new ArrayList<>();
+        traverse(compact.keySet().spliterator(), keys::add);
+        assertEquals(keys.size(), 100_001);
+        assertEquals(new HashSet<>(keys), compact.keySet());
+        assertEquals(compact.reduce(0L, (acc, k, v) -> acc + v), 100_000L * 99_999 + 7);
+        assertEquals(compact.fold(0L, Long::sum, (acc, k, v) -> acc + v, 1_000), 100_000L * 99_999 + 7);
+        assertEquals(compact.entrySet().parallelStream().count(), 100_001L);
+        assertEquals(compact.dissoc(null).keySet().stream().mapToLong(x -> x).sum(), 100_000L * 99_999 / 2);
+    }
+
+    @Test
+    public void sets() throws Exception {
+        ClojureSet<Integer> set = IntStream.range(0, 10_000).boxed().collect(toClojureSet());
+        ClojureSet<Integer> compact = set.compact();
+
+        assertTrue(compact.unwrap() instanceof CompactSet);
+        assertEquals(compact, set);
+        assertEquals(set, compact);
+        assertEquals(compact.hashCode(), set.hashCode());
+        assertTrue(compact.contains(9_999));
+        assertFalse(compact.contains(10_000));
+        assertEquals(new HashSet<>(compact), new HashSet<>(set));
+        assertEquals(compact.stream().mapToLong(x -> x).sum(), 10_000L * 9_999 / 2);
+        assertEquals(compact.fold(0L, Long::sum, (acc, x) -> acc + x, 100), (Long) (10_000L * 9_999 / 2));
+        assertSame(compact.with(1).unwrap(), compact.unwrap());
+        assertSame(compact.without(-1).unwrap(), compact.unwrap());
+        assertEquals(compact.with(-1).unwrap().getClass(), set.unwrap().getClass());
+        assertEquals(compact.without(1), set.without(1));
+        assertEquals(compact.filter(x -> x < 10), set.filter(x -> x < 10));
+        assertSame(compact.compact(), compact);
+
+        Set<String> withNull = Collider.<String>clojureSet(null, "a").compact();
+        assertTrue(withNull.contains(null));
+        assertEquals(withNull, clojureSet("a", null));
+
+        TransientSet<Integer> champ = transientSet(champ());
+        champ.addAll(set);
+        assertTrue(champ.toPersistent().compact().with(-1).unwrap() instanceof ChampSet);
+    }
+
+    @Test
+    public void smallAndSortedCollections() throws Exception {
+        ClojureMap<Object, Object> small = ClojureMap.wrap(PersistentArrayMap.EMPTY.assoc("a", 1));
+        assertSame(small.compact(), small);
+        ClojureMap<Object, Object> sorted = ClojureMap.wrap(PersistentTreeMap.EMPTY.assoc("a", 1));
+        assertSame(sorted.compact(), sorted);
+        assertTrue(clojureSet("a").compact().unwrap() instanceof CompactSet);
+        assertThrows(RuntimeException.class, () -> ((IPersistentMap) range(100).compact().unwrap()).assocEx(1, 1));
+    }
+
+    @Test
+    public void footprints() throws Exception {
+        // Scattered keys, so that the tries are not unusually dense with any version of Clojure.
+        ClojureMap<Integer, Integer> map = IntStream.range(0, 10_000).map(i -> i * 0x9E3779B9).boxed().collect(toClojureMap(identity(), identity()));
+        TransientMap<Integer, Integer> tr = transientMap(champ());
+        tr.putAll(map);
+        ClojureMap<Integer, Integer> champ = tr.toPersistent();
+
+        Footprint footprint = footprint(map.compact());
+        assertTrue(footprint.bytes() < footprint(champ).bytes(), footprint.toString());
+        assertEquals(footprint.nodes(), 1L);
+        assertEquals(footprint(map.compact(), champ.compact()).sharedBytes(), 0L);
+    }
+}
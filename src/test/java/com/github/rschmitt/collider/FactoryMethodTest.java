@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 
 import clojure.lang.PersistentArrayMap;
+import clojure.lang.PersistentHashMap;
 import clojure.lang.PersistentHashSet;
 import clojure.lang.PersistentVector;
 
@@ -19,12 +20,15 @@ import static com.github.rschmitt.collider.Collider.clojureSet;
 import static com.github.rschmitt.collider.Collider.intoClojureList;
 import static com.github.rschmitt.collider.Collider.intoClojureMap;
 import static com.github.rschmitt.collider.Collider.intoClojureSet;
+import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.transientMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FactoryMethodTest {
     @Test
@@ -72,6 +76,26 @@ public class FactoryMethodTest {
         assertEquals(intoClojureMap(map), map);
     }
 
+    @Test
+    public void sizeHints() throws Exception {
+        Field mapDelegate = ClojureMap.class.getDeclaredField("delegate");
+        mapDelegate.setAccessible(true);
+
+        Map<Integer, String> large = range(0, 100).boxed().collect(toMap(t -> t, String::valueOf));
+        Map<Integer, String> small = range(0, 3).boxed().collect(toMap(t -> t, String::valueOf));
+
+        ClojureMap<Integer, String> sized = large.keySet().stream().collect(toClojureMap(t -> t, String::valueOf, 100));
+        TransientMap<Integer, String> tr = transientMap(100);
+        tr.putAll(small);
+
+        assertEquals(sized, large);
+        assertEquals(intoClojureMap(large), large);
+        assertEquals(intoClojureMap(small), small);
+        assertEquals(tr.toPersistent(), small);
+        assertTrue(mapDelegate.get(intoClojureMap(large)) instanceof PersistentHashMap);
+        assertTrue(mapDelegate.get(intoClojureMap(small)) instanceof PersistentArrayMap);
+    }
+
     @Test
     public void nulls() throws Exception {
         Set expectedSet = new HashSet();
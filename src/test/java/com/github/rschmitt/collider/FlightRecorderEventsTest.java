@@ -0,0 +1,43 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FlightRecorderEventsTest {
+    @Test
+    public void flightRecorderEvents() throws Exception {
+        Path file = Files.createTempFile("collider", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.github.rschmitt.collider.MapMerge");
+            recording.disable("com.github.rschmitt.collider.BulkRebuild");
+            recording.start();
+            Events.begin(Operation.MAP_MERGE, "test").end(3, 5);
+            Events.begin(Operation.BULK_REBUILD, "test").end(7, 7);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("com.github.rschmitt.collider."))
+                    .filter(e -> "test".equals(e.getString("method")))
+                    .collect(Collectors.toList());
+            assertEquals(events.size(), 1);
+            assertEquals(events.get(0).getEventType().getName(), "com.github.rschmitt.collider.MapMerge");
+            assertEquals(events.get(0).getLong("inputSize"), 3L);
+            assertEquals(events.get(0).getLong("outputSize"), 5L);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import clojure.lang.PersistentTreeMap;
+
+import static com.github.rschmitt.collider.Backend.champ;
+import static com.github.rschmitt.collider.Collider.clojureList;
+import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.clojureSet;
+import static com.github.rschmitt.collider.Collider.footprint;
+import static com.github.rschmitt.collider.Collider.toClojureList;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
+import static com.github.rschmitt.collider.Collider.transientMap;
+import static com.github.rschmitt.collider.Ranges.range;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FootprintTest {
+    @Test
+    public void singleMap() throws Exception {
+        ClojureMap<Integer, Integer> map = range(10_000);
+        Footprint footprint = footprint(map);
+
+        assertEquals(footprint.collections(), 1);
+        assertEquals(footprint.sharedNodes(), 0L);
+        assertEquals(footprint.sharedBytes(), 0L);
+        assertEquals(footprint.exclusiveBytes(0), footprint.bytes());
+        assertEquals(footprint.exclusiveNodes(0), footprint.nodes());
+        // Every entry takes up two references, and the trie adds some overhead on top of that.
+        assertTrue(footprint.bytes() > 8 * 10_000, footprint.toString());
+        assertTrue(footprint.bytes() < 64 * 10_000, footprint.toString());
+        assertEquals(footprint(map, map).sharedBytes(), footprint.bytes());
+    }
+
+    @Test
+    public void versions() throws Exception {
+        ClojureMap<Integer, Integer> original = range(10_000);
+        ClojureMap<Integer, Integer> modified = original.assoc(-1, -1);
+        Footprint footprint = footprint(original, modified);
+
+        // Only the path from the root to the new entry is copied.
+        assertTrue(footprint.sharedBytes() > 10 * footprint.exclusiveBytes(1), footprint.toString());
+        assertTrue(footprint.exclusiveNodes(0) < 10, footprint.toString());
+        assertTrue(footprint.exclusiveNodes(1) < 10, footprint.toString());
+        assertEquals(footprint.sharedBytes() + footprint.exclusiveBytes(0) + footprint.exclusiveBytes(1), footprint.bytes());
+        assertEquals(footprint.bytes(), footprint(original).bytes() + footprint.exclusiveBytes(1));
+
+        Footprint unrelated = footprint(original, range(10_000));
+        assertEquals(unrelated.sharedBytes(), 0L);
+        assertEquals(unrelated.exclusiveBytes(0), unrelated.exclusiveBytes(1));
+    }
+
+    @Test
+    public void manyVersions() throws Exception {
+        List<ClojureMap<Integer, Integer>> versions = new ArrayList<>();
+        versions.add(range(1_000));
+        for (int i = 1; i < 10; i++) versions.add(versions.get(i - 1).dissoc(i * 7));
+        Footprint footprint = footprint(versions.toArray(new ClojureMap<?, ?>[0]));
+
+        long exclusive = 0;
+        for (int i = 0; i < versions.size(); i++) exclusive += footprint.exclusiveBytes(i);
+        assertEquals(footprint.sharedBytes() + exclusive, footprint.bytes());
+        assertTrue(footprint.bytes() < 2 * footprint(versions.get(0)).bytes(), footprint.toString());
+    }
+
+    @Test
+    public void champMaps() throws Exception {
+        ClojureMap<Integer, Integer> clojure = range(10_000);
+        TransientMap<Integer, Integer> tr = transientMap(champ());
+        tr.putAll(clojure);
+        ClojureMap<Integer, Integer> champ = tr.toPersistent();
+
+        assertTrue(footprint(champ).bytes() < footprint(clojure).bytes());
+        assertEquals(footprint(champ, champ.assoc(-1, -1)).exclusiveNodes(0), footprint(clojure, clojure.assoc(-1, -1)).exclusiveNodes(0));
+    }
+
+    @Test
+    public void setsAndLists() throws Exception {
+        ClojureSet<Integer> set = IntStream.range(0, 1_000).boxed().collect(toClojureSet());
+        Footprint sets = footprint(set, set.with(-1), clojureSet());
+        assertTrue(sets.sharedBytes() > sets.exclusiveBytes(1));
+        assertTrue(sets.exclusiveNodes(2) > 0);
+
+        ClojureList<Integer> list = IntStream.range(0, 1_000).boxed().collect(toClojureList());
+        Footprint lists = footprint(list, list.append(-1), list.subList(0, 10), clojureList());
+        assertTrue(lists.sharedBytes() > 4 * 1_000, lists.toString());
+        assertTrue(lists.exclusiveBytes(2) < 256, lists.toString());
+        assertEquals(footprint(clojureMap("a", 1)).nodes(), 2L);
+    }
+
+    @Test
+    public void unsupportedCollections() throws Exception {
+        ClojureMap<Object, Object> sorted = ClojureMap.wrap(PersistentTreeMap.EMPTY);
+        assertThrows(IllegalArgumentException.class, () -> footprint(clojureMap(), sorted));
+    }
+}
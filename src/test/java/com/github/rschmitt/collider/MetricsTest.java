@@ -0,0 +1,49 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collector;
+
+import com.github.rschmitt.collider.Metrics.Operation;
+
+import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.metrics;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
+import static com.github.rschmitt.collider.Collider.transientSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+    @Test
+    public void spansUpdateCounters() {
+        Metrics before = metrics();
+        Events.begin(Operation.BULK_REBUILD, "test").end(3, 5);
+        Metrics after = metrics();
+
+        assertEquals(after.count(Operation.BULK_REBUILD) - before.count(Operation.BULK_REBUILD), 1L);
+        assertEquals(after.elements(Operation.BULK_REBUILD) - before.elements(Operation.BULK_REBUILD), 3L);
+        assertTrue(after.nanos(Operation.BULK_REBUILD) >= before.nanos(Operation.BULK_REBUILD));
+        assertTrue(after.toString().contains("BULK_REBUILD={count="));
+    }
+
+    /**
+     * Operations are only counted when {@code collider.events} is set. The build runs the tests
+     * twice, once with it and once without, to cover both.
+     */
+    @Test
+    public void operationsAreCountedWhenEnabled() {
+        assertEquals(metrics().isEnabled(), Events.ENABLED);
+        long expected = Events.ENABLED ? 1 : 0;
+
+        Metrics before = metrics();
+        clojureMap("a", 1).merge(clojureMap("b", 2), clojureMap("c", 3));
+        Collector<Integer, TransientSet<Integer>, ClojureSet<Integer>> collector = toClojureSet();
+        collector.finisher().apply(collector.combiner().apply(transientSet(), transientSet()));
+        Metrics after = metrics();
+
+        assertEquals(after.count(Operation.MAP_MERGE) - before.count(Operation.MAP_MERGE), expected);
+        assertEquals(after.elements(Operation.MAP_MERGE) - before.elements(Operation.MAP_MERGE), 2 * expected);
+        assertEquals(after.count(Operation.COLLECTOR_COMBINE) - before.count(Operation.COLLECTOR_COMBINE), expected);
+        assertTrue(after.count(Operation.TRANSIENT_PERSIST) - before.count(Operation.TRANSIENT_PERSIST) >= expected);
+    }
+}
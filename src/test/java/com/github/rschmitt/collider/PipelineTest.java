@@ -0,0 +1,94 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.rschmitt.collider.Collider.clojureList;
+import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.clojureSet;
+import static com.github.rschmitt.collider.Collider.toClojureList;
+import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PipelineTest {
+    @Test
+    public void fusedStages() throws Exception {
+        ClojureList<Integer> list = range(0, 100).boxed().collect(toClojureList());
+
+        ClojureList<String> result = list.pipeline()
+                .map(x -> x * 3)
+                .filter(x -> x % 2 == 0)
+                .map(x -> "x" + x)
+                .toList();
+
+        assertEquals(result, list.map(x -> x * 3).filter(x -> x % 2 == 0).map(x -> "x" + x));
+        assertEquals(list.pipeline().exclude(x -> x < 90).toSet(), range(90, 100).boxed().collect(toClojureSet()));
+        assertEquals(list.pipeline().filter(x -> x < 3).toMap(x -> x, x -> -x), clojureMap(0, 0, 1, -1, 2, -2));
+        assertEquals(list.pipeline().filter(x -> x % 10 == 0).count(), 10L);
+    }
+
+    @Test
+    public void laziness() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ClojureList<Integer> list = range(0, 1_000).boxed().collect(toClojureList());
+
+        Pipeline<Integer> pipeline = list.pipeline().map(x -> {
+            calls.incrementAndGet();
+            return x;
+        });
+        assertEquals(calls.get(), 0);
+
+        assertEquals(pipeline.take(5).toList(), clojureList(0, 1, 2, 3, 4));
+        assertEquals(calls.get(), 5);
+
+        calls.set(0);
+        assertEquals(pipeline.takeWhile(x -> x < 10).toList().size(), 10);
+        assertEquals(calls.get(), 11);
+    }
+
+    @Test
+    public void take() throws Exception {
+        ClojureList<Integer> list = clojureList(1, 2, 3, 4, 5, 6);
+
+        assertEquals(list.pipeline().take(0).toList(), clojureList());
+        assertEquals(list.pipeline().take(100).toList(), list);
+        assertEquals(list.pipeline().filter(x -> x % 2 == 0).take(2).toList(), clojureList(2, 4));
+        assertEquals(list.pipeline().take(4).filter(x -> x % 2 == 0).toList(), clojureList(2, 4));
+        assertEquals(list.pipeline().take(4).take(2).toList(), clojureList(1, 2));
+        assertEquals(list.pipeline().takeWhile(x -> x < 4).map(x -> x * 10).toList(), clojureList(10, 20, 30));
+        assertEquals(list.pipeline().parallel().take(3).toList(), clojureList(1, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> list.pipeline().take(-1));
+    }
+
+    @Test
+    public void reusable() throws Exception {
+        Pipeline<Integer> pipeline = clojureSet(1, 2, 3).pipeline().map(x -> x * 2).take(2);
+
+        assertEquals(pipeline.toList(), pipeline.toList());
+        assertEquals(pipeline.count(), 2L);
+    }
+
+    @Test
+    public void mapPipeline() throws Exception {
+        ClojureMap<String, Integer> map = clojureMap("a", 1, "b", 2, "c", 3);
+
+        assertEquals(map.pipeline().filter(e -> e.getValue() > 1).toMap(e -> e.getValue(), e -> e.getKey()), clojureMap(2, "b", 3, "c"));
+    }
+
+    @Test
+    public void parallel() throws Exception {
+        ClojureList<Integer> list = range(0, 100_000).boxed().collect(toClojureList());
+        ClojureSet<Integer> set = list.stream().collect(toClojureSet());
+        ClojureMap<Integer, Integer> map = list.stream().collect(toClojureMap(x -> x, x -> x));
+
+        assertEquals(list.pipeline().parallel().map(x -> x + 1).filter(x -> x % 3 == 0).toList(),
+                list.pipeline().map(x -> x + 1).filter(x -> x % 3 == 0).toList());
+        assertEquals(set.pipeline().parallel().filter(x -> x % 2 == 0).toSet(), set.filter(x -> x % 2 == 0));
+        assertEquals(map.pipeline().parallel().toMap(e -> e.getValue(), e -> e.getKey()), map);
+        assertEquals(list.pipeline().parallel().count(), 100_000L);
+    }
+}
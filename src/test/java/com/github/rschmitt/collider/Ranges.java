@@ -0,0 +1,18 @@
+package com.github.rschmitt.collider;
+
+import java.util.stream.IntStream;
+
+import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static java.util.function.Function.identity;
+
+final class Ranges {
+    private Ranges() {
+    }
+
+    /**
+     * Returns a map from each of the integers 0 (inclusive) to {@code n} (exclusive) to itself.
+     */
+    static ClojureMap<Integer, Integer> range(int n) {
+        return IntStream.range(0, n).boxed().collect(toClojureMap(identity(), identity()));
+    }
+}
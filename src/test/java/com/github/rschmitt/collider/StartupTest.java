@@ -0,0 +1,215 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.github.rschmitt.collider.Collider.clojureList;
+import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.clojureSet;
+import static com.github.rschmitt.collider.Collider.clojureSortedMap;
+import static com.github.rschmitt.collider.Collider.clojureSortedSet;
+import static com.github.rschmitt.collider.Collider.groupingToClojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureList;
+import static com.github.rschmitt.collider.Collider.toClojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureSet;
+import static com.github.rschmitt.collider.Collider.transientList;
+import static com.github.rschmitt.collider.Collider.transientMap;
+import static com.github.rschmitt.collider.Collider.transientSet;
+import static com.github.rschmitt.collider.Collider.transientSortedMap;
+import static com.github.rschmitt.collider.Collider.transientSortedSet;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how the collections initialize {@code clojure.lang.RT}, whose static initializer loads
+ * all of {@code clojure.core}: the hash-based collections can be used without it, and the sorted
+ * ones must initialize it correctly. Since RT is certainly initialized in the JVM running the
+ * tests, each workload runs in a fresh class loader, which records every class that it loads.
+ */
+public class StartupTest {
+    @Test
+    public void hashCollectionsDoNotLoadClojureRuntime() throws Exception {
+        Assumptions.assumeDirectIterators();
+        Set<String> loaded = runInFreshClassLoader(Workload.class, null);
+
+        assertTrue(loaded.contains("clojure.lang.PersistentHashMap"));
+        assertFalse(loaded.contains("clojure.lang.RT"));
+    }
+
+    /**
+     * Checks the documented exception to the test above: numeric keys are hashed by {@code
+     * clojure.lang.Numbers}, which initializes RT.
+     */
+    @Test
+    public void numericKeysInitializeClojureRuntime() throws Exception {
+        Set<String> loaded = runInFreshClassLoader(NumericWorkload.class, null);
+
+        assertTrue(loaded.contains("clojure.lang.Numbers"));
+        assertTrue(loaded.contains("clojure.lang.RT"));
+    }
+
+    /**
+     * Checks that each factory for sorted collections with a comparator works when it is the
+     * first thing to touch {@code clojure.lang.PersistentTreeMap}, which must not be initialized
+     * before RT.
+     */
+    @Test
+    public void sortedCollectionsWithComparatorInitializeClojureRuntime() throws Exception {
+        for (String factory : SortedWorkload.FACTORIES) {
+            Set<String> loaded = runInFreshClassLoader(SortedWorkload.class, factory);
+            assertTrue(loaded.contains("clojure.lang.RT"), factory);
+        }
+    }
+
+    /**
+     * Runs {@code workload} in a new class loader that shares no classes with this one, and
+     * returns the names of the classes that it loaded.
+     */
+    private static Set<String> runInFreshClassLoader(Class<? extends Consumer<String>> workload, String arg) throws Exception {
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        URL[] classpath = Stream.of(System.getProperty("java.class.path").split(File.pathSeparator))
+                .map(StartupTest::toUrl)
+                .toArray(URL[]::new);
+        // The parent of the system class loader sees the JDK's own classes, but not the class path.
+        try (URLClassLoader loader = new URLClassLoader(classpath, ClassLoader.getSystemClassLoader().getParent()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                loaded.add(name);
+                return super.findClass(name);
+            }
+        }) {
+            @SuppressWarnings("unchecked")
+            Consumer<String> instance = (Consumer<String>) loader.loadClass(workload.getName()).getDeclaredConstructor().newInstance();
+            // RT loads clojure.core through the context class loader, which would otherwise find
+            // the classes already loaded by this one.
+            Thread thread = Thread.currentThread();
+            ClassLoader contextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(loader);
+            try {
+                instance.accept(arg);
+            } finally {
+                thread.setContextClassLoader(contextClassLoader);
+            }
+        }
+        return loaded;
+    }
+
+    private static URL toUrl(String path) {
+        try {
+            return new File(path).toURI().toURL();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Exercises the persistent and transient hash maps, lists and sets with string elements. Any
+     * {@link Number} would be hashed by {@code clojure.lang.Numbers}, which does initialize RT.
+     */
+    public static class Workload implements Consumer<String> {
+        @Override
+        public void accept(String unused) {
+            ClojureMap<String, String> map = clojureMap("a", "1", "b", "2");
+            map = map.assoc("c", "3").dissoc("a").assocAll(clojureMap("d", "4")).dissocAll(Arrays.asList("d"));
+            map = map.merge(clojureMap("e", "5")).mapValues(v -> v + "!").filterKeys(k -> !k.equals("e"));
+            ClojureMap<String, Object> nested = clojureMap();
+            nested = nested.assocIn(Arrays.asList("f", "g"), "6").updateIn(Arrays.asList("f", "g"), v -> v + "?");
+            check(nested.size() == 1);
+            TransientMap<String, String> transientMap = map.asTransient();
+            transientMap.put("h", "7");
+            transientMap.remove("b");
+            transientMap.merge("h", "8", String::concat);
+            map = transientMap.toPersistent();
+            map.forEach((k, v) -> {
+            });
+            check(map.reduce("", (acc, k, v) -> acc + k).length() == 2);
+            check(map.equals(new HashMap<>(map)) && map.hashCode() == new HashMap<>(map).hashCode());
+            check(map.keySet().stream().count() == map.entrySet().size());
+
+            ClojureList<String> list = clojureList("x", "y", "z").append("w");
+            TransientList<String> transientList = list.asTransient();
+            transientList.append("v");
+            list = transientList.toPersistent();
+            list = list.subList(1, 4).concat(list).map(s -> s + s).filter(s -> !s.isEmpty());
+            check(list.equals(Arrays.asList(list.toArray())) && list.indexOf("vv") == 7);
+
+            ClojureSet<String> set = clojureSet("p", "q").with("r").without("p");
+            TransientSet<String> transientSet = set.asTransient();
+            transientSet.add("s");
+            set = transientSet.toPersistent().map(s -> s + "!").filter(s -> !s.isEmpty());
+            check(set.contains("s!") && set.hashCode() == new HashSet<>(set).hashCode());
+            check(set.toArray().length == 3 && set.toArray(new String[0]).length == 3);
+
+            Map<String, ClojureList<String>> groups = Stream.of("a", "bb", "cc").collect(groupingToClojureMap(s -> s.substring(0, 1)));
+            check(groups.size() == 3);
+            check(Stream.of("a", "b").collect(toClojureList()).size() == 2);
+            check(Stream.of("a", "b").collect(toClojureSet()).size() == 2);
+            check(Stream.of("a", "b").collect(toClojureMap(s -> s, s -> s)).size() == 2);
+            check(list.pipeline().map(s -> s + "-").take(2).toList().size() == 2);
+            check(transientMap().size() == 0 && transientList().size() == 0 && transientSet().size() == 0);
+        }
+
+        private static void check(boolean condition) {
+            if (!condition) throw new AssertionError();
+        }
+    }
+
+    /**
+     * Builds a map with {@link Long} keys, as in {@code clojureMap(1L, "a").assoc(2L, "b")}.
+     */
+    public static class NumericWorkload implements Consumer<String> {
+        @Override
+        public void accept(String unused) {
+            ClojureMap<Long, String> map = clojureMap(1L, "a").assoc(2L, "b").dissoc(1L);
+            Workload.check(map.size() == 1 && map.get(2L).equals("b"));
+        }
+    }
+
+    /**
+     * Creates an empty sorted collection with a comparator from the named factory, and adds to
+     * it.
+     */
+    public static class SortedWorkload implements Consumer<String> {
+        static final List<String> FACTORIES = Arrays.asList("clojureSortedMap", "clojureSortedSet", "transientSortedMap", "transientSortedSet");
+
+        @Override
+        public void accept(String factory) {
+            Comparator<String> comparator = Comparator.reverseOrder();
+            switch (factory) {
+                case "clojureSortedMap":
+                    Workload.check(clojureSortedMap(comparator).assoc("a", 1).assoc("b", 2).firstKey().equals("b"));
+                    break;
+                case "clojureSortedSet":
+                    Workload.check(clojureSortedSet(comparator).with("a").with("b").first().equals("b"));
+                    break;
+                case "transientSortedMap":
+                    TransientSortedMap<String, Integer> map = transientSortedMap(comparator);
+                    map.put("a", 1);
+                    map.put("b", 2);
+                    Workload.check(map.toPersistent().firstKey().equals("b"));
+                    break;
+                case "transientSortedSet":
+                    TransientSortedSet<String> set = transientSortedSet(comparator);
+                    set.add("a");
+                    set.add("b");
+                    Workload.check(set.toPersistent().first().equals("b"));
+                    break;
+                default:
+                    throw new IllegalArgumentException(factory);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.rschmitt.collider;
+
+import org.junit.jupiter.api.Test;
+
+import static com.github.rschmitt.collider.Collider.clojureLongMap;
+import static com.github.rschmitt.collider.Collider.transientLongMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransientLongMapTest {
+    @Test
+    public void reuseFails() throws Exception {
+        TransientLongMap<String> transientMap = transientLongMap();
+        transientMap.toPersistent();
+        assertThrows(IllegalAccessError.class, () -> transientMap.put(1, "a"));
+    }
+
+    @Test
+    public void putOverwrites() throws Exception {
+        TransientLongMap<Integer> transientMap = transientLongMap();
+
+        transientMap.put(1, 1);
+        assertEquals(transientMap.get(1), (Integer) 1);
+
+        transientMap.put(1, 2);
+        assertEquals(transientMap.get(1), (Integer) 2);
+
+        transientMap.put(-1, 3);
+        assertEquals(transientMap.get(-1), (Integer) 3);
+
+        assertEquals(transientMap.toPersistent(), Collider.<Integer>clojureLongMap().assoc(1, 2).assoc(-1, 3));
+    }
+
+    @Test
+    public void remove() throws Exception {
+        TransientLongMap<String> transientMap = transientLongMap();
+        assertEquals(transientMap.size(), 0);
+
+        transientMap.put(7, "a");
+        assertTrue(transientMap.contains(7));
+        assertEquals(transientMap.size(), 1);
+
+        transientMap.remove(7);
+        assertFalse(transientMap.contains(7));
+        assertNull(transientMap.get(7));
+        assertEquals(transientMap.size(), 0);
+
+        transientMap.remove(7);
+        assertEquals(transientMap.size(), 0);
+    }
+
+    @Test
+    public void persistentSourceIsUnchanged() throws Exception {
+        ClojureLongMap<Long> original = clojureLongMap();
+        for (long i = 0; i < 100; i++) original = original.assoc(i, i);
+
+        TransientLongMap<Long> transientMap = original.asTransient();
+        for (long i = 0; i < 100; i += 2) transientMap.remove(i);
+        for (long i = 1; i < 100; i += 2) transientMap.put(i, -i);
+        ClojureLongMap<Long> modified = transientMap.toPersistent();
+
+        assertEquals(original.size(), 100);
+        for (long i = 0; i < 100; i++) assertEquals(original.get(i), (Long) i);
+        assertEquals(modified.size(), 50);
+        for (long i = 1; i < 100; i += 2) assertEquals(modified.get(i), (Long) (-i));
+    }
+
+    @Test
+    public void absorb() throws Exception {
+        TransientLongMap<String> x = transientLongMap();
+        TransientLongMap<String> y = transientLongMap();
+        for (long i = 0; i < 1_000; i++) x.put(i, "x");
+        for (long i = 500; i < 1_500; i++) y.put(i, "y");
+
+        x.absorb(y);
+        assertThrows(IllegalAccessError.class, () -> y.put(0, "y"));
+        x.put(0, "z");
+        ClojureLongMap<String> result = x.toPersistent();
+
+        assertEquals(result.size(), 1_500);
+        assertEquals(result.get(0), "z");
+        assertEquals(result.get(499), "x");
+        assertEquals(result.get(500), "y");
+        assertEquals(result.get(1_499), "y");
+    }
+}
@@ -2,8 +2,13 @@ package com.github.rschmitt.collider;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static com.github.rschmitt.collider.Collider.clojureMap;
+import static com.github.rschmitt.collider.Collider.toClojureMap;
 import static com.github.rschmitt.collider.Collider.transientMap;
+import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -58,4 +63,61 @@ public class TransientMapTest {
         assertNull(transientMap.get("key"));
         assertEquals(transientMap.toPersistent(), clojureMap("key", null));
     }
+
+    @Test
+    public void merge() throws Exception {
+        TransientMap<Object, Integer> counts = transientMap();
+        Map<Object, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            Object key = i % 3 == 0 ? new CollidingKey(i % 5_000) : i % 7_000;
+            assertEquals(counts.merge(key, 1, Integer::sum), expected.merge(key, 1, Integer::sum));
+        }
+        counts.merge(null, 1, Integer::sum);
+        assertEquals(counts.merge(null, 1, Integer::sum).intValue(), 2);
+        expected.put(null, 2);
+
+        assertEquals(counts.size(), expected.size());
+        assertEquals(counts.toPersistent(), expected);
+    }
+
+    @Test
+    public void mergeIntoExistingMap() throws Exception {
+        ClojureMap<Integer, Integer> before = range(0, 10_000).boxed().collect(toClojureMap(x -> x, x -> x));
+        TransientMap<Integer, Integer> tr = before.asTransient();
+
+        for (int i = 0; i < 20_000; i += 2) {
+            tr.merge(i, 1, Integer::sum);
+        }
+
+        for (int i = 0; i < 10_000; i += 2) assertEquals(tr.get(i).intValue(), i + 1);
+        for (int i = 1; i < 10_000; i += 2) assertEquals(tr.get(i).intValue(), i);
+        for (int i = 10_000; i < 20_000; i += 2) assertEquals(tr.get(i).intValue(), 1);
+        assertEquals(tr.size(), 15_000);
+        assertEquals(before.get(4), Integer.valueOf(4));
+        assertEquals(before.size(), 10_000);
+    }
+
+    @Test
+    public void compute() throws Exception {
+        TransientMap<String, String> tr = transientMap();
+
+        assertEquals(tr.compute("a", (k, v) -> k + v), "anull");
+        assertEquals(tr.compute("a", (k, v) -> v + "!"), "anull!");
+        assertNull(tr.compute("b", (k, v) -> null));
+
+        assertEquals(tr.toPersistent(), clojureMap("a", "anull!", "b", null));
+    }
+
+    @Test
+    public void computeIfAbsent() throws Exception {
+        TransientMap<String, String> tr = transientMap();
+
+        assertEquals(tr.computeIfAbsent("a", k -> k + k), "aa");
+        assertEquals(tr.computeIfAbsent("a", k -> "unused"), "aa");
+        assertNull(tr.computeIfAbsent("b", k -> null));
+        assertNull(tr.computeIfAbsent("b", k -> "unused"));
+
+        assertEquals(tr.toPersistent(), clojureMap("a", "aa", "b", null));
+    }
 }